@@ -0,0 +1,121 @@
+package com.datasampler.datagenerator;
+
+import com.datasampler.datagenerator.controller.DataGeneratorController;
+import com.datasampler.datagenerator.model.GenerationRequest;
+import com.datasampler.datagenerator.service.DataGeneratorService;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Command line entry point that writes a generated dataset straight to a local file, without starting the web server.
+ * Takes the same parameters as GET /api/data/generate, plus --output=path and an optional --fsync:
+ *
+ * <pre>
+ * java -Dloader.main=com.datasampler.datagenerator.DataGeneratorCli -cp data-generator.jar \
+ *      org.springframework.boot.loader.launch.PropertiesLauncher \
+ *      --output=/data/transactions.csv --dataSampleCount=100000000 --seed=42
+ * </pre>
+ *
+ * A partitioned request (--partitionBy, --maxRowsPerFile or --maxBytesPerFile) writes its files into the --output
+ * directory instead of a zip archive.
+ */
+public class DataGeneratorCli {
+
+    public static void main(String[] args) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(DataGeneratorApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .run(args);
+        int exitCode = run(context);
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+
+    /**
+     * Generates the file described by the command line arguments
+     *
+     * @return 0 on success, 2 if an argument is invalid, 1 if writing the file failed
+     */
+    static int run(ConfigurableApplicationContext context) {
+        ApplicationArguments arguments = context.getBean(ApplicationArguments.class);
+        DataGeneratorService dataGeneratorService = context.getBean(DataGeneratorService.class);
+
+        Path output;
+        GenerationRequest request;
+        try {
+            String outputOption = option(arguments, "output");
+            if (outputOption == null) {
+                throw new IllegalArgumentException("--output=<file> is required");
+            }
+            output = Paths.get(outputOption);
+
+            Integer dataSampleCount = intOption(arguments, "dataSampleCount");
+            Integer offset = intOption(arguments, "offset");
+            String seed = option(arguments, "seed");
+            String fileType = option(arguments, "fileType");
+            String compression = option(arguments, "compression");
+            String partitionBy = option(arguments, "partitionBy");
+            String seasonality = option(arguments, "seasonality");
+            String order = option(arguments, "order");
+            String maxBytesPerFile = option(arguments, "maxBytesPerFile");
+            request = DataGeneratorController.buildRequest(
+                    fileType != null ? fileType : "CSV",
+                    dataSampleCount != null ? dataSampleCount : 100,
+                    intOption(arguments, "uniqueSampleCount"),
+                    option(arguments, "txnType"),
+                    intOption(arguments, "year"),
+                    seasonality != null ? seasonality : "none",
+                    order != null ? order : "none",
+                    seed != null ? Long.valueOf(seed) : null,
+                    offset != null ? offset : 0,
+                    intOption(arguments, "limit"),
+                    compression != null ? compression : "none",
+                    partitionBy != null ? partitionBy : "none",
+                    intOption(arguments, "maxRowsPerFile"),
+                    maxBytesPerFile != null ? Long.valueOf(maxBytesPerFile) : null);
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException is an IllegalArgumentException too
+            System.err.println("Invalid argument: " + e.getMessage());
+            return 2;
+        }
+
+        boolean sync = arguments.containsOption("fsync");
+        long startNanos = System.nanoTime();
+        try {
+            if (request.isPartitioned()) {
+                dataGeneratorService.writePartitions(request, output, sync);
+            } else {
+                if (output.getParent() != null) {
+                    Files.createDirectories(output.getParent());
+                }
+                dataGeneratorService.writeDataset(request, output, sync);
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to write " + output + ": " + e.getMessage());
+            return 1;
+        }
+
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        long rows = dataGeneratorService.countRecords(request);
+        System.out.printf("Wrote %d rows to %s in %.1f s (%.0f rows/s)%n", rows, output, seconds, rows / seconds);
+        return 0;
+    }
+
+    private static String option(ApplicationArguments arguments, String name) {
+        List<String> values = arguments.getOptionValues(name);
+        return values == null || values.isEmpty() ? null : values.get(values.size() - 1);
+    }
+
+    private static Integer intOption(ApplicationArguments arguments, String name) {
+        String value = option(arguments, name);
+        return value != null ? Integer.valueOf(value) : null;
+    }
+}
@@ -1,57 +1,208 @@
 package com.datasampler.datagenerator.controller;
 
-import com.datasampler.datagenerator.model.TransactionRecord;
+import com.datasampler.datagenerator.model.Compression;
+import com.datasampler.datagenerator.model.FileType;
+import com.datasampler.datagenerator.model.GenerationRequest;
+import com.datasampler.datagenerator.model.JobState;
+import com.datasampler.datagenerator.model.JobStatus;
+import com.datasampler.datagenerator.model.PartitionBy;
+import com.datasampler.datagenerator.model.RowOrder;
+import com.datasampler.datagenerator.model.Seasonality;
 import com.datasampler.datagenerator.service.DataGeneratorService;
+import com.datasampler.datagenerator.service.GenerationJobService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.nio.file.Path;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/data")
 public class DataGeneratorController {
 
     private final DataGeneratorService dataGeneratorService;
+    private final GenerationJobService generationJobService;
 
     @Autowired
-    public DataGeneratorController(DataGeneratorService dataGeneratorService) {
+    public DataGeneratorController(DataGeneratorService dataGeneratorService, GenerationJobService generationJobService) {
         this.dataGeneratorService = dataGeneratorService;
+        this.generationJobService = generationJobService;
     }
 
     /**
      * Endpoint to generate and download transaction data in the specified format
      *
-     * @param fileType The type of file to generate (currently supports CSV)
+     * @param fileType The type of file to generate: CSV (default), JSONL for JSON Lines, ARROW for an Arrow IPC stream or PARQUET
      * @param dataSampleCount The number of data samples to generate
      * @param uniqueSampleCount The number of unique composite keys to generate (defaults to dataSampleCount)
      * @param txnType The type of transaction to generate (PURCHASE, FEE, PAYMENT, or null for all types)
      * @param year The year for transaction posted dates (e.g., 2024). If provided, dates will be distributed across this year
-     * @return ResponseEntity with the generated file as a downloadable attachment
+     * @param seasonality Optional spread of posted dates over the year: none (default, uniform) or card
+     * @param order Optional row order: none (default) or postedDate for rows in ascending posted date order
+     * @param seed Optional seed; requests with the same seed and parameters produce identical files
+     * @param offset Index of the first record to return; records before it are not generated
+     * @param limit Optional maximum number of records to return, starting at offset
+     * @param compression Optional compression applied while streaming: none (default) or gzip
+     * @param partitionBy Optional directory partitioning: none (default) or month, for year=/month= directories
+     * @param maxRowsPerFile Optional number of rows after which a new file is started
+     * @param maxBytesPerFile Optional number of uncompressed bytes after which a new file is started
+     * @return ResponseEntity streaming the generated file as a downloadable attachment; a zip archive of the files
+     *         if the output is partitioned
      */
     @GetMapping("/generate")
-    public ResponseEntity<String> generateData(
+    public ResponseEntity<?> generateData(
             @RequestParam(defaultValue = "CSV") String fileType,
             @RequestParam(defaultValue = "100") int dataSampleCount,
             @RequestParam(required = false) Integer uniqueSampleCount,
             @RequestParam(required = false) String txnType,
-            @RequestParam(required = false) Integer year) {
+            @RequestParam(required = false) Integer year,
+            @RequestParam(defaultValue = "none") String seasonality,
+            @RequestParam(defaultValue = "none") String order,
+            @RequestParam(required = false) Long seed,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "none") String compression,
+            @RequestParam(defaultValue = "none") String partitionBy,
+            @RequestParam(required = false) Integer maxRowsPerFile,
+            @RequestParam(required = false) Long maxBytesPerFile) {
 
+        GenerationRequest request;
+        try {
+            request = buildRequest(fileType, dataSampleCount, uniqueSampleCount, txnType, year, seasonality, order,
+                    seed, offset, limit, compression, partitionBy, maxRowsPerFile, maxBytesPerFile);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+        // Generate and encode records in bounded batches while writing to the response,
+        // so memory use does not grow with dataSampleCount
+        StreamingResponseBody body = outputStream -> dataGeneratorService.writeDataset(request, outputStream);
+
+        return ResponseEntity.ok()
+                .headers(downloadHeaders(request.getFileExtension()))
+                .body(body);
+    }
+
+    /**
+     * Endpoint to submit a generation job that runs in the background and writes its file to local disk.
+     * Accepts the same parameters as /generate.
+     *
+     * @return 202 Accepted with the job status and its location, or 503 if the job queue is full
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<?> submitJob(
+            @RequestParam(defaultValue = "CSV") String fileType,
+            @RequestParam(defaultValue = "100") int dataSampleCount,
+            @RequestParam(required = false) Integer uniqueSampleCount,
+            @RequestParam(required = false) String txnType,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(defaultValue = "none") String seasonality,
+            @RequestParam(defaultValue = "none") String order,
+            @RequestParam(required = false) Long seed,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "none") String compression,
+            @RequestParam(defaultValue = "none") String partitionBy,
+            @RequestParam(required = false) Integer maxRowsPerFile,
+            @RequestParam(required = false) Long maxBytesPerFile) {
+
+        GenerationRequest request;
+        try {
+            request = buildRequest(fileType, dataSampleCount, uniqueSampleCount, txnType, year, seasonality, order,
+                    seed, offset, limit, compression, partitionBy, maxRowsPerFile, maxBytesPerFile);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+        JobStatus status;
+        try {
+            status = generationJobService.submit(request);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Job queue is full, try again later");
+        }
+
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/data/jobs/" + status.getJobId()))
+                .body(status);
+    }
+
+    /**
+     * Endpoint to check the progress of a generation job
+     *
+     * @param jobId The job id returned on submission
+     * @return The job status, or 404 if the job is unknown
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<?> getJobStatus(@PathVariable String jobId) {
+        JobStatus status = generationJobService.getStatus(jobId);
+        if (status == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(status);
+    }
+
+    /**
+     * Endpoint to download the file of a completed generation job
+     *
+     * @param jobId The job id returned on submission
+     * @return The generated file, 404 if the job is unknown, or 409 if it has not completed
+     */
+    @GetMapping("/jobs/{jobId}/result")
+    public ResponseEntity<?> getJobResult(@PathVariable String jobId) {
+        JobStatus status = generationJobService.getStatus(jobId);
+        if (status == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (status.getState() != JobState.COMPLETED) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Job " + jobId + " is " + status.getState());
+        }
+
+        Path resultFile = generationJobService.getResultFile(jobId);
+        return ResponseEntity.ok()
+                .headers(downloadHeaders(status.getFileExtension()))
+                .body(new FileSystemResource(resultFile));
+    }
+
+    /**
+     * Validates request parameters and builds the generation request. Shared with the command line entry point,
+     * so both accept the same parameters.
+     *
+     * @throws IllegalArgumentException With a user-facing message if a parameter is invalid
+     */
+    public static GenerationRequest buildRequest(String fileType, int dataSampleCount, Integer uniqueSampleCount,
+                                                 String txnType, Integer year, String seasonality, String order,
+                                                 Long seed, int offset, Integer limit, String compression,
+                                                 String partitionBy, Integer maxRowsPerFile, Long maxBytesPerFile) {
         // Validate input parameters
         if (dataSampleCount <= 0) {
-            return ResponseEntity.badRequest().body("Data sample count must be greater than 0");
+            throw new IllegalArgumentException("Data sample count must be greater than 0");
         }
 
-        if (!"CSV".equalsIgnoreCase(fileType)) {
-            return ResponseEntity.badRequest().body("Currently only CSV file type is supported");
+        // Validate file type
+        FileType format;
+        if ("CSV".equalsIgnoreCase(fileType)) {
+            format = FileType.CSV;
+        } else if ("JSONL".equalsIgnoreCase(fileType)) {
+            format = FileType.JSONL;
+        } else if ("ARROW".equalsIgnoreCase(fileType)) {
+            format = FileType.ARROW;
+        } else if ("PARQUET".equalsIgnoreCase(fileType)) {
+            format = FileType.PARQUET;
+        } else {
+            throw new IllegalArgumentException("File type must be one of: CSV, JSONL, ARROW, PARQUET");
         }
 
         // If uniqueSampleCount is not provided, use dataSampleCount
@@ -61,18 +212,18 @@ public class DataGeneratorController {
 
         // Validate uniqueSampleCount
         if (uniqueSampleCount <= 0) {
-            return ResponseEntity.badRequest().body("Unique sample count must be greater than 0");
+            throw new IllegalArgumentException("Unique sample count must be greater than 0");
         }
 
         if (uniqueSampleCount > dataSampleCount) {
-            return ResponseEntity.badRequest().body("Unique sample count cannot be greater than data sample count");
+            throw new IllegalArgumentException("Unique sample count cannot be greater than data sample count");
         }
 
         // Validate txnType if provided
         if (txnType != null && !txnType.isEmpty()) {
             txnType = txnType.toUpperCase();
             if (!"PURCHASE".equals(txnType) && !"FEE".equals(txnType) && !"PAYMENT".equals(txnType)) {
-                return ResponseEntity.badRequest().body("Transaction type must be one of: PURCHASE, FEE, PAYMENT");
+                throw new IllegalArgumentException("Transaction type must be one of: PURCHASE, FEE, PAYMENT");
             }
         }
 
@@ -80,33 +231,114 @@ public class DataGeneratorController {
         if (year != null) {
             int currentYear = java.time.Year.now().getValue();
             if (year < 2000 || year > currentYear + 5) {
-                return ResponseEntity.badRequest().body("Year must be between 2000 and " + (currentYear + 5));
+                throw new IllegalArgumentException("Year must be between 2000 and " + (currentYear + 5));
             }
         }
 
-        // Generate transaction records
-        List<TransactionRecord> records = dataGeneratorService.generateTransactionRecords(dataSampleCount, uniqueSampleCount, txnType, year);
+        // Validate the requested slice
+        if (offset < 0 || offset >= dataSampleCount) {
+            throw new IllegalArgumentException("Offset must be between 0 and " + (dataSampleCount - 1));
+        }
 
-        // Convert to CSV
-        String fileContent = dataGeneratorService.convertToCsv(records);
+        if (limit != null && limit <= 0) {
+            throw new IllegalArgumentException("Limit must be greater than 0");
+        }
 
-        // We're removing the BOM as it might cause issues with Mostly AI
-        // String bomPrefix = "\uFEFF";
-        // fileContent = bomPrefix + fileContent;
+        // Validate compression
+        Compression compressionMode;
+        if ("none".equalsIgnoreCase(compression)) {
+            compressionMode = Compression.NONE;
+        } else if ("gzip".equalsIgnoreCase(compression)) {
+            compressionMode = Compression.GZIP;
+        } else {
+            throw new IllegalArgumentException("Compression must be one of: none, gzip");
+        }
 
-        // Generate a filename with timestamp
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-        String filename = "txnTrainingSample"  + ".csv";
+        // Validate seasonality
+        Seasonality seasonalityMode;
+        if ("none".equalsIgnoreCase(seasonality)) {
+            seasonalityMode = Seasonality.NONE;
+        } else if ("card".equalsIgnoreCase(seasonality)) {
+            seasonalityMode = Seasonality.CARD;
+        } else {
+            throw new IllegalArgumentException("Seasonality must be one of: none, card");
+        }
+
+        // Validate row order
+        RowOrder rowOrder;
+        if ("none".equalsIgnoreCase(order)) {
+            rowOrder = RowOrder.NONE;
+        } else if ("postedDate".equalsIgnoreCase(order)) {
+            rowOrder = RowOrder.POSTED_DATE;
+        } else {
+            throw new IllegalArgumentException("Order must be one of: none, postedDate");
+        }
 
-        // Set headers for file download with UTF-8 encoding
+        // Validate partitioning
+        PartitionBy partitionMode;
+        if ("none".equalsIgnoreCase(partitionBy)) {
+            partitionMode = PartitionBy.NONE;
+        } else if ("month".equalsIgnoreCase(partitionBy)) {
+            partitionMode = PartitionBy.MONTH;
+        } else {
+            throw new IllegalArgumentException("Partition by must be one of: none, month");
+        }
+
+        if (maxRowsPerFile != null && maxRowsPerFile <= 0) {
+            throw new IllegalArgumentException("Max rows per file must be greater than 0");
+        }
+
+        if (maxBytesPerFile != null && maxBytesPerFile <= 0) {
+            throw new IllegalArgumentException("Max bytes per file must be greater than 0");
+        }
+
+        // Arrow and Parquet output is always a single file; files and partitions are only written for the row formats
+        boolean partitioned = partitionMode != PartitionBy.NONE || maxRowsPerFile != null || maxBytesPerFile != null;
+        if (format.isColumnar() && partitioned) {
+            throw new IllegalArgumentException("Partitioned output is only supported for CSV and JSONL");
+        }
+
+        return GenerationRequest.builder()
+                .fileType(format)
+                .dataSampleCount(dataSampleCount)
+                .uniqueSampleCount(uniqueSampleCount)
+                .txnType(txnType)
+                .year(year)
+                .seasonality(seasonalityMode)
+                .order(rowOrder)
+                .seed(seed)
+                .offset(offset)
+                .limit(limit)
+                .compression(compressionMode)
+                .partitionBy(partitionMode)
+                .maxRowsPerFile(maxRowsPerFile)
+                .maxBytesPerFile(maxBytesPerFile)
+                .build();
+    }
+
+    private HttpHeaders downloadHeaders(String fileExtension) {
+        // No BOM is written as it might cause issues with Mostly AI
+        String filename = "txnTrainingSample" + fileExtension;
+
+        // Set headers for file download. A gzip file is sent as an application/gzip attachment rather than with
+        // Content-Encoding, so clients save the .csv.gz as is instead of decompressing it on the fly
         HttpHeaders headers = new HttpHeaders();
-        MediaType mediaType = new MediaType("text", "csv", StandardCharsets.UTF_8);
+        MediaType mediaType;
+        if (fileExtension.endsWith(".zip")) {
+            mediaType = new MediaType("application", "zip");
+        } else if (fileExtension.endsWith(Compression.GZIP.getFileExtension())) {
+            mediaType = new MediaType("application", "gzip");
+        } else if (fileExtension.endsWith(FileType.JSONL.getFileExtension())) {
+            mediaType = new MediaType("application", "x-ndjson", StandardCharsets.UTF_8);
+        } else if (fileExtension.endsWith(FileType.ARROW.getFileExtension())) {
+            mediaType = new MediaType("application", "vnd.apache.arrow.stream");
+        } else if (fileExtension.endsWith(FileType.PARQUET.getFileExtension())) {
+            mediaType = new MediaType("application", "vnd.apache.parquet");
+        } else {
+            mediaType = new MediaType("text", "csv", StandardCharsets.UTF_8);
+        }
         headers.setContentType(mediaType);
         headers.setContentDispositionFormData("attachment", filename);
-        headers.add(HttpHeaders.CONTENT_ENCODING, "UTF-8");
-
-        return ResponseEntity.ok()
-                .headers(headers)
-                .body(fileContent);
+        return headers;
     }
 }
@@ -11,4 +11,5 @@ public class Category {
     private String categoryGUID;
     private String category;
     private String parentCategoryGUID;
+    private Double weight; // Optional relative sampling weight among siblings; null means 1.0
 }
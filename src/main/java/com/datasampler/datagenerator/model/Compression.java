@@ -0,0 +1,22 @@
+package com.datasampler.datagenerator.model;
+
+/**
+ * Compression applied to generated files while they are streamed
+ */
+public enum Compression {
+    NONE(""),
+    GZIP(".gz");
+
+    private final String fileExtension;
+
+    Compression(String fileExtension) {
+        this.fileExtension = fileExtension;
+    }
+
+    /**
+     * @return Suffix appended to the file name, e.g. ".gz", or an empty string
+     */
+    public String getFileExtension() {
+        return fileExtension;
+    }
+}
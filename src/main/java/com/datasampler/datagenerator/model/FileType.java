@@ -0,0 +1,33 @@
+package com.datasampler.datagenerator.model;
+
+/**
+ * Output formats the generator can write
+ */
+public enum FileType {
+    CSV(".csv", false),
+    JSONL(".jsonl", false), // JSON Lines: one JSON object per line
+    ARROW(".arrows", true), // Apache Arrow IPC stream of dictionary-encoded column batches
+    PARQUET(".parquet", true); // Parquet file of row groups, with dictionary and delta encodings
+
+    private final String fileExtension;
+    private final boolean columnar;
+
+    FileType(String fileExtension, boolean columnar) {
+        this.fileExtension = fileExtension;
+        this.columnar = columnar;
+    }
+
+    /**
+     * @return Extension of a file in this format, e.g. ".csv"
+     */
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    /**
+     * @return Whether records are written by column in batches, rather than one row at a time
+     */
+    public boolean isColumnar() {
+        return columnar;
+    }
+}
@@ -0,0 +1,52 @@
+package com.datasampler.datagenerator.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GenerationRequest {
+    private FileType fileType; // Output format, or null for CSV
+    private int dataSampleCount;
+    private int uniqueSampleCount;
+    private String txnType; // PURCHASE, FEE, PAYMENT, or null for all types
+    private Integer year; // Year for transaction posted dates, or null for the current year
+    private Seasonality seasonality; // Spread of posted dates over the year, or null for uniform
+    private RowOrder order; // Order of the rows, or null for generation order
+    private Long seed; // Fixed seed for reproducible output, or null for a random seed
+    private int offset; // Index of the first record to return
+    private Integer limit; // Maximum number of records to return, or null for all records from offset
+    private Compression compression; // Compression applied while streaming, or null for none
+    private PartitionBy partitionBy; // Directory partitioning of the output files, or null for none
+    private Integer maxRowsPerFile; // Rows after which a new file is started, or null for no limit
+    private Long maxBytesPerFile; // Uncompressed bytes after which a new file is started, or null for no limit
+
+    /**
+     * @return Whether the output is split into several files instead of a single CSV
+     */
+    public boolean isPartitioned() {
+        return (partitionBy != null && partitionBy != PartitionBy.NONE) || maxRowsPerFile != null || maxBytesPerFile != null;
+    }
+
+    /**
+     * @return The output format, CSV unless another one was requested
+     */
+    public FileType getFileTypeOrDefault() {
+        return fileType != null ? fileType : FileType.CSV;
+    }
+
+    /**
+     * @return Extension of the downloaded file: .zip for partitioned output, otherwise the format's extension plus
+     *         the compression suffix, e.g. .jsonl.gz
+     */
+    public String getFileExtension() {
+        if (isPartitioned()) {
+            return ".zip";
+        }
+        return getFileTypeOrDefault().getFileExtension() + (compression != null ? compression.getFileExtension() : "");
+    }
+}
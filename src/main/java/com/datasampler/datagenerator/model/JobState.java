@@ -0,0 +1,11 @@
+package com.datasampler.datagenerator.model;
+
+/**
+ * Lifecycle of a background generation job
+ */
+public enum JobState {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,27 @@
+package com.datasampler.datagenerator.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobStatus {
+    private String jobId;
+    private JobState state;
+    private Compression compression;
+    private String fileExtension; // Extension of the result file, such as .csv, .csv.gz or .zip
+    private long totalRows; // Number of rows the job will write
+    private long rowsWritten;
+    private long bytesWritten; // Bytes written to disk so far, after compression
+    private double rowsPerSecond; // Average rate since the job started
+    private Instant submittedAt;
+    private Instant startedAt;
+    private Instant completedAt;
+    private String error; // Failure message when state is FAILED
+}
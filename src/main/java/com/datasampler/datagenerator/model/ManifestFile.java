@@ -0,0 +1,16 @@
+package com.datasampler.datagenerator.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ManifestFile {
+    private String path; // Relative, '/'-separated path of the file
+    private long rows; // Number of data rows, not counting the header
+    private long bytes; // Uncompressed size including the header
+}
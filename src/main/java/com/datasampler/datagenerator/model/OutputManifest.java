@@ -0,0 +1,21 @@
+package com.datasampler.datagenerator.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutputManifest {
+    private Long seed; // Seed the request passed, or null: unseeded data cannot be regenerated from a seed
+    private long totalRows;
+    private FileType fileType;
+    private Compression compression;
+    private PartitionBy partitionBy;
+    private List<ManifestFile> files; // Files in the order they were started, grouped by partition
+}
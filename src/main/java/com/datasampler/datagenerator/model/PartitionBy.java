@@ -0,0 +1,10 @@
+package com.datasampler.datagenerator.model;
+
+/**
+ * How generated rows are split into directories when the output is partitioned
+ */
+public enum PartitionBy {
+    NONE,
+    // Hive-style year=YYYY/month=MM directories by txn_posted_date
+    MONTH
+}
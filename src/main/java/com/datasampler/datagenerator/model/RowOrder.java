@@ -0,0 +1,11 @@
+package com.datasampler.datagenerator.model;
+
+/**
+ * Order of the rows in generated output
+ */
+public enum RowOrder {
+    // Generation order: unique records first, then related records
+    NONE,
+    // Ascending txn_posted_date, drawn per day rather than sorted
+    POSTED_DATE
+}
@@ -0,0 +1,11 @@
+package com.datasampler.datagenerator.model;
+
+/**
+ * How posted dates are spread over the days of the year
+ */
+public enum Seasonality {
+    // Every day equally likely
+    NONE,
+    // Card spending volume: weighted by month, day of week and holidays as configured by datagenerator.seasonality.card.*
+    CARD
+}
@@ -0,0 +1,271 @@
+package com.datasampler.datagenerator.model;
+
+import com.datasampler.datagenerator.util.DigitFormatter;
+import com.datasampler.datagenerator.util.PostedDateTable;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A batch of generated transactions stored column by column in primitive arrays, so that generating and encoding
+ * rows creates no objects per row. Text columns hold indices into value tables shared by every batch: product
+ * codes, txn types, category names and category GUIDs. Dates are days since the epoch, and accountUid,
+ * tokenizedPan, last4digitNbr, the primary key and the debit/credit indicator are derived from the other columns
+ * when a row is written, as TransactionRecord does. The arrays are exposed for direct reads and writes; rows from
+ * 0 to getSize() are valid. Not thread-safe.
+ */
+public final class TransactionBatch {
+
+    // Values of the txnType column, by index
+    public static final List<String> TXN_TYPES = List.of("PURCHASE", "FEE", "PAYMENT");
+    public static final byte PURCHASE = 0;
+    public static final byte FEE = 1;
+    public static final byte PAYMENT = 2;
+    // Debit/credit indicator of each txn type: D for Debit (PURCHASE, FEE), C for Credit (PAYMENT)
+    public static final List<String> DEBIT_CREDIT_INDICATORS = List.of("D", "D", "C");
+
+    private static final String ACCOUNT_UID_PREFIX = "000000";
+    private static final int ACCOUNT_NUMBER_DIGITS = 14;
+    private static final int PAN_LAST4_MODULUS = 10_000;
+
+    private final List<String> productCodes;
+    private final List<String> categoryNames;
+    private final List<String> categoryGuids;
+    private final PostedDateTable postedDates; // Renders the dates of its year without calendar arithmetic, or null
+    private final int capacity;
+    private int size;
+
+    private final long[] accountNumber; // The 14 random digits of the accountUid
+    private final byte[] productCd; // Index into the product codes
+    private final int[] postedEpochDay; // txnPostedDate as days since 1970-01-01
+    private final int[] txnEpochDay; // txnDate as days since 1970-01-01
+    private final byte[] txnType; // Index into TXN_TYPES
+    private final long[] amountCents;
+    private final short[] category; // Index into the category names
+    private final short[] subCategory; // Index into the category names
+    private final short[] categoryGuid; // Index into the category GUIDs
+    private final int[] txnUid;
+    private final long[] panDigits; // First 6 and last 4 digits of the tokenizedPan, packed as first6 * 10000 + last4
+
+    /**
+     * Creates an empty batch
+     *
+     * @param capacity Number of rows the batch can hold
+     * @param productCodes Values of the productCd column, by index
+     * @param categoryNames Values of the category and subCategory columns, by index
+     * @param categoryGuids Values of the categoryGuid column, by index
+     * @param postedDates The days the rows' dates are drawn from, whose cached dates are used when writing rows;
+     *                    null to compute every date, as for dates outside its year
+     * @throws IllegalArgumentException If a value table has more entries than its index type can address
+     */
+    public TransactionBatch(int capacity, List<String> productCodes, List<String> categoryNames,
+                            List<String> categoryGuids, PostedDateTable postedDates) {
+        if (productCodes.size() > Byte.MAX_VALUE + 1 || categoryNames.size() > Short.MAX_VALUE + 1
+                || categoryGuids.size() > Short.MAX_VALUE + 1) {
+            throw new IllegalArgumentException("Too many product codes or categories for a batch");
+        }
+        this.productCodes = productCodes;
+        this.categoryNames = categoryNames;
+        this.categoryGuids = categoryGuids;
+        this.postedDates = postedDates;
+        this.capacity = capacity;
+        accountNumber = new long[capacity];
+        productCd = new byte[capacity];
+        postedEpochDay = new int[capacity];
+        txnEpochDay = new int[capacity];
+        txnType = new byte[capacity];
+        amountCents = new long[capacity];
+        category = new short[capacity];
+        subCategory = new short[capacity];
+        categoryGuid = new short[capacity];
+        txnUid = new int[capacity];
+        panDigits = new long[capacity];
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Sets the number of valid rows, once they have been filled in
+     *
+     * @param size Number of rows, at most the capacity
+     */
+    public void setSize(int size) {
+        if (size < 0 || size > capacity) {
+            throw new IndexOutOfBoundsException("Size " + size + " of a batch of " + capacity);
+        }
+        this.size = size;
+    }
+
+    public List<String> getProductCodes() {
+        return productCodes;
+    }
+
+    public List<String> getCategoryNames() {
+        return categoryNames;
+    }
+
+    public List<String> getCategoryGuids() {
+        return categoryGuids;
+    }
+
+    public PostedDateTable getPostedDates() {
+        return postedDates;
+    }
+
+    public long[] getAccountNumber() {
+        return accountNumber;
+    }
+
+    public byte[] getProductCd() {
+        return productCd;
+    }
+
+    public int[] getPostedEpochDay() {
+        return postedEpochDay;
+    }
+
+    public int[] getTxnEpochDay() {
+        return txnEpochDay;
+    }
+
+    public byte[] getTxnType() {
+        return txnType;
+    }
+
+    public long[] getAmountCents() {
+        return amountCents;
+    }
+
+    public short[] getCategory() {
+        return category;
+    }
+
+    public short[] getSubCategory() {
+        return subCategory;
+    }
+
+    public short[] getCategoryGuid() {
+        return categoryGuid;
+    }
+
+    public int[] getTxnUid() {
+        return txnUid;
+    }
+
+    public long[] getPanDigits() {
+        return panDigits;
+    }
+
+    /**
+     * Copies one row into a TransactionRecord
+     *
+     * @param row Index of the row
+     * @return A new record with the values of the row
+     */
+    public TransactionRecord toRecord(int row) {
+        return TransactionRecord.builder()
+                .accountNumber(accountNumber[row])
+                .productCd(productCodes.get(productCd[row]))
+                .txnPostedDate(date(postedEpochDay[row]))
+                .txnDate(date(txnEpochDay[row]))
+                .txnType(TXN_TYPES.get(txnType[row]))
+                .amountCents(amountCents[row])
+                .category(categoryNames.get(category[row]))
+                .subCategory(categoryNames.get(subCategory[row]))
+                .categoryGUID(categoryGuids.get(categoryGuid[row]))
+                .txnUid(txnUid[row])
+                .panDigits(panDigits[row])
+                .debitCreditIndicator(DEBIT_CREDIT_INDICATORS.get(txnType[row]))
+                .build();
+    }
+
+    /**
+     * Appends the primary key of a row: accountUid_productCd_txnPostedDate_txnUid
+     *
+     * @param sb The builder to append to
+     * @param row Index of the row
+     */
+    public void appendPrimaryKey(StringBuilder sb, int row) {
+        appendAccountUid(sb, row);
+        sb.append('_').append(productCodes.get(productCd[row])).append('_');
+        appendIsoDate(sb, postedEpochDay[row]);
+        sb.append('_').append(txnUid[row]);
+    }
+
+    public void appendAccountUid(StringBuilder sb, int row) {
+        appendAccountUid(sb, accountNumber[row]);
+    }
+
+    public void appendTokenizedPan(StringBuilder sb, int row) {
+        appendTokenizedPan(sb, panDigits[row]);
+    }
+
+    public void appendLast4digitNbr(StringBuilder sb, int row) {
+        appendLast4digitNbr(sb, panDigits[row]);
+    }
+
+    /**
+     * Appends an accountUid: six zeros followed by the 14 account number digits
+     *
+     * @param sb The builder to append to
+     * @param accountNumber The 14 random digits of the accountUid
+     */
+    public static void appendAccountUid(StringBuilder sb, long accountNumber) {
+        sb.append(ACCOUNT_UID_PREFIX);
+        DigitFormatter.appendZeroPadded(sb, accountNumber, ACCOUNT_NUMBER_DIGITS);
+    }
+
+    /**
+     * Appends a tokenizedPan: 6 digits, 6 masked positions, then the last 4 digits
+     *
+     * @param sb The builder to append to
+     * @param panDigits The packed first 6 and last 4 digits
+     */
+    public static void appendTokenizedPan(StringBuilder sb, long panDigits) {
+        DigitFormatter.appendZeroPadded(sb, panDigits / PAN_LAST4_MODULUS, 6);
+        sb.append("XXXXXX");
+        DigitFormatter.appendZeroPadded(sb, panDigits % PAN_LAST4_MODULUS, 4);
+    }
+
+    /**
+     * Appends the last 4 digits of a tokenizedPan
+     *
+     * @param sb The builder to append to
+     * @param panDigits The packed first 6 and last 4 digits
+     */
+    public static void appendLast4digitNbr(StringBuilder sb, long panDigits) {
+        DigitFormatter.appendZeroPadded(sb, panDigits % PAN_LAST4_MODULUS, 4);
+    }
+
+    private LocalDate date(int epochDay) {
+        return postedDates != null && postedDates.containsDay(epochDay)
+                ? postedDates.date(epochDay) : LocalDate.ofEpochDay(epochDay);
+    }
+
+    /**
+     * Appends a date as yyyy-MM-dd, the way LocalDate.toString renders years 0 to 9999
+     */
+    private void appendIsoDate(StringBuilder sb, int epochDay) {
+        if (postedDates != null && postedDates.hasIsoDate(epochDay)) {
+            postedDates.appendIsoDate(sb, epochDay);
+            return;
+        }
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            sb.append(date);
+            return;
+        }
+        DigitFormatter.appendZeroPadded(sb, year, 4);
+        sb.append('-');
+        DigitFormatter.appendZeroPadded(sb, date.getMonthValue(), 2);
+        sb.append('-');
+        DigitFormatter.appendZeroPadded(sb, date.getDayOfMonth(), 2);
+    }
+}
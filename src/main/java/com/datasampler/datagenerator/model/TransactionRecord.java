@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
@@ -14,18 +15,129 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 public class TransactionRecord {
-    private String accountUid;
+    private String accountUid; // Set explicitly; otherwise rendered from accountNumber on demand
+    private long accountNumber; // The 14 random digits of a generated accountUid
     private String productCd;
     private LocalDate txnPostedDate;
     private LocalDate txnDate;
     private String txnType;
-    private BigDecimal amount;
+    private long amountCents; // Amount in cents; formatted as a two-decimal value only when encoded
     private String category;
     private String subCategory;
     private String categoryGUID;
     private int txnUid;
-    private String tokenizedPan;
-    private String last4digitNbr;
-    private String primaryKey; // Composite key: accountUid_productCd_txnPostedDate_txnUid
+    private String tokenizedPan; // Set explicitly; otherwise rendered from panDigits on demand
+    private long panDigits; // First 6 and last 4 digits of a generated tokenizedPan, packed as first6 * 10000 + last4
+    private String last4digitNbr; // Set explicitly; otherwise the last 4 digits of panDigits
+    private String primaryKey; // Composite key: accountUid_productCd_txnPostedDate_txnUid; derived when not set
     private String debitCreditIndicator; // D for Debit (PURCHASE, FEE), C for Credit (Payment)
+
+    public BigDecimal getAmount() {
+        return BigDecimal.valueOf(amountCents, 2);
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amountCents = toCents(amount);
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public String getAccountUid() {
+        if (accountUid != null) {
+            return accountUid;
+        }
+        StringBuilder sb = new StringBuilder(20);
+        appendAccountUid(sb);
+        return sb.toString();
+    }
+
+    public String getTokenizedPan() {
+        if (tokenizedPan != null) {
+            return tokenizedPan;
+        }
+        StringBuilder sb = new StringBuilder(16);
+        appendTokenizedPan(sb);
+        return sb.toString();
+    }
+
+    public String getLast4digitNbr() {
+        if (last4digitNbr != null) {
+            return last4digitNbr;
+        }
+        StringBuilder sb = new StringBuilder(4);
+        appendLast4digitNbr(sb);
+        return sb.toString();
+    }
+
+    public String getPrimaryKey() {
+        if (primaryKey != null) {
+            return primaryKey;
+        }
+        StringBuilder sb = new StringBuilder(48);
+        appendPrimaryKey(sb);
+        return sb.toString();
+    }
+
+    /**
+     * Appends the primary key, deriving it from the other fields when it was not set explicitly
+     *
+     * @param sb The builder to append to
+     */
+    public void appendPrimaryKey(StringBuilder sb) {
+        if (primaryKey != null) {
+            sb.append(primaryKey);
+            return;
+        }
+        appendAccountUid(sb);
+        sb.append('_').append(productCd).append('_').append(txnPostedDate).append('_').append(txnUid);
+    }
+
+    /**
+     * Appends the accountUid, rendering the packed digits directly when it was not set explicitly
+     *
+     * @param sb The builder to append to
+     */
+    public void appendAccountUid(StringBuilder sb) {
+        if (accountUid != null) {
+            sb.append(accountUid);
+            return;
+        }
+        TransactionBatch.appendAccountUid(sb, accountNumber);
+    }
+
+    /**
+     * Appends the tokenizedPan, rendering the packed digits directly when it was not set explicitly
+     *
+     * @param sb The builder to append to
+     */
+    public void appendTokenizedPan(StringBuilder sb) {
+        if (tokenizedPan != null) {
+            sb.append(tokenizedPan);
+            return;
+        }
+        TransactionBatch.appendTokenizedPan(sb, panDigits);
+    }
+
+    /**
+     * Appends the last4digitNbr, rendering the packed digits directly when it was not set explicitly
+     *
+     * @param sb The builder to append to
+     */
+    public void appendLast4digitNbr(StringBuilder sb) {
+        if (last4digitNbr != null) {
+            sb.append(last4digitNbr);
+            return;
+        }
+        TransactionBatch.appendLast4digitNbr(sb, panDigits);
+    }
+
+    public static class TransactionRecordBuilder {
+        // Keeps builder(...).amount(BigDecimal) working alongside amountCents(long)
+        public TransactionRecordBuilder amount(BigDecimal amount) {
+            this.amountCents = toCents(amount);
+            return this;
+        }
+    }
 }
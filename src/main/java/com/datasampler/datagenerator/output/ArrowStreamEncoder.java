@@ -0,0 +1,594 @@
+package com.datasampler.datagenerator.output;
+
+import com.datasampler.datagenerator.model.TransactionBatch;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.datasampler.datagenerator.output.ColumnDictionaries.CATEGORY;
+import static com.datasampler.datagenerator.output.ColumnDictionaries.CATEGORY_GUID;
+import static com.datasampler.datagenerator.output.ColumnDictionaries.COLUMN_NAMES;
+import static com.datasampler.datagenerator.output.ColumnDictionaries.PRODUCT_CD;
+import static com.datasampler.datagenerator.output.ColumnDictionaries.SUB_CATEGORY;
+import static com.datasampler.datagenerator.output.ColumnDictionaries.TXN_TYPE;
+
+/**
+ * Encodes transaction records as an Apache Arrow IPC stream: a schema message, one dictionary batch per
+ * dictionary-encoded column, then one record batch per Batch, and an end-of-stream marker. Columns have the same
+ * names and order as the CSV header. product_cd, txn_type, category, sub_category and category_guid are dictionary
+ * encoded with int32 indices, dates are date32, amount is decimal128(18, 2), txn_uid is int32 and everything else
+ * is utf8. The dictionaries are fixed when the encoder is created, so batches can be encoded independently and in
+ * parallel; they must hold every value the records use. The encoder is immutable and thread-safe, a Batch is not.
+ */
+public final class ArrowStreamEncoder {
+
+    // Column kinds, in header order
+    private static final int UTF8 = 0;
+    private static final int DICTIONARY = 1;
+    private static final int DATE = 2;
+    private static final int DECIMAL = 3;
+    private static final int INT = 4;
+    private static final int[] COLUMN_KINDS = {UTF8, UTF8, DICTIONARY, DATE, DATE, DICTIONARY, DECIMAL, DICTIONARY,
+            DICTIONARY, DICTIONARY, UTF8, INT, UTF8, UTF8};
+
+    private static final int AMOUNT_PRECISION = 18;
+    private static final int AMOUNT_SCALE = 2;
+
+    // Values of the Arrow flatbuffer enums and unions used here
+    private static final short METADATA_VERSION_V5 = 4;
+    private static final byte HEADER_SCHEMA = 1;
+    private static final byte HEADER_DICTIONARY_BATCH = 2;
+    private static final byte HEADER_RECORD_BATCH = 3;
+    private static final byte TYPE_INT = 2;
+    private static final byte TYPE_UTF8 = 5;
+    private static final byte TYPE_DECIMAL = 7;
+    private static final byte TYPE_DATE = 8;
+    private static final short DATE_UNIT_DAY = 0;
+
+    private static final int CONTINUATION_MARKER = 0xFFFFFFFF;
+    private static final byte[] END_OF_STREAM = {-1, -1, -1, -1, 0, 0, 0, 0};
+
+    private final ColumnDictionaries dictionaries;
+
+    /**
+     * Creates an encoder with fixed dictionaries
+     *
+     * @param productCodes Every product code the records use
+     * @param txnTypes Every txn type the records use
+     * @param categoryNames Every category and subcategory name the records use
+     * @param categoryGuids Every category GUID the records use
+     */
+    public ArrowStreamEncoder(List<String> productCodes, List<String> txnTypes, List<String> categoryNames,
+                              List<String> categoryGuids) {
+        dictionaries = new ColumnDictionaries(productCodes, txnTypes, categoryNames, categoryGuids);
+    }
+
+    /**
+     * Writes the schema and the dictionaries, which must precede the first batch
+     *
+     * @param outputStream The stream to write to
+     * @throws IOException If writing fails
+     */
+    public void writeStart(OutputStream outputStream) throws IOException {
+        outputStream.write(schemaMessage());
+        for (int id = 0; id < dictionaries.values().size(); id++) {
+            outputStream.write(dictionaryMessage(id));
+        }
+    }
+
+    /**
+     * Writes the end-of-stream marker
+     *
+     * @param outputStream The stream to write to
+     * @throws IOException If writing fails
+     */
+    public void writeEnd(OutputStream outputStream) throws IOException {
+        outputStream.write(END_OF_STREAM);
+    }
+
+    /**
+     * Starts a record batch
+     *
+     * @param capacity Expected number of rows; the batch grows beyond it if needed
+     * @return An empty batch
+     */
+    public Batch newBatch(int capacity) {
+        return new Batch(Math.max(capacity, 16));
+    }
+
+    /**
+     * Columns of one record batch, filled from generated batches and then encoded as a message
+     */
+    public final class Batch {
+        private int rows;
+        private byte[] message;
+        private StringColumn primaryKey;
+        private StringColumn accountUid;
+        private IntColumn productCd;
+        private IntColumn txnPostedDate;
+        private IntColumn txnDate;
+        private IntColumn txnType;
+        private IntColumn category;
+        private IntColumn subCategory;
+        private IntColumn categoryGuid;
+        private StringColumn debitCreditIndicator;
+        private IntColumn txnUid;
+        private StringColumn tokenizedPan;
+        private StringColumn last4digitNbr;
+        private long[] amountCents;
+        // Reused for values the record renders on demand, such as packed account UIDs
+        private final StringBuilder scratch = new StringBuilder(64);
+
+        private Batch(int capacity) {
+            primaryKey = new StringColumn(capacity, 48);
+            accountUid = new StringColumn(capacity, 20);
+            productCd = new IntColumn(capacity);
+            txnPostedDate = new IntColumn(capacity);
+            txnDate = new IntColumn(capacity);
+            txnType = new IntColumn(capacity);
+            amountCents = new long[capacity];
+            category = new IntColumn(capacity);
+            subCategory = new IntColumn(capacity);
+            categoryGuid = new IntColumn(capacity);
+            debitCreditIndicator = new StringColumn(capacity, 1);
+            txnUid = new IntColumn(capacity);
+            tokenizedPan = new StringColumn(capacity, 16);
+            last4digitNbr = new StringColumn(capacity, 4);
+        }
+
+        /**
+         * Appends every row of a batch to the columns. The batch's value tables are mapped to dictionary indices
+         * once, so dictionary-encoded values are copied by index rather than looked up per row
+         *
+         * @param batch The rows to add
+         * @return This batch
+         * @throws IllegalArgumentException If a dictionary-encoded value is not in its dictionary
+         */
+        public Batch add(TransactionBatch batch) {
+            if (message != null) {
+                throw new IllegalStateException("Batch is already encoded");
+            }
+            ColumnDictionaries.BatchIndexes indexes = dictionaries.indexes(batch);
+            for (int row = 0; row < batch.getSize(); row++) {
+                scratch.setLength(0);
+                batch.appendPrimaryKey(scratch, row);
+                primaryKey.add(rows, scratch);
+
+                scratch.setLength(0);
+                batch.appendAccountUid(scratch, row);
+                accountUid.add(rows, scratch);
+
+                productCd.add(rows, indexes.productCd(row));
+                txnPostedDate.add(rows, batch.getPostedEpochDay()[row]);
+                txnDate.add(rows, batch.getTxnEpochDay()[row]);
+                txnType.add(rows, indexes.txnType(row));
+                if (rows == amountCents.length) {
+                    amountCents = Arrays.copyOf(amountCents, rows * 2);
+                }
+                amountCents[rows] = batch.getAmountCents()[row];
+                category.add(rows, indexes.category(row));
+                subCategory.add(rows, indexes.subCategory(row));
+                categoryGuid.add(rows, indexes.categoryGuid(row));
+                debitCreditIndicator.add(rows, TransactionBatch.DEBIT_CREDIT_INDICATORS.get(batch.getTxnType()[row]));
+                txnUid.add(rows, batch.getTxnUid()[row]);
+
+                scratch.setLength(0);
+                batch.appendTokenizedPan(scratch, row);
+                tokenizedPan.add(rows, scratch);
+
+                scratch.setLength(0);
+                batch.appendLast4digitNbr(scratch, row);
+                last4digitNbr.add(rows, scratch);
+                rows++;
+            }
+            return this;
+        }
+
+        public int getRowCount() {
+            return rows;
+        }
+
+        /**
+         * Encodes the rows added so far as one record batch message and releases the columns
+         *
+         * @return This batch
+         */
+        public Batch encode() {
+            if (message != null) {
+                return this;
+            }
+            MessageBody body = new MessageBody(COLUMN_NAMES.length);
+            primaryKey.addTo(body, rows);
+            accountUid.addTo(body, rows);
+            productCd.addTo(body, rows);
+            txnPostedDate.addTo(body, rows);
+            txnDate.addTo(body, rows);
+            txnType.addTo(body, rows);
+            body.addNode(rows, 0);
+            body.addBuffer(null, 0);
+            body.addBuffer(decimal128(amountCents, rows), rows * 16);
+            category.addTo(body, rows);
+            subCategory.addTo(body, rows);
+            categoryGuid.addTo(body, rows);
+            debitCreditIndicator.addTo(body, rows);
+            txnUid.addTo(body, rows);
+            tokenizedPan.addTo(body, rows);
+            last4digitNbr.addTo(body, rows);
+            message = recordBatchMessage(rows, body, -1);
+
+            primaryKey = accountUid = debitCreditIndicator = tokenizedPan = last4digitNbr = null;
+            productCd = txnPostedDate = txnDate = txnType = category = subCategory = categoryGuid = txnUid = null;
+            amountCents = null;
+            return this;
+        }
+
+        /**
+         * Writes the encoded message, encoding the batch first if needed
+         *
+         * @param outputStream The stream to write to
+         * @throws IOException If writing fails
+         */
+        public void writeTo(OutputStream outputStream) throws IOException {
+            outputStream.write(encode().message);
+        }
+    }
+
+    private byte[] schemaMessage() {
+        FlatBufferBuilder builder = new FlatBufferBuilder(2048);
+        int[] fields = new int[COLUMN_NAMES.length];
+        int dictionaryId = 0;
+        for (int column = 0; column < COLUMN_NAMES.length; column++) {
+            int kind = COLUMN_KINDS[column];
+            fields[column] = field(builder, COLUMN_NAMES[column], kind, kind == DICTIONARY ? dictionaryId++ : -1);
+        }
+        int fieldVector = builder.createOffsetVector(fields);
+
+        builder.startTable(4);
+        builder.addShort(0, (short) 0); // Little endian
+        builder.addOffset(1, fieldVector);
+        int schema = builder.endTable();
+        return message(builder, HEADER_SCHEMA, schema, new byte[0]);
+    }
+
+    private static int field(FlatBufferBuilder builder, String name, int kind, long dictionaryId) {
+        int nameOffset = builder.createString(name);
+        byte typeType;
+        int type;
+        switch (kind) {
+            case DATE -> {
+                typeType = TYPE_DATE;
+                builder.startTable(1);
+                builder.addShort(0, DATE_UNIT_DAY);
+                type = builder.endTable();
+            }
+            case DECIMAL -> {
+                typeType = TYPE_DECIMAL;
+                builder.startTable(3);
+                builder.addInt(0, AMOUNT_PRECISION);
+                builder.addInt(1, AMOUNT_SCALE);
+                builder.addInt(2, 128);
+                type = builder.endTable();
+            }
+            case INT -> {
+                typeType = TYPE_INT;
+                type = intType(builder);
+            }
+            default -> {
+                // A dictionary-encoded field declares the type of its values; the index type is in the encoding
+                typeType = TYPE_UTF8;
+                builder.startTable(0);
+                type = builder.endTable();
+            }
+        }
+        int dictionary = 0;
+        if (kind == DICTIONARY) {
+            int indexType = intType(builder);
+            builder.startTable(4);
+            builder.addLong(0, dictionaryId);
+            builder.addOffset(1, indexType);
+            builder.addBoolean(2, false); // Not ordered
+            builder.addShort(3, (short) 0); // Dense array
+            dictionary = builder.endTable();
+        }
+        int children = builder.createOffsetVector(new int[0]);
+
+        builder.startTable(7);
+        builder.addOffset(0, nameOffset);
+        builder.addBoolean(1, true);
+        builder.addByte(2, typeType);
+        builder.addOffset(3, type);
+        if (dictionary != 0) {
+            builder.addOffset(4, dictionary);
+        }
+        builder.addOffset(5, children);
+        return builder.endTable();
+    }
+
+    /**
+     * Creates a signed 32-bit Int type table
+     */
+    private static int intType(FlatBufferBuilder builder) {
+        builder.startTable(2);
+        builder.addInt(0, 32);
+        builder.addBoolean(1, true);
+        return builder.endTable();
+    }
+
+    private byte[] dictionaryMessage(int id) {
+        List<String> values = dictionaries.values().get(id);
+        StringColumn column = new StringColumn(values.size(), 16);
+        for (int i = 0; i < values.size(); i++) {
+            column.add(i, values.get(i));
+        }
+        MessageBody body = new MessageBody(1);
+        column.addTo(body, values.size());
+        return recordBatchMessage(values.size(), body, id);
+    }
+
+    /**
+     * Encodes a record batch message, or a dictionary batch wrapping it if dictionaryId is not negative
+     */
+    private static byte[] recordBatchMessage(int rows, MessageBody body, long dictionaryId) {
+        FlatBufferBuilder builder = new FlatBufferBuilder(1024);
+        int nodes = builder.createLongPairVector(body.nodes());
+        int buffers = builder.createLongPairVector(body.bufferLocations());
+        builder.startTable(5);
+        builder.addLong(0, rows);
+        builder.addOffset(1, nodes);
+        builder.addOffset(2, buffers);
+        int recordBatch = builder.endTable();
+        if (dictionaryId < 0) {
+            return message(builder, HEADER_RECORD_BATCH, recordBatch, body.toByteArray());
+        }
+
+        builder.startTable(3);
+        builder.addLong(0, dictionaryId);
+        builder.addOffset(1, recordBatch);
+        builder.addBoolean(2, false); // Not a delta
+        int dictionaryBatch = builder.endTable();
+        return message(builder, HEADER_DICTIONARY_BATCH, dictionaryBatch, body.toByteArray());
+    }
+
+    /**
+     * Wraps a header in a Message and frames it: continuation marker, metadata length, metadata padded to a
+     * multiple of 8 bytes, then the body
+     */
+    private static byte[] message(FlatBufferBuilder builder, byte headerType, int header, byte[] body) {
+        builder.startTable(5);
+        builder.addLong(3, body.length);
+        builder.addOffset(2, header);
+        builder.addShort(0, METADATA_VERSION_V5);
+        builder.addByte(1, headerType);
+        byte[] metadata = builder.finish(builder.endTable());
+
+        int paddedLength = align8(8 + metadata.length) - 8;
+        byte[] message = new byte[8 + paddedLength + body.length];
+        writeInt(message, 0, CONTINUATION_MARKER);
+        writeInt(message, 4, paddedLength);
+        System.arraycopy(metadata, 0, message, 8, metadata.length);
+        System.arraycopy(body, 0, message, 8 + paddedLength, body.length);
+        return message;
+    }
+
+    private static byte[] decimal128(long[] values, int count) {
+        byte[] bytes = new byte[count * 16];
+        for (int i = 0; i < count; i++) {
+            long value = values[i];
+            writeLong(bytes, i * 16, value);
+            // Sign-extend into the high 64 bits
+            writeLong(bytes, i * 16 + 8, value >> 63);
+        }
+        return bytes;
+    }
+
+    private static int align8(int length) {
+        return (length + 7) & ~7;
+    }
+
+    private static void writeInt(byte[] bytes, int position, int value) {
+        for (int i = 0; i < 4; i++) {
+            bytes[position + i] = (byte) (value >> (8 * i));
+        }
+    }
+
+    private static void writeLong(byte[] bytes, int position, long value) {
+        for (int i = 0; i < 8; i++) {
+            bytes[position + i] = (byte) (value >> (8 * i));
+        }
+    }
+
+    /**
+     * Collects the field nodes and buffers of a record batch and lays the buffers out 8-byte aligned
+     */
+    private static final class MessageBody {
+        private final long[] nodes;
+        private int nodeCount;
+        private byte[][] buffers = new byte[16][];
+        private int[] bufferLengths = new int[16];
+        private int bufferCount;
+
+        private MessageBody(int fieldCount) {
+            nodes = new long[fieldCount * 2];
+        }
+
+        private void addNode(int length, int nullCount) {
+            nodes[2 * nodeCount] = length;
+            nodes[2 * nodeCount + 1] = nullCount;
+            nodeCount++;
+        }
+
+        /**
+         * Adds the first length bytes of data as the next buffer; null data adds an empty buffer
+         */
+        private void addBuffer(byte[] data, int length) {
+            if (bufferCount == buffers.length) {
+                buffers = Arrays.copyOf(buffers, bufferCount * 2);
+                bufferLengths = Arrays.copyOf(bufferLengths, bufferCount * 2);
+            }
+            buffers[bufferCount] = data;
+            bufferLengths[bufferCount] = data == null ? 0 : length;
+            bufferCount++;
+        }
+
+        private long[] nodes() {
+            return Arrays.copyOf(nodes, 2 * nodeCount);
+        }
+
+        private long[] bufferLocations() {
+            long[] locations = new long[2 * bufferCount];
+            long offset = 0;
+            for (int i = 0; i < bufferCount; i++) {
+                locations[2 * i] = offset;
+                locations[2 * i + 1] = bufferLengths[i];
+                offset += align8(bufferLengths[i]);
+            }
+            return locations;
+        }
+
+        private byte[] toByteArray() {
+            int size = 0;
+            for (int i = 0; i < bufferCount; i++) {
+                size += align8(bufferLengths[i]);
+            }
+            byte[] body = new byte[size];
+            int offset = 0;
+            for (int i = 0; i < bufferCount; i++) {
+                if (bufferLengths[i] > 0) {
+                    System.arraycopy(buffers[i], 0, body, offset, bufferLengths[i]);
+                }
+                offset += align8(bufferLengths[i]);
+            }
+            return body;
+        }
+    }
+
+    /**
+     * Validity bitmap shared by the column kinds; only allocated once the first null is added
+     */
+    private abstract static class Column {
+        private byte[] validity;
+        private int nullCount;
+
+        void setNull(int row) {
+            if (validity == null) {
+                // Every row so far was valid
+                validity = new byte[Math.max(row / 8 + 1, 16)];
+                for (int i = 0; i < row; i++) {
+                    validity[i >> 3] |= (byte) (1 << (i & 7));
+                }
+            }
+            nullCount++;
+            ensureValidityCapacity(row);
+        }
+
+        void setValid(int row) {
+            if (validity != null) {
+                ensureValidityCapacity(row);
+                validity[row >> 3] |= (byte) (1 << (row & 7));
+            }
+        }
+
+        private void ensureValidityCapacity(int row) {
+            if (row >> 3 >= validity.length) {
+                validity = Arrays.copyOf(validity, Math.max(validity.length * 2, (row >> 3) + 1));
+            }
+        }
+
+        void addNodeAndValidity(MessageBody body, int rows) {
+            body.addNode(rows, nullCount);
+            body.addBuffer(nullCount > 0 ? validity : null, (rows + 7) / 8);
+        }
+    }
+
+    /**
+     * 32-bit values: dictionary indices, date32 days and int32 numbers
+     */
+    private static final class IntColumn extends Column {
+        private byte[] values;
+
+        private IntColumn(int capacity) {
+            values = new byte[capacity * 4];
+        }
+
+        private void add(int row, int value) {
+            setValid(row);
+            put(row, value);
+        }
+
+        private void put(int row, int value) {
+            if (row * 4 + 4 > values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            writeInt(values, row * 4, value);
+        }
+
+        private void addTo(MessageBody body, int rows) {
+            addNodeAndValidity(body, rows);
+            body.addBuffer(values, rows * 4);
+        }
+    }
+
+    /**
+     * utf8 values: int32 offsets into a byte array
+     */
+    private static final class StringColumn extends Column {
+        private int[] offsets;
+        private byte[] data;
+        private int size;
+
+        private StringColumn(int capacity, int bytesPerValue) {
+            offsets = new int[capacity + 1];
+            data = new byte[Math.max(capacity * bytesPerValue, 16)];
+        }
+
+        private void add(int row, CharSequence value) {
+            if (value == null) {
+                setNull(row);
+            } else {
+                setValid(row);
+                append(value);
+            }
+            if (row + 2 > offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            offsets[row + 1] = size;
+        }
+
+        private void append(CharSequence value) {
+            int length = value.length();
+            ensureCapacity(length);
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c >= 128) {
+                    // Rare path: let the JDK handle multi-byte characters and surrogate pairs
+                    size -= i;
+                    byte[] utf8 = value.toString().getBytes(StandardCharsets.UTF_8);
+                    ensureCapacity(utf8.length);
+                    System.arraycopy(utf8, 0, data, size, utf8.length);
+                    size += utf8.length;
+                    return;
+                }
+                data[size++] = (byte) c;
+            }
+        }
+
+        private void ensureCapacity(int additional) {
+            if (size + additional > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + additional));
+            }
+        }
+
+        private void addTo(MessageBody body, int rows) {
+            addNodeAndValidity(body, rows);
+            byte[] offsetBytes = new byte[(rows + 1) * 4];
+            for (int i = 0; i <= rows; i++) {
+                writeInt(offsetBytes, i * 4, offsets[i]);
+            }
+            body.addBuffer(offsetBytes, offsetBytes.length);
+            body.addBuffer(data, size);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.datasampler.datagenerator.output;
+
+import com.datasampler.datagenerator.model.TransactionBatch;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fixed dictionaries of the dictionary-encoded columns shared by the columnar encoders: product_cd, txn_type,
+ * category, sub_category and category_guid, in header order. Maps the value tables of generated batches to
+ * dictionary indices. Immutable and thread-safe.
+ */
+final class ColumnDictionaries {
+
+    static final String[] COLUMN_NAMES = CsvRecordEncoder.HEADER.trim().split(",");
+
+    // Dictionaries, in the order of the dictionary columns
+    static final int PRODUCT_CD = 0;
+    static final int TXN_TYPE = 1;
+    static final int CATEGORY = 2;
+    static final int SUB_CATEGORY = 3;
+    static final int CATEGORY_GUID = 4;
+    private static final String[] DICTIONARY_COLUMN_NAMES = {"product_cd", "txn_type", "category", "sub_category",
+            "category_guid"};
+
+    private final List<List<String>> dictionaries;
+    private final List<Map<String, Integer>> indexes;
+
+    /**
+     * Creates the dictionaries
+     *
+     * @param productCodes Every product code the records use
+     * @param txnTypes Every txn type the records use
+     * @param categoryNames Every category and subcategory name the records use
+     * @param categoryGuids Every category GUID the records use
+     */
+    ColumnDictionaries(List<String> productCodes, List<String> txnTypes, List<String> categoryNames,
+                       List<String> categoryGuids) {
+        dictionaries = List.of(List.copyOf(productCodes), List.copyOf(txnTypes), List.copyOf(categoryNames),
+                List.copyOf(categoryNames), List.copyOf(categoryGuids));
+        indexes = dictionaries.stream().map(ColumnDictionaries::indexOf).toList();
+    }
+
+    /**
+     * Returns the dictionaries, in the order of the dictionary columns
+     */
+    List<List<String>> values() {
+        return dictionaries;
+    }
+
+    /**
+     * Maps the value tables of a generated batch to dictionary indices, once per batch
+     *
+     * @param batch The batch whose values are looked up
+     * @return The dictionary index of each row's values
+     */
+    BatchIndexes indexes(TransactionBatch batch) {
+        return new BatchIndexes(batch);
+    }
+
+    /**
+     * Maps each value of a table to its index in a dictionary, or -1 if the dictionary lacks it
+     */
+    private int[] indexes(int dictionary, List<String> values) {
+        int[] tableIndexes = new int[values.size()];
+        for (int i = 0; i < tableIndexes.length; i++) {
+            tableIndexes[i] = indexes.get(dictionary).getOrDefault(values.get(i), -1);
+        }
+        return tableIndexes;
+    }
+
+    private static IllegalArgumentException noEntry(int dictionary, String value) {
+        return new IllegalArgumentException("No dictionary entry for " + DICTIONARY_COLUMN_NAMES[dictionary]
+                + " value " + value);
+    }
+
+    private static Map<String, Integer> indexOf(List<String> values) {
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            index.putIfAbsent(values.get(i), i);
+        }
+        return index;
+    }
+
+    /**
+     * Dictionary indices of the value tables of one generated batch, so rows are copied by index rather than
+     * looked up one by one
+     */
+    final class BatchIndexes {
+        private final TransactionBatch batch;
+        private final int[] productCodes;
+        private final int[] txnTypes;
+        private final int[] categories;
+        private final int[] categoryGuids;
+
+        private BatchIndexes(TransactionBatch batch) {
+            this.batch = batch;
+            productCodes = indexes(PRODUCT_CD, batch.getProductCodes());
+            txnTypes = indexes(TXN_TYPE, TransactionBatch.TXN_TYPES);
+            categories = indexes(CATEGORY, batch.getCategoryNames());
+            categoryGuids = indexes(CATEGORY_GUID, batch.getCategoryGuids());
+        }
+
+        int productCd(int row) {
+            return index(productCodes, batch.getProductCd()[row], PRODUCT_CD, batch.getProductCodes());
+        }
+
+        int txnType(int row) {
+            return index(txnTypes, batch.getTxnType()[row], TXN_TYPE, TransactionBatch.TXN_TYPES);
+        }
+
+        int category(int row) {
+            return index(categories, batch.getCategory()[row], CATEGORY, batch.getCategoryNames());
+        }
+
+        int subCategory(int row) {
+            return index(categories, batch.getSubCategory()[row], SUB_CATEGORY, batch.getCategoryNames());
+        }
+
+        int categoryGuid(int row) {
+            return index(categoryGuids, batch.getCategoryGuid()[row], CATEGORY_GUID, batch.getCategoryGuids());
+        }
+
+        /**
+         * Returns the dictionary index of a table value
+         *
+         * @throws IllegalArgumentException If the dictionary lacks the value
+         */
+        private static int index(int[] tableIndexes, int valueIndex, int dictionary, List<String> values) {
+            int index = tableIndexes[valueIndex];
+            if (index < 0) {
+                throw noEntry(dictionary, values.get(valueIndex));
+            }
+            return index;
+        }
+    }
+}
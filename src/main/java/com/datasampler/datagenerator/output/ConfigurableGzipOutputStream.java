@@ -0,0 +1,28 @@
+package com.datasampler.datagenerator.output;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * GZIPOutputStream whose compression level can be chosen, which the JDK class does not expose
+ */
+public class ConfigurableGzipOutputStream extends GZIPOutputStream {
+
+    /**
+     * Creates a gzip stream
+     *
+     * @param outputStream The stream to write compressed bytes to
+     * @param bufferSize Size of the deflater output buffer in bytes
+     * @param level Deflate level from 0 (store) to 9 (smallest), or -1 for the default
+     * @throws IOException If the gzip header cannot be written
+     */
+    public ConfigurableGzipOutputStream(OutputStream outputStream, int bufferSize, int level) throws IOException {
+        super(outputStream, bufferSize);
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Gzip level must be between -1 and 9, got " + level);
+        }
+        def.setLevel(level);
+    }
+}
@@ -0,0 +1,31 @@
+package com.datasampler.datagenerator.output;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Passes bytes through to another stream and adds their count to a counter that other threads can read
+ */
+public class CountingOutputStream extends FilterOutputStream {
+
+    private final AtomicLong count;
+
+    public CountingOutputStream(OutputStream outputStream, AtomicLong count) {
+        super(outputStream);
+        this.count = count;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        count.incrementAndGet();
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        out.write(bytes, offset, length);
+        count.addAndGet(length);
+    }
+}
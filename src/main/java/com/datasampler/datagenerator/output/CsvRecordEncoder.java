@@ -0,0 +1,250 @@
+package com.datasampler.datagenerator.output;
+
+import com.datasampler.datagenerator.model.TransactionBatch;
+import com.datasampler.datagenerator.model.TransactionRecord;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Encodes transaction records as CSV rows straight into a growable UTF-8 byte buffer.
+ * A value is wrapped in double quotes when it contains any of , " \n \r space ; ' - & @ ( ) [ ] { } ! ? # $ % ^ * + = < > / \
+ * and embedded double quotes are doubled. Quoting is decided with one pass over a 128-entry lookup table, and
+ * recurring constants such as product codes, txn types and category names are encoded once and then copied.
+ * Not thread-safe; use one encoder per thread.
+ */
+public final class CsvRecordEncoder extends RecordEncoder {
+
+    public static final String HEADER = "primary_key,account_uid,product_cd,txn_posted_date,txn_date,txn_type,amount,category,sub_category,category_guid,debit_credit_indicator,txn_uid,tokenized_pan,last4digitNbr\n";
+
+    private static final byte[] HEADER_BYTES = HEADER.getBytes(StandardCharsets.UTF_8);
+    private static final String QUOTE_CHARS = ",\"\n\r ;'-&@()[]{}!?#$%^*+=<>/\\";
+    private static final boolean[] QUOTE_REQUIRED = new boolean[128];
+
+    static {
+        for (int i = 0; i < QUOTE_CHARS.length(); i++) {
+            QUOTE_REQUIRED[QUOTE_CHARS.charAt(i)] = true;
+        }
+    }
+
+    // Reused for values the record renders on demand, such as packed account UIDs
+    private final StringBuilder scratch = new StringBuilder(64);
+
+    /**
+     * Creates an encoder
+     *
+     * @param initialCapacity Initial buffer size in bytes
+     */
+    public CsvRecordEncoder(int initialCapacity) {
+        this(initialCapacity, Collections.emptyMap());
+    }
+
+    /**
+     * Creates an encoder that copies values found in preEncodedValues instead of encoding them
+     *
+     * @param initialCapacity Initial buffer size in bytes
+     * @param preEncodedValues Values already encoded with this encoder's quoting rules, keyed by value; not modified
+     */
+    public CsvRecordEncoder(int initialCapacity, Map<String, byte[]> preEncodedValues) {
+        super(initialCapacity, preEncodedValues);
+    }
+
+    @Override
+    public CsvRecordEncoder writeHeader() {
+        writeBytes(HEADER_BYTES);
+        return this;
+    }
+
+    /**
+     * Appends one CSV row for the record, including the trailing newline
+     *
+     * @param record The record to encode
+     * @return This encoder
+     */
+    @Override
+    public CsvRecordEncoder encode(TransactionRecord record) {
+        startRow();
+        scratch.setLength(0);
+        record.appendPrimaryKey(scratch);
+        writeValue(scratch);
+        writeByte(',');
+
+        scratch.setLength(0);
+        record.appendAccountUid(scratch);
+        writeValue(scratch);
+        writeByte(',');
+
+        writeConstant(record.getProductCd());
+        writeByte(',');
+        writeDate(record.getTxnPostedDate());
+        writeByte(',');
+        writeDate(record.getTxnDate());
+        writeByte(',');
+        writeConstant(record.getTxnType());
+        writeByte(',');
+        writeAmount(record.getAmountCents());
+        writeByte(',');
+        writeConstant(record.getCategory());
+        writeByte(',');
+        writeConstant(record.getSubCategory());
+        writeByte(',');
+        writeConstant(record.getCategoryGUID());
+        writeByte(',');
+        writeConstant(record.getDebitCreditIndicator());
+        writeByte(',');
+        writeInt(record.getTxnUid());
+        writeByte(',');
+
+        scratch.setLength(0);
+        record.appendTokenizedPan(scratch);
+        writeValue(scratch);
+        writeByte(',');
+
+        scratch.setLength(0);
+        record.appendLast4digitNbr(scratch);
+        writeValue(scratch);
+        writeByte('\n');
+        endRow();
+        return this;
+    }
+
+    /**
+     * Appends one CSV row for a row of a batch, including the trailing newline
+     *
+     * @param batch The batch to read the row from
+     * @param row Index of the row in the batch
+     * @return This encoder
+     */
+    @Override
+    public CsvRecordEncoder encode(TransactionBatch batch, int row) {
+        useValueTables(batch);
+        startRow();
+        scratch.setLength(0);
+        batch.appendPrimaryKey(scratch, row);
+        writeValue(scratch);
+        writeByte(',');
+
+        scratch.setLength(0);
+        batch.appendAccountUid(scratch, row);
+        writeValue(scratch);
+        writeByte(',');
+
+        int txnType = batch.getTxnType()[row];
+        writeBytes(productCodes[batch.getProductCd()[row]]);
+        writeByte(',');
+        writeQuotedDate(batch.getPostedEpochDay()[row]);
+        writeByte(',');
+        writeQuotedDate(batch.getTxnEpochDay()[row]);
+        writeByte(',');
+        writeBytes(txnTypes[txnType]);
+        writeByte(',');
+        writeAmount(batch.getAmountCents()[row]);
+        writeByte(',');
+        writeBytes(categoryNames[batch.getCategory()[row]]);
+        writeByte(',');
+        writeBytes(categoryNames[batch.getSubCategory()[row]]);
+        writeByte(',');
+        writeBytes(categoryGuids[batch.getCategoryGuid()[row]]);
+        writeByte(',');
+        writeBytes(debitCreditIndicators[txnType]);
+        writeByte(',');
+        writeInt(batch.getTxnUid()[row]);
+        writeByte(',');
+
+        scratch.setLength(0);
+        batch.appendTokenizedPan(scratch, row);
+        writeValue(scratch);
+        writeByte(',');
+
+        scratch.setLength(0);
+        batch.appendLast4digitNbr(scratch, row);
+        writeValue(scratch);
+        writeByte('\n');
+        endRow();
+        return this;
+    }
+
+    @Override
+    protected byte[] encodeConstant(String value) {
+        return encodeValue(value);
+    }
+
+    /**
+     * Encodes a single value with the same quoting rules as writeValue
+     *
+     * @param value The value to encode
+     * @return The UTF-8 bytes of the value, quoted if needed
+     */
+    public static byte[] encodeValue(String value) {
+        CsvRecordEncoder encoder = new CsvRecordEncoder(value.length() * 2 + 2);
+        encoder.writeValue(value);
+        return encoder.toByteArray();
+    }
+
+    private void writeValue(CharSequence value) {
+        int length = value.length();
+
+        // Single pass: find out whether the value needs quotes and whether it is plain ASCII
+        boolean needsQuotes = false;
+        boolean ascii = true;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 128) {
+                needsQuotes |= QUOTE_REQUIRED[c];
+            } else {
+                ascii = false;
+            }
+        }
+
+        if (needsQuotes) {
+            writeByte('"');
+        }
+        if (ascii) {
+            ensureCapacity(needsQuotes ? 2 * length + 1 : length);
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    buffer[size++] = '"';
+                }
+                buffer[size++] = (byte) c;
+            }
+        } else {
+            // Rare path: let the JDK handle multi-byte characters and surrogate pairs
+            String text = value.toString();
+            writeBytes((needsQuotes ? text.replace("\"", "\"\"") : text).getBytes(StandardCharsets.UTF_8));
+        }
+        if (needsQuotes) {
+            writeByte('"');
+        }
+    }
+
+    private void writeDate(LocalDate date) {
+        // An ISO date always contains '-', so it is always quoted
+        if (date != null) {
+            writeQuotedDate(date);
+        }
+    }
+
+    private void writeAmount(long amountCents) {
+        if (amountCents < 0) {
+            // A negative amount contains '-' and is quoted; never produced by the generator
+            writeByte('"');
+            writeByte('-');
+            writeAmount(-amountCents);
+            writeByte('"');
+            return;
+        }
+        writeUnsignedAmount(amountCents);
+    }
+
+    private void writeInt(int value) {
+        if (value < 0) {
+            // A negative number contains '-' and is quoted
+            writeValue(Integer.toString(value));
+            return;
+        }
+        writeLong(value);
+    }
+}
@@ -0,0 +1,63 @@
+package com.datasampler.datagenerator.output;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of equally sized direct byte buffers. Allocating direct memory is slow and it is only freed when the
+ * buffer is garbage collected, so file writers borrow buffers from here instead of allocating their own.
+ * At most maxPooled released buffers are kept; further buffers are left to the garbage collector.
+ * Thread-safe.
+ */
+public class DirectBufferPool {
+
+    private final int bufferSize;
+    private final int maxPooled;
+    private final ConcurrentLinkedDeque<ByteBuffer> pooled = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger pooledCount = new AtomicInteger();
+
+    /**
+     * Creates an empty pool
+     *
+     * @param bufferSize Capacity of each buffer in bytes
+     * @param maxPooled Maximum number of released buffers kept for reuse
+     */
+    public DirectBufferPool(int bufferSize, int maxPooled) {
+        if (bufferSize <= 0 || maxPooled < 0) {
+            throw new IllegalArgumentException("Buffer size must be greater than 0 and max pooled at least 0");
+        }
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * Takes a cleared buffer from the pool, allocating a new one if the pool is empty
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = pooled.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        pooledCount.decrementAndGet();
+        return buffer.clear();
+    }
+
+    /**
+     * Returns a buffer to the pool. The caller must not use the buffer afterwards.
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer.capacity() != bufferSize || !buffer.isDirect()) {
+            throw new IllegalArgumentException("Buffer was not acquired from this pool");
+        }
+        if (pooledCount.incrementAndGet() <= maxPooled) {
+            pooled.push(buffer);
+        } else {
+            pooledCount.decrementAndGet();
+        }
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+}
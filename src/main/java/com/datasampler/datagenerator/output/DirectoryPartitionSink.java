@@ -0,0 +1,51 @@
+package com.datasampler.datagenerator.output;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes partitioned output as files under a root directory, each through its own FileChannel and direct buffer
+ */
+public class DirectoryPartitionSink implements PartitionSink {
+
+    private final Path root;
+    private final DirectBufferPool bufferPool;
+    private final boolean sync;
+
+    /**
+     * Creates a sink; the root directory is created if it does not exist
+     *
+     * @param root Directory the relative file paths are resolved against
+     * @param bufferPool Pool the per-file direct buffers are borrowed from
+     * @param sync Whether each file is forced to the storage device (fsync) when it is closed
+     * @throws IOException If the root directory cannot be created
+     */
+    public DirectoryPartitionSink(Path root, DirectBufferPool bufferPool, boolean sync) throws IOException {
+        this.root = Files.createDirectories(root).toAbsolutePath().normalize();
+        this.bufferPool = bufferPool;
+        this.sync = sync;
+    }
+
+    @Override
+    public OutputStream openFile(String path) throws IOException {
+        Path file = root.resolve(path).normalize();
+        if (!file.startsWith(root)) {
+            throw new IOException("Partition path " + path + " is outside of " + root);
+        }
+        Files.createDirectories(file.getParent());
+        // One buffer per file: many partitions can be open at once
+        return new FileChannelOutputStream(file, bufferPool, 1, sync);
+    }
+
+    @Override
+    public boolean supportsConcurrentFiles() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+        // Files are closed by their writers; nothing is shared
+    }
+}
@@ -0,0 +1,137 @@
+package com.datasampler.datagenerator.output;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes to a file through a FileChannel. Bytes are collected in direct buffers borrowed from a pool, and once
+ * all buffers are full they are written with a single gathering write, so the file sees a few large writes
+ * instead of one per chunk and no heap-to-native copy is made by the channel.
+ * Optionally forces the data to the storage device on close. Not thread-safe.
+ */
+public class FileChannelOutputStream extends OutputStream {
+
+    private final FileChannel channel;
+    private final DirectBufferPool bufferPool;
+    private final ByteBuffer[] buffers;
+    private final boolean sync;
+    // Index of the buffer currently being filled
+    private int current;
+    private boolean closed;
+
+    /**
+     * Creates or truncates a file and opens it for writing
+     *
+     * @param file The file to write
+     * @param bufferPool Pool the direct buffers are borrowed from and returned to on close
+     * @param buffersPerWrite Number of buffers filled before they are written together
+     * @param sync Whether close() forces the written data to the storage device (fsync)
+     * @throws IOException If the file cannot be opened
+     */
+    public FileChannelOutputStream(Path file, DirectBufferPool bufferPool, int buffersPerWrite, boolean sync)
+            throws IOException {
+        if (buffersPerWrite <= 0) {
+            throw new IllegalArgumentException("Buffers per write must be greater than 0");
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.bufferPool = bufferPool;
+        this.buffers = new ByteBuffer[buffersPerWrite];
+        this.sync = sync;
+        for (int i = 0; i < buffersPerWrite; i++) {
+            buffers[i] = bufferPool.acquire();
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (!buffers[current].hasRemaining()) {
+            nextBuffer();
+        }
+        buffers[current].put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        ensureOpen();
+        while (length > 0) {
+            ByteBuffer buffer = buffers[current];
+            if (!buffer.hasRemaining()) {
+                nextBuffer();
+                continue;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.put(bytes, offset, count);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Writes the buffered bytes to the file. The data may still be in the OS page cache afterwards.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        writeBuffers();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try (FileChannel fileChannel = channel) {
+            writeBuffers();
+            if (sync) {
+                fileChannel.force(true);
+            }
+        } finally {
+            for (ByteBuffer buffer : buffers) {
+                bufferPool.release(buffer);
+            }
+        }
+    }
+
+    private void nextBuffer() throws IOException {
+        if (current == buffers.length - 1) {
+            writeBuffers();
+        } else {
+            current++;
+        }
+    }
+
+    /**
+     * Writes all filled buffers with gathering writes and makes them available for refilling
+     */
+    private void writeBuffers() throws IOException {
+        int used = current + 1;
+        for (int i = 0; i < used; i++) {
+            buffers[i].flip();
+        }
+        // A gathering write may stop short, for example when interrupted; keep going until every buffer is drained
+        int first = 0;
+        while (first < used) {
+            channel.write(buffers, first, used - first);
+            while (first < used && !buffers[first].hasRemaining()) {
+                first++;
+            }
+        }
+        for (int i = 0; i < used; i++) {
+            buffers[i].clear();
+        }
+        current = 0;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.datasampler.datagenerator.output;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Minimal FlatBuffers builder for the Arrow IPC metadata. Like the official builders it fills a byte array from
+ * the back, so every object is created before the objects that refer to it, and offsets returned by the create and
+ * end methods count bytes from the end of the buffer. Supports tables with scalar and offset fields, strings, and
+ * vectors of offsets or of two-long structs, which is all the Arrow Message schema needs. Scalar fields are always
+ * written, even when equal to their default. Not thread-safe.
+ */
+final class FlatBufferBuilder {
+
+    private byte[] buffer;
+    // Data occupies buffer[space, buffer.length)
+    private int space;
+    private int minAlign = 1;
+    // Field positions of the table being built, as offsets; 0 for fields not written
+    private int[] vtable;
+    private int tableStart;
+    private int vectorLength;
+
+    FlatBufferBuilder(int initialCapacity) {
+        buffer = new byte[Math.max(initialCapacity, 64)];
+        space = buffer.length;
+    }
+
+    /**
+     * @return Number of bytes written so far, which is also the offset of the last object created
+     */
+    int offset() {
+        return buffer.length - space;
+    }
+
+    int createString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        // Strings are null-terminated vectors of bytes
+        addByte((byte) 0);
+        startVector(1, bytes.length, 1);
+        space -= bytes.length;
+        System.arraycopy(bytes, 0, buffer, space, bytes.length);
+        return endVector();
+    }
+
+    /**
+     * Creates a vector of offsets to tables or strings
+     */
+    int createOffsetVector(int[] offsets) {
+        startVector(4, offsets.length, 4);
+        for (int i = offsets.length - 1; i >= 0; i--) {
+            addOffset(offsets[i]);
+        }
+        return endVector();
+    }
+
+    /**
+     * Creates a vector of structs made of two longs, such as Arrow's FieldNode and Buffer
+     *
+     * @param pairs first0, second0, first1, second1, ...
+     */
+    int createLongPairVector(long[] pairs) {
+        int count = pairs.length / 2;
+        startVector(16, count, 8);
+        for (int i = count - 1; i >= 0; i--) {
+            prep(8, 16);
+            putLong(pairs[2 * i + 1]);
+            putLong(pairs[2 * i]);
+        }
+        return endVector();
+    }
+
+    void startTable(int fieldCount) {
+        vtable = new int[fieldCount];
+        tableStart = offset();
+    }
+
+    void addByte(int field, byte value) {
+        addByte(value);
+        vtable[field] = offset();
+    }
+
+    void addBoolean(int field, boolean value) {
+        addByte(field, (byte) (value ? 1 : 0));
+    }
+
+    void addShort(int field, short value) {
+        addShort(value);
+        vtable[field] = offset();
+    }
+
+    void addInt(int field, int value) {
+        prep(4, 0);
+        putInt(value);
+        vtable[field] = offset();
+    }
+
+    void addLong(int field, long value) {
+        prep(8, 0);
+        putLong(value);
+        vtable[field] = offset();
+    }
+
+    void addOffset(int field, int target) {
+        addOffset(target);
+        vtable[field] = offset();
+    }
+
+    /**
+     * Finishes the table and writes its vtable right in front of it
+     *
+     * @return Offset of the table
+     */
+    int endTable() {
+        // Placeholder for the signed offset from the table to its vtable
+        prep(4, 0);
+        putInt(0);
+        int table = offset();
+
+        int fieldCount = vtable.length;
+        while (fieldCount > 0 && vtable[fieldCount - 1] == 0) {
+            fieldCount--;
+        }
+        for (int i = fieldCount - 1; i >= 0; i--) {
+            addShort((short) (vtable[i] != 0 ? table - vtable[i] : 0));
+        }
+        addShort((short) (table - tableStart));
+        addShort((short) ((fieldCount + 2) * 2));
+
+        writeIntAt(buffer.length - table, offset() - table);
+        vtable = null;
+        return table;
+    }
+
+    /**
+     * Writes the offset of the root table and returns the finished buffer
+     */
+    byte[] finish(int rootTable) {
+        prep(minAlign, 4);
+        addOffset(rootTable);
+        return Arrays.copyOfRange(buffer, space, buffer.length);
+    }
+
+    private void startVector(int elementSize, int count, int alignment) {
+        vectorLength = count;
+        prep(4, elementSize * count);
+        prep(alignment, elementSize * count);
+    }
+
+    private int endVector() {
+        putInt(vectorLength);
+        return offset();
+    }
+
+    private void addByte(byte value) {
+        prep(1, 0);
+        buffer[--space] = value;
+    }
+
+    private void addShort(short value) {
+        prep(2, 0);
+        space -= 2;
+        buffer[space] = (byte) value;
+        buffer[space + 1] = (byte) (value >> 8);
+    }
+
+    private void addOffset(int target) {
+        prep(4, 0);
+        // Offsets point forward, from the position of the offset itself to the target
+        putInt(offset() + 4 - target);
+    }
+
+    private void putInt(int value) {
+        space -= 4;
+        writeIntAt(space, value);
+    }
+
+    private void putLong(long value) {
+        space -= 8;
+        for (int i = 0; i < 8; i++) {
+            buffer[space + i] = (byte) (value >> (8 * i));
+        }
+    }
+
+    private void writeIntAt(int position, int value) {
+        buffer[position] = (byte) value;
+        buffer[position + 1] = (byte) (value >> 8);
+        buffer[position + 2] = (byte) (value >> 16);
+        buffer[position + 3] = (byte) (value >> 24);
+    }
+
+    /**
+     * Pads so that, after writing additionalBytes, the next value of the given size is aligned to it
+     */
+    private void prep(int size, int additionalBytes) {
+        minAlign = Math.max(minAlign, size);
+        int alignSize = -(offset() + additionalBytes) & (size - 1);
+        while (space < alignSize + size + additionalBytes) {
+            grow();
+        }
+        for (int i = 0; i < alignSize; i++) {
+            buffer[--space] = 0;
+        }
+    }
+
+    private void grow() {
+        byte[] grown = new byte[buffer.length * 2];
+        System.arraycopy(buffer, 0, grown, grown.length - buffer.length, buffer.length);
+        space += grown.length - buffer.length;
+        buffer = grown;
+    }
+}
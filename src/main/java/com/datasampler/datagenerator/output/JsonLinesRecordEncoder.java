@@ -0,0 +1,293 @@
+package com.datasampler.datagenerator.output;
+
+import com.datasampler.datagenerator.model.TransactionBatch;
+import com.datasampler.datagenerator.model.TransactionRecord;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Encodes transaction records as JSON Lines (NDJSON): one JSON object per line, with the same field names as the
+ * CSV header. Amounts and txnUids are JSON numbers, missing values are null and everything else is a string.
+ * Field names are encoded once as byte constants and numbers and dates are formatted straight into the buffer,
+ * so encoding a record creates no Strings for them and needs no reflection. Strings escape " \ and control
+ * characters; other characters, including non-ASCII text, are written as UTF-8.
+ * Not thread-safe; use one encoder per thread.
+ */
+public final class JsonLinesRecordEncoder extends RecordEncoder {
+
+    private static final String[] FIELD_NAMES = CsvRecordEncoder.HEADER.trim().split(",");
+    // FIELDS[i] is everything written before the value of field i: the separator or opening brace, name and colon
+    private static final byte[][] FIELDS = new byte[FIELD_NAMES.length][];
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    // Characters that must be escaped in a JSON string: quote, backslash and control characters
+    private static final boolean[] ESCAPE_REQUIRED = new boolean[128];
+
+    static {
+        for (int i = 0; i < FIELD_NAMES.length; i++) {
+            FIELDS[i] = ((i == 0 ? "{\"" : ",\"") + FIELD_NAMES[i] + "\":").getBytes(StandardCharsets.UTF_8);
+        }
+        for (int c = 0; c < 0x20; c++) {
+            ESCAPE_REQUIRED[c] = true;
+        }
+        ESCAPE_REQUIRED['"'] = true;
+        ESCAPE_REQUIRED['\\'] = true;
+    }
+
+    // Reused for values the record renders on demand, such as packed account UIDs
+    private final StringBuilder scratch = new StringBuilder(64);
+
+    /**
+     * Creates an encoder
+     *
+     * @param initialCapacity Initial buffer size in bytes
+     */
+    public JsonLinesRecordEncoder(int initialCapacity) {
+        this(initialCapacity, Collections.emptyMap());
+    }
+
+    /**
+     * Creates an encoder that copies values found in preEncodedValues instead of encoding them
+     *
+     * @param initialCapacity Initial buffer size in bytes
+     * @param preEncodedValues Values already encoded as JSON strings, keyed by value; not modified
+     */
+    public JsonLinesRecordEncoder(int initialCapacity, Map<String, byte[]> preEncodedValues) {
+        super(initialCapacity, preEncodedValues);
+    }
+
+    /**
+     * JSON Lines files have no header; nothing is written
+     */
+    @Override
+    public JsonLinesRecordEncoder writeHeader() {
+        return this;
+    }
+
+    /**
+     * Appends one JSON object for the record, followed by a newline
+     *
+     * @param record The record to encode
+     * @return This encoder
+     */
+    @Override
+    public JsonLinesRecordEncoder encode(TransactionRecord record) {
+        startRow();
+        writeBytes(FIELDS[0]);
+        scratch.setLength(0);
+        record.appendPrimaryKey(scratch);
+        writeString(scratch);
+
+        writeBytes(FIELDS[1]);
+        scratch.setLength(0);
+        record.appendAccountUid(scratch);
+        writeString(scratch);
+
+        writeBytes(FIELDS[2]);
+        writeConstantOrNull(record.getProductCd());
+        writeBytes(FIELDS[3]);
+        writeDate(record.getTxnPostedDate());
+        writeBytes(FIELDS[4]);
+        writeDate(record.getTxnDate());
+        writeBytes(FIELDS[5]);
+        writeConstantOrNull(record.getTxnType());
+        writeBytes(FIELDS[6]);
+        writeAmount(record.getAmountCents());
+        writeBytes(FIELDS[7]);
+        writeConstantOrNull(record.getCategory());
+        writeBytes(FIELDS[8]);
+        writeConstantOrNull(record.getSubCategory());
+        writeBytes(FIELDS[9]);
+        writeConstantOrNull(record.getCategoryGUID());
+        writeBytes(FIELDS[10]);
+        writeConstantOrNull(record.getDebitCreditIndicator());
+        writeBytes(FIELDS[11]);
+        writeInt(record.getTxnUid());
+
+        writeBytes(FIELDS[12]);
+        scratch.setLength(0);
+        record.appendTokenizedPan(scratch);
+        writeString(scratch);
+
+        writeBytes(FIELDS[13]);
+        scratch.setLength(0);
+        record.appendLast4digitNbr(scratch);
+        writeString(scratch);
+        writeByte('}');
+        writeByte('\n');
+        endRow();
+        return this;
+    }
+
+    /**
+     * Appends one JSON object for a row of a batch, followed by a newline
+     *
+     * @param batch The batch to read the row from
+     * @param row Index of the row in the batch
+     * @return This encoder
+     */
+    @Override
+    public JsonLinesRecordEncoder encode(TransactionBatch batch, int row) {
+        useValueTables(batch);
+        startRow();
+        writeBytes(FIELDS[0]);
+        scratch.setLength(0);
+        batch.appendPrimaryKey(scratch, row);
+        writeString(scratch);
+
+        writeBytes(FIELDS[1]);
+        scratch.setLength(0);
+        batch.appendAccountUid(scratch, row);
+        writeString(scratch);
+
+        int txnType = batch.getTxnType()[row];
+        writeBytes(FIELDS[2]);
+        writeBytes(productCodes[batch.getProductCd()[row]]);
+        writeBytes(FIELDS[3]);
+        writeQuotedDate(batch.getPostedEpochDay()[row]);
+        writeBytes(FIELDS[4]);
+        writeQuotedDate(batch.getTxnEpochDay()[row]);
+        writeBytes(FIELDS[5]);
+        writeBytes(txnTypes[txnType]);
+        writeBytes(FIELDS[6]);
+        writeAmount(batch.getAmountCents()[row]);
+        writeBytes(FIELDS[7]);
+        writeBytes(categoryNames[batch.getCategory()[row]]);
+        writeBytes(FIELDS[8]);
+        writeBytes(categoryNames[batch.getSubCategory()[row]]);
+        writeBytes(FIELDS[9]);
+        writeBytes(categoryGuids[batch.getCategoryGuid()[row]]);
+        writeBytes(FIELDS[10]);
+        writeBytes(debitCreditIndicators[txnType]);
+        writeBytes(FIELDS[11]);
+        writeInt(batch.getTxnUid()[row]);
+
+        writeBytes(FIELDS[12]);
+        scratch.setLength(0);
+        batch.appendTokenizedPan(scratch, row);
+        writeString(scratch);
+
+        writeBytes(FIELDS[13]);
+        scratch.setLength(0);
+        batch.appendLast4digitNbr(scratch, row);
+        writeString(scratch);
+        writeByte('}');
+        writeByte('\n');
+        endRow();
+        return this;
+    }
+
+    @Override
+    protected byte[] encodeConstant(String value) {
+        return encodeValue(value);
+    }
+
+    /**
+     * Encodes a single value as a JSON string with the same escaping rules as writeString
+     *
+     * @param value The value to encode
+     * @return The UTF-8 bytes of the quoted and escaped value
+     */
+    public static byte[] encodeValue(String value) {
+        JsonLinesRecordEncoder encoder = new JsonLinesRecordEncoder(value.length() * 6 + 2);
+        encoder.writeString(value);
+        return encoder.toByteArray();
+    }
+
+    private void writeConstantOrNull(String value) {
+        if (!writeConstant(value)) {
+            writeBytes(NULL);
+        }
+    }
+
+    private void writeString(CharSequence value) {
+        int length = value.length();
+
+        // Plain ASCII without characters to escape, the common case, is copied byte for byte
+        boolean plain = true;
+        for (int i = 0; i < length && plain; i++) {
+            char c = value.charAt(i);
+            plain = c < 128 && !ESCAPE_REQUIRED[c];
+        }
+
+        writeByte('"');
+        if (plain) {
+            ensureCapacity(length);
+            for (int i = 0; i < length; i++) {
+                buffer[size++] = (byte) value.charAt(i);
+            }
+        } else {
+            writeEscaped(value);
+        }
+        writeByte('"');
+    }
+
+    private void writeEscaped(CharSequence value) {
+        int length = value.length();
+        int runStart = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 128 || !ESCAPE_REQUIRED[c]) {
+                continue;
+            }
+            writeUtf8(value, runStart, i);
+            writeByte('\\');
+            switch (c) {
+                case '"', '\\' -> writeByte(c);
+                case '\n' -> writeByte('n');
+                case '\r' -> writeByte('r');
+                case '\t' -> writeByte('t');
+                case '\b' -> writeByte('b');
+                case '\f' -> writeByte('f');
+                default -> {
+                    ensureCapacity(5);
+                    buffer[size++] = 'u';
+                    buffer[size++] = '0';
+                    buffer[size++] = '0';
+                    buffer[size++] = HEX_DIGITS[c >> 4];
+                    buffer[size++] = HEX_DIGITS[c & 0xf];
+                }
+            }
+            runStart = i + 1;
+        }
+        writeUtf8(value, runStart, length);
+    }
+
+    /**
+     * Writes characters that need no escaping; multi-byte characters and surrogate pairs are left to the JDK
+     */
+    private void writeUtf8(CharSequence value, int from, int to) {
+        if (from < to) {
+            writeBytes(value.subSequence(from, to).toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void writeDate(LocalDate date) {
+        if (date == null) {
+            writeBytes(NULL);
+            return;
+        }
+        writeQuotedDate(date);
+    }
+
+    private void writeAmount(long amountCents) {
+        if (amountCents < 0) {
+            // Never produced by the generator
+            writeByte('-');
+            amountCents = -amountCents;
+        }
+        writeUnsignedAmount(amountCents);
+    }
+
+    private void writeInt(int value) {
+        long number = value;
+        if (number < 0) {
+            writeByte('-');
+            number = -number;
+        }
+        writeLong(number);
+    }
+}
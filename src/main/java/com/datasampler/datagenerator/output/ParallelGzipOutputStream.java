@@ -0,0 +1,221 @@
+package com.datasampler.datagenerator.output;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * pigz-style gzip stream: written bytes are cut into fixed-size blocks, each block is deflated on a worker pool
+ * as an independent gzip member, and the members are written in order. Concatenated members form a valid gzip
+ * file (RFC 1952), which gunzip, GZIPInputStream and most other readers decompress as one stream.
+ * Compressing blocks independently costs a little ratio but lets compression scale with the number of workers.
+ * At most maxBlocksInFlight blocks are buffered or compressing at a time, so memory stays bounded.
+ * Not thread-safe; the pool may be shared.
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+
+    // Fixed gzip member header: magic, deflate method, no flags, no mtime, no extra flags, unknown OS
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int GZIP_TRAILER_SIZE = 8;
+
+    private final OutputStream outputStream;
+    private final ExecutorService pool;
+    private final int blockSize;
+    private final int level;
+    private final int maxBlocksInFlight;
+
+    private final Deque<Future<CompressedBlock>> pending = new ArrayDeque<>();
+    // Input buffers of written blocks, reused for later blocks
+    private final Deque<byte[]> freeBuffers = new ArrayDeque<>();
+    private byte[] block;
+    private int blockLength;
+    private boolean membersWritten;
+    private boolean finished;
+
+    /**
+     * Creates a parallel gzip stream
+     *
+     * @param outputStream The stream to write gzip members to
+     * @param pool Pool the blocks are deflated on
+     * @param blockSize Uncompressed size of each block in bytes
+     * @param level Deflate level from 0 (store) to 9 (smallest), or -1 for the default
+     * @param maxBlocksInFlight Maximum number of blocks buffered or compressing at a time
+     */
+    public ParallelGzipOutputStream(OutputStream outputStream, ExecutorService pool, int blockSize, int level,
+                                    int maxBlocksInFlight) {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Gzip level must be between -1 and 9, got " + level);
+        }
+        if (blockSize <= 0 || maxBlocksInFlight <= 0) {
+            throw new IllegalArgumentException("Block size and blocks in flight must be greater than 0");
+        }
+        this.outputStream = outputStream;
+        this.pool = pool;
+        this.blockSize = blockSize;
+        this.level = level;
+        this.maxBlocksInFlight = maxBlocksInFlight;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        ensureOpen();
+        while (length > 0) {
+            if (block == null) {
+                block = freeBuffers.isEmpty() ? new byte[blockSize] : freeBuffers.poll();
+            }
+            int count = Math.min(length, blockSize - blockLength);
+            System.arraycopy(bytes, offset, block, blockLength, count);
+            blockLength += count;
+            offset += count;
+            length -= count;
+            if (blockLength == blockSize) {
+                submitBlock();
+            }
+        }
+    }
+
+    /**
+     * Writes the members that are already compressed and flushes the underlying stream. A partially filled
+     * block is kept, so flushing does not produce small members.
+     */
+    @Override
+    public void flush() throws IOException {
+        while (!pending.isEmpty() && pending.peek().isDone()) {
+            writeNextMember();
+        }
+        outputStream.flush();
+    }
+
+    /**
+     * Compresses the remaining input and writes all members without closing the underlying stream
+     *
+     * @throws IOException If writing to the underlying stream fails
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        if (blockLength > 0) {
+            submitBlock();
+        }
+        while (!pending.isEmpty()) {
+            writeNextMember();
+        }
+        if (!membersWritten) {
+            // An empty gzip file still needs one (empty) member
+            outputStream.write(compressBlock(new byte[0], 0, level).toByteArray());
+        }
+        outputStream.flush();
+        finished = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    private void submitBlock() throws IOException {
+        byte[] input = block;
+        int length = blockLength;
+        block = null;
+        blockLength = 0;
+
+        while (pending.size() >= maxBlocksInFlight) {
+            writeNextMember();
+        }
+        pending.add(pool.submit(() -> compressBlock(input, length, level)));
+    }
+
+    private void writeNextMember() throws IOException {
+        CompressedBlock member;
+        try {
+            member = pending.poll().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while compressing", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to compress block", e.getCause());
+        }
+        outputStream.write(member.bytes, 0, member.length);
+        membersWritten = true;
+        if (member.input.length == blockSize) {
+            freeBuffers.push(member.input);
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (finished) {
+            throw new IOException("Stream already finished");
+        }
+    }
+
+    /**
+     * Deflates one block into a complete gzip member: header, raw deflate data and CRC32/size trailer
+     */
+    private static CompressedBlock compressBlock(byte[] input, int length, int level) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            deflater.setInput(input, 0, length);
+            deflater.finish();
+
+            // Deflate rarely grows data by more than a few bytes per 16 KiB; grow the buffer if it does
+            byte[] output = new byte[GZIP_HEADER.length + length + (length >> 10) + 64 + GZIP_TRAILER_SIZE];
+            System.arraycopy(GZIP_HEADER, 0, output, 0, GZIP_HEADER.length);
+            int size = GZIP_HEADER.length;
+            while (!deflater.finished()) {
+                if (size == output.length - GZIP_TRAILER_SIZE) {
+                    output = Arrays.copyOf(output, output.length * 2);
+                }
+                size += deflater.deflate(output, size, output.length - GZIP_TRAILER_SIZE - size);
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(input, 0, length);
+            size = writeIntLE(output, size, (int) crc.getValue());
+            size = writeIntLE(output, size, length);
+            return new CompressedBlock(input, output, size);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static int writeIntLE(byte[] output, int position, int value) {
+        output[position] = (byte) value;
+        output[position + 1] = (byte) (value >>> 8);
+        output[position + 2] = (byte) (value >>> 16);
+        output[position + 3] = (byte) (value >>> 24);
+        return position + 4;
+    }
+
+    private static final class CompressedBlock {
+        private final byte[] input;
+        private final byte[] bytes;
+        private final int length;
+
+        private CompressedBlock(byte[] input, byte[] bytes, int length) {
+            this.input = input;
+            this.bytes = bytes;
+            this.length = length;
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+    }
+}
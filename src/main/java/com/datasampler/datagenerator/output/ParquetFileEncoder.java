@@ -0,0 +1,842 @@
+package com.datasampler.datagenerator.output;
+
+import com.datasampler.datagenerator.model.TransactionBatch;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.datasampler.datagenerator.output.ColumnDictionaries.CATEGORY;
+import static com.datasampler.datagenerator.output.ColumnDictionaries.CATEGORY_GUID;
+import static com.datasampler.datagenerator.output.ColumnDictionaries.COLUMN_NAMES;
+import static com.datasampler.datagenerator.output.ColumnDictionaries.PRODUCT_CD;
+import static com.datasampler.datagenerator.output.ColumnDictionaries.SUB_CATEGORY;
+import static com.datasampler.datagenerator.output.ColumnDictionaries.TXN_TYPE;
+
+/**
+ * Encodes transaction records as a Parquet file: the magic bytes, row groups of column chunks, then the footer.
+ * Columns have the same names and order as the CSV header and are all optional. product_cd, txn_type, category,
+ * sub_category and category_guid are dictionary encoded, txn_uid is an INT32 with DELTA_BINARY_PACKED encoding,
+ * txn_posted_date and txn_date are INT32 dates, amount is an INT64 decimal(18, 2) and everything else is a PLAIN
+ * UTF-8 string. Pages are not compressed. The dictionaries are fixed when the encoder is created, so batches can be
+ * encoded independently and in parallel: each Batch becomes one data page per column, and a Writer groups
+ * consecutive batches into row groups. The encoder is immutable and thread-safe, a Batch or Writer is not.
+ */
+public final class ParquetFileEncoder {
+
+    private static final byte[] MAGIC = {'P', 'A', 'R', '1'};
+    private static final String CREATED_BY = "data-generator";
+
+    // Column kinds, in header order
+    private static final int STRING = 0;
+    private static final int DICTIONARY = 1;
+    private static final int DATE = 2;
+    private static final int DECIMAL = 3;
+    private static final int DELTA_INT = 4;
+    private static final int[] COLUMN_KINDS = {STRING, STRING, DICTIONARY, DATE, DATE, DICTIONARY, DECIMAL,
+            DICTIONARY, DICTIONARY, DICTIONARY, STRING, DELTA_INT, STRING, STRING};
+
+    // Dictionary of each column, or -1 for columns that are not dictionary encoded
+    private static final int[] COLUMN_DICTIONARIES = new int[COLUMN_KINDS.length];
+
+    private static final int AMOUNT_PRECISION = 18;
+    private static final int AMOUNT_SCALE = 2;
+
+    // Values of the Parquet Thrift enums and unions used here
+    private static final int TYPE_INT32 = 1;
+    private static final int TYPE_INT64 = 2;
+    private static final int TYPE_BYTE_ARRAY = 6;
+    private static final int REPETITION_OPTIONAL = 1;
+    private static final int CONVERTED_UTF8 = 0;
+    private static final int CONVERTED_DECIMAL = 5;
+    private static final int CONVERTED_DATE = 6;
+    private static final int LOGICAL_STRING = 1;
+    private static final int LOGICAL_DECIMAL = 5;
+    private static final int LOGICAL_DATE = 6;
+    private static final int ENCODING_PLAIN = 0;
+    private static final int ENCODING_RLE = 3;
+    private static final int ENCODING_DELTA_BINARY_PACKED = 5;
+    private static final int ENCODING_RLE_DICTIONARY = 8;
+    private static final int CODEC_UNCOMPRESSED = 0;
+    private static final int PAGE_DATA = 0;
+    private static final int PAGE_DICTIONARY = 2;
+
+    // DELTA_BINARY_PACKED layout: deltas per block, split into miniblocks that each have their own bit width
+    private static final int DELTA_BLOCK_SIZE = 128;
+    private static final int DELTA_MINIBLOCKS = 4;
+    private static final int DELTA_MINIBLOCK_SIZE = DELTA_BLOCK_SIZE / DELTA_MINIBLOCKS;
+    // Shortest run of equal values written as an RLE run rather than bit-packed
+    private static final int MIN_RLE_RUN = 8;
+
+    static {
+        int dictionary = 0;
+        for (int column = 0; column < COLUMN_KINDS.length; column++) {
+            COLUMN_DICTIONARIES[column] = COLUMN_KINDS[column] == DICTIONARY ? dictionary++ : -1;
+        }
+    }
+
+    private final ColumnDictionaries dictionaries;
+    // Bit width of the indices into each dictionary
+    private final int[] dictionaryBitWidths;
+    // Dictionary page of each dictionary, header included; written at the start of every chunk of its column
+    private final List<byte[]> dictionaryPages;
+
+    /**
+     * Creates an encoder with fixed dictionaries
+     *
+     * @param productCodes Every product code the records use
+     * @param txnTypes Every txn type the records use
+     * @param categoryNames Every category and subcategory name the records use
+     * @param categoryGuids Every category GUID the records use
+     */
+    public ParquetFileEncoder(List<String> productCodes, List<String> txnTypes, List<String> categoryNames,
+                              List<String> categoryGuids) {
+        dictionaries = new ColumnDictionaries(productCodes, txnTypes, categoryNames, categoryGuids);
+        dictionaryBitWidths = dictionaries.values().stream().mapToInt(values -> bitWidth(values.size() - 1)).toArray();
+        dictionaryPages = dictionaries.values().stream().map(ParquetFileEncoder::dictionaryPage).toList();
+    }
+
+    /**
+     * Starts a batch of rows
+     *
+     * @param capacity Expected number of rows; the batch grows beyond it if needed
+     * @return An empty batch
+     */
+    public Batch newBatch(int capacity) {
+        return new Batch(Math.max(capacity, 16));
+    }
+
+    /**
+     * Starts a file by writing the magic bytes
+     *
+     * @param outputStream The stream to write the file to
+     * @param rowGroupRows Number of rows after which a row group is written
+     * @return A writer for the batches of the file
+     * @throws IOException If writing fails
+     */
+    public Writer newWriter(OutputStream outputStream, int rowGroupRows) throws IOException {
+        if (rowGroupRows <= 0) {
+            throw new IllegalArgumentException("Row group size must be greater than 0");
+        }
+        outputStream.write(MAGIC);
+        return new Writer(outputStream, rowGroupRows);
+    }
+
+    /**
+     * Columns of a batch of rows, filled from generated batches and then encoded as one data page per column
+     */
+    public final class Batch {
+        private int rows;
+        private byte[][] pages;
+        private StringColumn primaryKey;
+        private StringColumn accountUid;
+        private IntColumn productCd;
+        private IntColumn txnPostedDate;
+        private IntColumn txnDate;
+        private IntColumn txnType;
+        private LongColumn amountCents;
+        private IntColumn category;
+        private IntColumn subCategory;
+        private IntColumn categoryGuid;
+        private StringColumn debitCreditIndicator;
+        private IntColumn txnUid;
+        private StringColumn tokenizedPan;
+        private StringColumn last4digitNbr;
+        // Reused for values the record renders on demand, such as packed account UIDs
+        private final StringBuilder scratch = new StringBuilder(64);
+
+        private Batch(int capacity) {
+            primaryKey = new StringColumn(capacity, 52);
+            accountUid = new StringColumn(capacity, 24);
+            productCd = new IntColumn(capacity);
+            txnPostedDate = new IntColumn(capacity);
+            txnDate = new IntColumn(capacity);
+            txnType = new IntColumn(capacity);
+            amountCents = new LongColumn(capacity);
+            category = new IntColumn(capacity);
+            subCategory = new IntColumn(capacity);
+            categoryGuid = new IntColumn(capacity);
+            debitCreditIndicator = new StringColumn(capacity, 5);
+            txnUid = new IntColumn(capacity);
+            tokenizedPan = new StringColumn(capacity, 20);
+            last4digitNbr = new StringColumn(capacity, 8);
+        }
+
+        /**
+         * Appends every row of a batch to the columns. The batch's value tables are mapped to dictionary indices
+         * once, so dictionary-encoded values are copied by index rather than looked up per row
+         *
+         * @param batch The rows to add
+         * @return This batch
+         * @throws IllegalArgumentException If a dictionary-encoded value is not in its dictionary
+         */
+        public Batch add(TransactionBatch batch) {
+            if (pages != null) {
+                throw new IllegalStateException("Batch is already encoded");
+            }
+            ColumnDictionaries.BatchIndexes indexes = dictionaries.indexes(batch);
+            for (int row = 0; row < batch.getSize(); row++) {
+                scratch.setLength(0);
+                batch.appendPrimaryKey(scratch, row);
+                primaryKey.add(scratch);
+
+                scratch.setLength(0);
+                batch.appendAccountUid(scratch, row);
+                accountUid.add(scratch);
+
+                productCd.add(indexes.productCd(row));
+                txnPostedDate.add(batch.getPostedEpochDay()[row]);
+                txnDate.add(batch.getTxnEpochDay()[row]);
+                txnType.add(indexes.txnType(row));
+                amountCents.add(batch.getAmountCents()[row]);
+                category.add(indexes.category(row));
+                subCategory.add(indexes.subCategory(row));
+                categoryGuid.add(indexes.categoryGuid(row));
+                debitCreditIndicator.add(TransactionBatch.DEBIT_CREDIT_INDICATORS.get(batch.getTxnType()[row]));
+                txnUid.add(batch.getTxnUid()[row]);
+
+                scratch.setLength(0);
+                batch.appendTokenizedPan(scratch, row);
+                tokenizedPan.add(scratch);
+
+                scratch.setLength(0);
+                batch.appendLast4digitNbr(scratch, row);
+                last4digitNbr.add(scratch);
+                rows++;
+            }
+            return this;
+        }
+
+        public int getRowCount() {
+            return rows;
+        }
+
+        /**
+         * Encodes the rows added so far as one data page per column and releases the columns
+         *
+         * @return This batch
+         */
+        public Batch encode() {
+            if (pages != null) {
+                return this;
+            }
+            Column[] columns = {primaryKey, accountUid, productCd, txnPostedDate, txnDate, txnType, amountCents,
+                    category, subCategory, categoryGuid, debitCreditIndicator, txnUid, tokenizedPan, last4digitNbr};
+            pages = new byte[columns.length][];
+            for (int column = 0; column < columns.length; column++) {
+                pages[column] = dataPage(columns[column], column);
+            }
+
+            primaryKey = accountUid = debitCreditIndicator = tokenizedPan = last4digitNbr = null;
+            productCd = txnPostedDate = txnDate = txnType = category = subCategory = categoryGuid = txnUid = null;
+            amountCents = null;
+            return this;
+        }
+
+        private byte[] dataPage(Column values, int column) {
+            Bytes body = new Bytes(values.estimatedSize() + 64);
+            // Definition levels, prefixed with their length: 1 for a value and 0 for null
+            int lengthPosition = body.size;
+            body.writeIntLE(0);
+            values.encodeDefinitionLevels(body);
+            body.putIntLE(lengthPosition, body.size - lengthPosition - 4);
+
+            int encoding;
+            switch (COLUMN_KINDS[column]) {
+                case DICTIONARY -> {
+                    int bitWidth = dictionaryBitWidths[COLUMN_DICTIONARIES[column]];
+                    body.writeByte(bitWidth);
+                    IntColumn indices = (IntColumn) values;
+                    writeHybrid(body, indices.values, indices.count, bitWidth);
+                    encoding = ENCODING_RLE_DICTIONARY;
+                }
+                case DELTA_INT -> {
+                    IntColumn ints = (IntColumn) values;
+                    writeDeltaBinaryPacked(body, ints.values, ints.count);
+                    encoding = ENCODING_DELTA_BINARY_PACKED;
+                }
+                default -> {
+                    values.encodePlain(body);
+                    encoding = ENCODING_PLAIN;
+                }
+            }
+
+            ThriftCompactWriter header = new ThriftCompactWriter(64);
+            header.structBegin();
+            header.i32Field(1, PAGE_DATA);
+            header.i32Field(2, body.size);
+            header.i32Field(3, body.size);
+            header.structFieldBegin(5);
+            header.i32Field(1, rows);
+            header.i32Field(2, encoding);
+            header.i32Field(3, ENCODING_RLE);
+            header.i32Field(4, ENCODING_RLE);
+            header.structEnd();
+            header.structEnd();
+            return concat(header.toByteArray(), body);
+        }
+    }
+
+    /**
+     * Writes batches to one file, grouping them into row groups, and the footer when finished
+     */
+    public final class Writer {
+        private final OutputStream outputStream;
+        private final int rowGroupRows;
+        private final List<Batch> pendingBatches = new ArrayList<>();
+        private int pendingRows;
+        private final List<RowGroup> rowGroups = new ArrayList<>();
+        private long position = MAGIC.length;
+        private long totalRows;
+
+        private Writer(OutputStream outputStream, int rowGroupRows) {
+            this.outputStream = outputStream;
+            this.rowGroupRows = rowGroupRows;
+        }
+
+        /**
+         * Adds a batch to the current row group, encoding it first if needed. The row group is written once it
+         * holds rowGroupRows rows; a batch that does not fit starts a new one.
+         *
+         * @param batch The batch to add
+         * @return Number of rows written to the stream, which is nonzero only when a row group was written
+         * @throws IOException If writing fails
+         */
+        public int write(Batch batch) throws IOException {
+            batch.encode();
+            int written = 0;
+            if (pendingRows > 0 && pendingRows + batch.rows > rowGroupRows) {
+                written += writeRowGroup();
+            }
+            pendingBatches.add(batch);
+            pendingRows += batch.rows;
+            if (pendingRows >= rowGroupRows) {
+                written += writeRowGroup();
+            }
+            return written;
+        }
+
+        /**
+         * Writes the last row group and the footer
+         *
+         * @return Number of rows written to the stream by this call
+         * @throws IOException If writing fails
+         */
+        public int finish() throws IOException {
+            int written = pendingRows > 0 ? writeRowGroup() : 0;
+            byte[] footer = footer();
+            outputStream.write(footer);
+            byte[] length = new byte[4];
+            for (int i = 0; i < 4; i++) {
+                length[i] = (byte) (footer.length >> (8 * i));
+            }
+            outputStream.write(length);
+            outputStream.write(MAGIC);
+            return written;
+        }
+
+        /**
+         * Writes the pending batches as one row group: for each column its dictionary page, if any, followed by
+         * the column's data page from every batch
+         */
+        private int writeRowGroup() throws IOException {
+            RowGroup rowGroup = new RowGroup(pendingRows, position);
+            for (int column = 0; column < COLUMN_KINDS.length; column++) {
+                ColumnChunk chunk = new ColumnChunk(position);
+                int dictionary = COLUMN_DICTIONARIES[column];
+                if (dictionary >= 0) {
+                    write(dictionaryPages.get(dictionary));
+                }
+                chunk.dataPageOffset = position;
+                for (Batch batch : pendingBatches) {
+                    write(batch.pages[column]);
+                    batch.pages[column] = null;
+                }
+                chunk.size = position - chunk.start;
+                rowGroup.columns.add(chunk);
+            }
+            rowGroups.add(rowGroup);
+            totalRows += pendingRows;
+
+            int written = pendingRows;
+            pendingBatches.clear();
+            pendingRows = 0;
+            return written;
+        }
+
+        private void write(byte[] bytes) throws IOException {
+            outputStream.write(bytes);
+            position += bytes.length;
+        }
+
+        private byte[] footer() {
+            ThriftCompactWriter footer = new ThriftCompactWriter(4096);
+            footer.structBegin();
+            footer.i32Field(1, 1); // Format version
+            footer.listFieldBegin(2, ThriftCompactWriter.TYPE_STRUCT, COLUMN_NAMES.length + 1);
+            // The schema is a tree flattened depth first; the root holds the columns
+            footer.structBegin();
+            footer.stringField(4, "schema");
+            footer.i32Field(5, COLUMN_NAMES.length);
+            footer.structEnd();
+            for (int column = 0; column < COLUMN_NAMES.length; column++) {
+                schemaElement(footer, column);
+            }
+            footer.i64Field(3, totalRows);
+            footer.listFieldBegin(4, ThriftCompactWriter.TYPE_STRUCT, rowGroups.size());
+            for (RowGroup rowGroup : rowGroups) {
+                rowGroup(footer, rowGroup);
+            }
+            footer.stringField(6, CREATED_BY);
+            footer.structEnd();
+            return footer.toByteArray();
+        }
+    }
+
+    private static void schemaElement(ThriftCompactWriter footer, int column) {
+        int kind = COLUMN_KINDS[column];
+        footer.structBegin();
+        footer.i32Field(1, physicalType(kind));
+        footer.i32Field(3, REPETITION_OPTIONAL);
+        footer.stringField(4, COLUMN_NAMES[column]);
+        switch (kind) {
+            case STRING, DICTIONARY -> {
+                footer.i32Field(6, CONVERTED_UTF8);
+                footer.structFieldBegin(10);
+                footer.structFieldBegin(LOGICAL_STRING);
+                footer.structEnd();
+                footer.structEnd();
+            }
+            case DATE -> {
+                footer.i32Field(6, CONVERTED_DATE);
+                footer.structFieldBegin(10);
+                footer.structFieldBegin(LOGICAL_DATE);
+                footer.structEnd();
+                footer.structEnd();
+            }
+            case DECIMAL -> {
+                footer.i32Field(6, CONVERTED_DECIMAL);
+                footer.i32Field(7, AMOUNT_SCALE);
+                footer.i32Field(8, AMOUNT_PRECISION);
+                footer.structFieldBegin(10);
+                footer.structFieldBegin(LOGICAL_DECIMAL);
+                footer.i32Field(1, AMOUNT_SCALE);
+                footer.i32Field(2, AMOUNT_PRECISION);
+                footer.structEnd();
+                footer.structEnd();
+            }
+            default -> {
+                // A plain signed INT32 needs no annotation
+            }
+        }
+        footer.structEnd();
+    }
+
+    private static void rowGroup(ThriftCompactWriter footer, RowGroup rowGroup) {
+        long size = 0;
+        footer.structBegin();
+        footer.listFieldBegin(1, ThriftCompactWriter.TYPE_STRUCT, rowGroup.columns.size());
+        for (int column = 0; column < rowGroup.columns.size(); column++) {
+            ColumnChunk chunk = rowGroup.columns.get(column);
+            int kind = COLUMN_KINDS[column];
+            int[] encodings = switch (kind) {
+                case DICTIONARY -> new int[]{ENCODING_PLAIN, ENCODING_RLE, ENCODING_RLE_DICTIONARY};
+                case DELTA_INT -> new int[]{ENCODING_RLE, ENCODING_DELTA_BINARY_PACKED};
+                default -> new int[]{ENCODING_PLAIN, ENCODING_RLE};
+            };
+            footer.structBegin();
+            footer.i64Field(2, chunk.start);
+            footer.structFieldBegin(3);
+            footer.i32Field(1, physicalType(kind));
+            footer.listFieldBegin(2, ThriftCompactWriter.TYPE_I32, encodings.length);
+            for (int encoding : encodings) {
+                footer.writeI32(encoding);
+            }
+            footer.listFieldBegin(3, ThriftCompactWriter.TYPE_BINARY, 1);
+            footer.writeString(COLUMN_NAMES[column]);
+            footer.i32Field(4, CODEC_UNCOMPRESSED);
+            footer.i64Field(5, rowGroup.rows);
+            footer.i64Field(6, chunk.size);
+            footer.i64Field(7, chunk.size);
+            footer.i64Field(9, chunk.dataPageOffset);
+            if (kind == DICTIONARY) {
+                footer.i64Field(11, chunk.start);
+            }
+            footer.structEnd();
+            footer.structEnd();
+            size += chunk.size;
+        }
+        footer.i64Field(2, size);
+        footer.i64Field(3, rowGroup.rows);
+        footer.i64Field(5, rowGroup.start);
+        footer.i64Field(6, size);
+        footer.structEnd();
+    }
+
+    private static int physicalType(int kind) {
+        return switch (kind) {
+            case STRING, DICTIONARY -> TYPE_BYTE_ARRAY;
+            case DECIMAL -> TYPE_INT64;
+            default -> TYPE_INT32;
+        };
+    }
+
+    private static byte[] dictionaryPage(List<String> values) {
+        StringColumn column = new StringColumn(values.size(), 16);
+        for (String value : values) {
+            column.add(value);
+        }
+        Bytes body = new Bytes(column.estimatedSize());
+        column.encodePlain(body);
+
+        ThriftCompactWriter header = new ThriftCompactWriter(64);
+        header.structBegin();
+        header.i32Field(1, PAGE_DICTIONARY);
+        header.i32Field(2, body.size);
+        header.i32Field(3, body.size);
+        header.structFieldBegin(7);
+        header.i32Field(1, values.size());
+        header.i32Field(2, ENCODING_PLAIN);
+        header.structEnd();
+        header.structEnd();
+        return concat(header.toByteArray(), body);
+    }
+
+    /**
+     * Writes values with the RLE / bit-packing hybrid encoding: runs of at least MIN_RLE_RUN equal values as RLE
+     * runs, everything else bit-packed in groups of 8. The last group is padded with zeros, which readers ignore.
+     */
+    private static void writeHybrid(Bytes out, int[] values, int count, int bitWidth) {
+        int i = 0;
+        while (i < count) {
+            int run = runLength(values, i, count);
+            if (run >= MIN_RLE_RUN) {
+                out.writeVarint((long) run << 1);
+                for (int b = 0; b < (bitWidth + 7) / 8; b++) {
+                    out.writeByte(values[i] >>> (8 * b));
+                }
+                i += run;
+                continue;
+            }
+            // Bit-pack groups of 8 until a long run starts at a group boundary
+            int start = i;
+            int groups = 0;
+            do {
+                i += 8;
+                groups++;
+            } while (i < count && runLength(values, i, count) < MIN_RLE_RUN);
+            out.writeVarint((long) groups << 1 | 1);
+            bitPack(out, values, start, Math.min(i, count), groups * 8, bitWidth);
+        }
+    }
+
+    /**
+     * Writes ints with the DELTA_BINARY_PACKED encoding: a header with the first value, then blocks of deltas,
+     * each stored as its minimum plus miniblocks of bit-packed offsets from that minimum. Deltas wrap around like
+     * int arithmetic, so every offset fits in 32 bits.
+     */
+    private static void writeDeltaBinaryPacked(Bytes out, int[] values, int count) {
+        out.writeVarint(DELTA_BLOCK_SIZE);
+        out.writeVarint(DELTA_MINIBLOCKS);
+        out.writeVarint(count);
+        out.writeZigZag(count > 0 ? values[0] : 0);
+
+        int[] deltas = new int[DELTA_BLOCK_SIZE];
+        for (int blockStart = 1; blockStart < count; blockStart += DELTA_BLOCK_SIZE) {
+            int blockSize = Math.min(DELTA_BLOCK_SIZE, count - blockStart);
+            int minDelta = Integer.MAX_VALUE;
+            for (int i = 0; i < blockSize; i++) {
+                deltas[i] = values[blockStart + i] - values[blockStart + i - 1];
+                minDelta = Math.min(minDelta, deltas[i]);
+            }
+            int[] bitWidths = new int[DELTA_MINIBLOCKS];
+            for (int i = 0; i < blockSize; i++) {
+                deltas[i] -= minDelta;
+                bitWidths[i / DELTA_MINIBLOCK_SIZE] |= deltas[i];
+            }
+            out.writeZigZag(minDelta);
+            // Every miniblock has a bit width, but only miniblocks holding deltas have a body
+            int miniblocks = (blockSize + DELTA_MINIBLOCK_SIZE - 1) / DELTA_MINIBLOCK_SIZE;
+            for (int m = 0; m < DELTA_MINIBLOCKS; m++) {
+                bitWidths[m] = m < miniblocks ? bitWidth(bitWidths[m]) : 0;
+                out.writeByte(bitWidths[m]);
+            }
+            for (int m = 0; m < miniblocks; m++) {
+                int from = m * DELTA_MINIBLOCK_SIZE;
+                bitPack(out, deltas, from, Math.min(blockSize, from + DELTA_MINIBLOCK_SIZE), DELTA_MINIBLOCK_SIZE,
+                        bitWidths[m]);
+            }
+        }
+    }
+
+    /**
+     * Packs values[from, to) least significant bit first, padded with zeros to slots values
+     */
+    private static void bitPack(Bytes out, int[] values, int from, int to, int slots, int bitWidth) {
+        out.ensureCapacity(slots * bitWidth / 8);
+        long bits = 0;
+        int bitCount = 0;
+        for (int i = 0; i < slots; i++) {
+            long value = from + i < to ? values[from + i] & 0xffffffffL : 0;
+            bits |= value << bitCount;
+            bitCount += bitWidth;
+            while (bitCount >= 8) {
+                out.buffer[out.size++] = (byte) bits;
+                bits >>>= 8;
+                bitCount -= 8;
+            }
+        }
+    }
+
+    private static int runLength(int[] values, int from, int count) {
+        int end = from + 1;
+        while (end < count && values[end] == values[from]) {
+            end++;
+        }
+        return end - from;
+    }
+
+    /**
+     * @return Number of bits needed for an unsigned value
+     */
+    private static int bitWidth(int value) {
+        return 32 - Integer.numberOfLeadingZeros(value);
+    }
+
+    private static byte[] concat(byte[] header, Bytes body) {
+        byte[] page = Arrays.copyOf(header, header.length + body.size);
+        System.arraycopy(body.buffer, 0, page, header.length, body.size);
+        return page;
+    }
+
+    private static final class RowGroup {
+        private final int rows;
+        private final long start;
+        private final List<ColumnChunk> columns = new ArrayList<>();
+
+        private RowGroup(int rows, long start) {
+            this.rows = rows;
+            this.start = start;
+        }
+    }
+
+    private static final class ColumnChunk {
+        private final long start;
+        private long dataPageOffset;
+        private long size;
+
+        private ColumnChunk(long start) {
+            this.start = start;
+        }
+    }
+
+    /**
+     * Growable little-endian byte buffer for page bodies
+     */
+    private static final class Bytes {
+        private byte[] buffer;
+        private int size;
+
+        private Bytes(int initialCapacity) {
+            buffer = new byte[Math.max(initialCapacity, 16)];
+        }
+
+        private void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[size++] = (byte) value;
+        }
+
+        private void writeIntLE(int value) {
+            ensureCapacity(4);
+            putIntLE(size, value);
+            size += 4;
+        }
+
+        private void putIntLE(int position, int value) {
+            for (int i = 0; i < 4; i++) {
+                buffer[position + i] = (byte) (value >> (8 * i));
+            }
+        }
+
+        private void writeLongLE(long value) {
+            ensureCapacity(8);
+            for (int i = 0; i < 8; i++) {
+                buffer[size++] = (byte) (value >> (8 * i));
+            }
+        }
+
+        private void writeVarint(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7fL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        private void writeZigZag(long value) {
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+
+        private void ensureCapacity(int additional) {
+            if (size + additional > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + additional));
+            }
+        }
+    }
+
+    /**
+     * Definition levels shared by the column kinds; only tracked once the first null is added
+     */
+    private abstract static class Column {
+        int rows;
+        // Row indices of nulls, in order
+        private int[] nullRows;
+        private int nullCount;
+
+        void addNull() {
+            if (nullRows == null) {
+                nullRows = new int[16];
+            } else if (nullCount == nullRows.length) {
+                nullRows = Arrays.copyOf(nullRows, nullCount * 2);
+            }
+            nullRows[nullCount++] = rows++;
+        }
+
+        void encodeDefinitionLevels(Bytes out) {
+            if (nullCount == 0) {
+                // One RLE run of 1s
+                out.writeVarint((long) rows << 1);
+                out.writeByte(1);
+                return;
+            }
+            int[] levels = new int[rows];
+            Arrays.fill(levels, 1);
+            for (int i = 0; i < nullCount; i++) {
+                levels[nullRows[i]] = 0;
+            }
+            writeHybrid(out, levels, rows, 1);
+        }
+
+        abstract int estimatedSize();
+
+        abstract void encodePlain(Bytes out);
+    }
+
+    /**
+     * 32-bit values: dictionary indices, days since the epoch and ints
+     */
+    private static final class IntColumn extends Column {
+        private int[] values;
+        private int count;
+
+        private IntColumn(int capacity) {
+            values = new int[capacity];
+        }
+
+        private void add(int value) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = value;
+            rows++;
+        }
+
+        @Override
+        int estimatedSize() {
+            return count * 4;
+        }
+
+        @Override
+        void encodePlain(Bytes out) {
+            out.ensureCapacity(count * 4);
+            for (int i = 0; i < count; i++) {
+                out.putIntLE(out.size, values[i]);
+                out.size += 4;
+            }
+        }
+    }
+
+    private static final class LongColumn extends Column {
+        private long[] values;
+        private int count;
+
+        private LongColumn(int capacity) {
+            values = new long[capacity];
+        }
+
+        private void add(long value) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = value;
+            rows++;
+        }
+
+        @Override
+        int estimatedSize() {
+            return count * 8;
+        }
+
+        @Override
+        void encodePlain(Bytes out) {
+            for (int i = 0; i < count; i++) {
+                out.writeLongLE(values[i]);
+            }
+        }
+    }
+
+    /**
+     * UTF-8 strings, kept PLAIN encoded as they are added: a 4-byte length followed by the bytes of each value
+     */
+    private static final class StringColumn extends Column {
+        private final Bytes data;
+
+        private StringColumn(int capacity, int bytesPerValue) {
+            data = new Bytes(capacity * bytesPerValue);
+        }
+
+        private void add(CharSequence value) {
+            if (value == null) {
+                addNull();
+                return;
+            }
+            int length = value.length();
+            data.ensureCapacity(4 + length);
+            int lengthPosition = data.size;
+            data.size += 4;
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c >= 128) {
+                    // Rare path: let the JDK handle multi-byte characters and surrogate pairs
+                    byte[] utf8 = value.toString().getBytes(StandardCharsets.UTF_8);
+                    data.size = lengthPosition + 4;
+                    data.ensureCapacity(utf8.length);
+                    System.arraycopy(utf8, 0, data.buffer, data.size, utf8.length);
+                    data.size += utf8.length;
+                    data.putIntLE(lengthPosition, utf8.length);
+                    rows++;
+                    return;
+                }
+                data.buffer[data.size++] = (byte) c;
+            }
+            data.putIntLE(lengthPosition, length);
+            rows++;
+        }
+
+        @Override
+        int estimatedSize() {
+            return data.size;
+        }
+
+        @Override
+        void encodePlain(Bytes out) {
+            out.ensureCapacity(data.size);
+            System.arraycopy(data.buffer, 0, out.buffer, out.size, data.size);
+            out.size += data.size;
+        }
+    }
+}
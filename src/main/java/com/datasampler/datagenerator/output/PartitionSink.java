@@ -0,0 +1,40 @@
+package com.datasampler.datagenerator.output;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Destination of partitioned output: a set of files addressed by relative, '/'-separated paths
+ * such as year=2024/month=01/part-00000.csv
+ */
+public interface PartitionSink extends Closeable {
+
+    /**
+     * Creates a file; closing the returned stream completes the file but not the sink
+     *
+     * @param path Relative path of the file
+     * @return Stream to write the file's content to
+     * @throws IOException If the file cannot be created
+     */
+    OutputStream openFile(String path) throws IOException;
+
+    /**
+     * Creates a file with content that is already complete, such as a manifest
+     *
+     * @param path Relative path of the file
+     * @param content The whole content of the file
+     * @throws IOException If the file cannot be written
+     */
+    default void writeFile(String path, byte[] content) throws IOException {
+        try (OutputStream outputStream = openFile(path)) {
+            outputStream.write(content);
+        }
+    }
+
+    /**
+     * @return Whether several files may be open at the same time and written from different threads.
+     *         A sink that returns false gets its files one after another.
+     */
+    boolean supportsConcurrentFiles();
+}
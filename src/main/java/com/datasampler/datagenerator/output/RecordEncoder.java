@@ -0,0 +1,354 @@
+package com.datasampler.datagenerator.output;
+
+import com.datasampler.datagenerator.model.FileType;
+import com.datasampler.datagenerator.model.TransactionBatch;
+import com.datasampler.datagenerator.model.TransactionRecord;
+import com.datasampler.datagenerator.util.PostedDateTable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes transaction records as rows of an output format straight into a growable UTF-8 byte buffer.
+ * Keeps track of where each row starts, so ranges of rows can be written to different files, and encodes
+ * recurring constants such as product codes, txn types and category names once and then copies them.
+ * Not thread-safe; use one encoder per thread.
+ */
+public abstract class RecordEncoder {
+
+    // Upper bound on cached constants, so arbitrary caller-supplied values cannot grow the cache without limit
+    private static final int MAX_CACHED_CONSTANTS = 4096;
+
+    // Values encoded ahead of time and shared between encoders, such as category names and GUIDs
+    private final Map<String, byte[]> preEncodedValues;
+    private final Map<String, byte[]> constantCache = new HashMap<>();
+    protected byte[] buffer;
+    protected int size;
+    private int rowCount;
+    // rowOffsets[i] is where row i starts and rowOffsets[i + 1] where it ends, so rows can be written in ranges
+    private int[] rowOffsets = new int[16];
+    // Encoded values of the value tables of the batches being encoded, by index. Batches normally share their
+    // tables, so the tables are only encoded again when a batch with different ones comes along
+    private List<String> productCodesSource;
+    private List<String> categoryNamesSource;
+    private List<String> categoryGuidsSource;
+    protected byte[][] productCodes;
+    protected byte[][] txnTypes;
+    protected byte[][] categoryNames;
+    protected byte[][] categoryGuids;
+    protected byte[][] debitCreditIndicators;
+    // Cached renderings of the dates of the batch being encoded, or null
+    private PostedDateTable postedDates;
+
+    /**
+     * Creates an encoder that copies values found in preEncodedValues instead of encoding them
+     *
+     * @param initialCapacity Initial buffer size in bytes
+     * @param preEncodedValues Values already encoded with this encoder's rules, keyed by value; not modified
+     */
+    protected RecordEncoder(int initialCapacity, Map<String, byte[]> preEncodedValues) {
+        buffer = new byte[Math.max(initialCapacity, 256)];
+        this.preEncodedValues = preEncodedValues;
+    }
+
+    /**
+     * Creates an encoder for a row-oriented output format
+     *
+     * @param fileType The output format, CSV or JSONL
+     * @param initialCapacity Initial buffer size in bytes
+     * @param preEncodedValues Values already encoded for this format, keyed by value; not modified
+     * @return A new encoder
+     */
+    public static RecordEncoder create(FileType fileType, int initialCapacity, Map<String, byte[]> preEncodedValues) {
+        return switch (fileType) {
+            case CSV -> new CsvRecordEncoder(initialCapacity, preEncodedValues);
+            case JSONL -> new JsonLinesRecordEncoder(initialCapacity, preEncodedValues);
+            case ARROW, PARQUET -> throw new IllegalArgumentException(fileType + " output is written by column");
+        };
+    }
+
+    /**
+     * Returns the bytes every file of a row-oriented output format starts with
+     *
+     * @param fileType The output format, CSV or JSONL
+     * @return The header, or an empty array if the format has none
+     */
+    public static byte[] header(FileType fileType) {
+        return create(fileType, 0, Collections.emptyMap()).writeHeader().toByteArray();
+    }
+
+    /**
+     * Appends whatever a file of this format starts with, if anything
+     *
+     * @return This encoder
+     */
+    public abstract RecordEncoder writeHeader();
+
+    /**
+     * Appends one row for the record, including the trailing newline
+     *
+     * @param record The record to encode
+     * @return This encoder
+     */
+    public abstract RecordEncoder encode(TransactionRecord record);
+
+    /**
+     * Appends one row for a row of a batch, including the trailing newline
+     *
+     * @param batch The batch to read the row from
+     * @param row Index of the row in the batch
+     * @return This encoder
+     */
+    public abstract RecordEncoder encode(TransactionBatch batch, int row);
+
+    /**
+     * Appends one row for every row of a batch
+     *
+     * @param batch The batch to encode
+     * @return This encoder
+     */
+    public RecordEncoder encode(TransactionBatch batch) {
+        for (int row = 0; row < batch.getSize(); row++) {
+            encode(batch, row);
+        }
+        return this;
+    }
+
+    /**
+     * Encodes a single constant value as it appears in a row, for values that are not pre-encoded
+     */
+    protected abstract byte[] encodeConstant(String value);
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Number of records encoded since creation or the last reset, not counting the header
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Discards the encoded bytes but keeps the buffer for reuse
+     */
+    public void reset() {
+        size = 0;
+        rowCount = 0;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    public void writeTo(OutputStream outputStream) throws IOException {
+        outputStream.write(buffer, 0, size);
+    }
+
+    /**
+     * Returns the encoded size of a range of rows
+     *
+     * @param fromRow Index of the first row, inclusive
+     * @param toRow Index of the last row, exclusive
+     * @return Size in bytes of the rows
+     */
+    public int rowsSize(int fromRow, int toRow) {
+        return rowOffsets[toRow] - rowOffsets[fromRow];
+    }
+
+    /**
+     * Writes a range of encoded rows, without anything written before the first row such as a header
+     *
+     * @param outputStream The stream to write to
+     * @param fromRow Index of the first row, inclusive
+     * @param toRow Index of the last row, exclusive
+     * @throws IOException If writing fails
+     */
+    public void writeRowsTo(OutputStream outputStream, int fromRow, int toRow) throws IOException {
+        if (fromRow < 0 || toRow > rowCount || fromRow > toRow) {
+            throw new IndexOutOfBoundsException("Rows " + fromRow + " to " + toRow + " of " + rowCount);
+        }
+        outputStream.write(buffer, rowOffsets[fromRow], rowsSize(fromRow, toRow));
+    }
+
+    /**
+     * Marks the start of a row; called by encode before writing anything
+     */
+    protected void startRow() {
+        if (rowCount == 0) {
+            rowOffsets[0] = size;
+        }
+    }
+
+    /**
+     * Marks the end of a row; called by encode after its trailing newline
+     */
+    protected void endRow() {
+        rowCount++;
+        if (rowCount == rowOffsets.length) {
+            rowOffsets = Arrays.copyOf(rowOffsets, rowOffsets.length * 2);
+        }
+        rowOffsets[rowCount] = size;
+    }
+
+    /**
+     * Writes a value that recurs across rows, encoding it only the first time it is seen
+     *
+     * @return Whether anything was written; nothing is written for null
+     */
+    protected boolean writeConstant(String value) {
+        if (value == null) {
+            return false;
+        }
+        writeBytes(constantBytes(value));
+        return true;
+    }
+
+    private byte[] constantBytes(String value) {
+        byte[] encoded = preEncodedValues.get(value);
+        if (encoded == null) {
+            encoded = constantCache.get(value);
+        }
+        if (encoded == null) {
+            encoded = encodeConstant(value);
+            if (constantCache.size() < MAX_CACHED_CONSTANTS) {
+                constantCache.put(value, encoded);
+            }
+        }
+        return encoded;
+    }
+
+    /**
+     * Makes the encoded value tables of the batch available as productCodes, txnTypes, categoryNames,
+     * categoryGuids and debitCreditIndicators, and its cached dates to writeQuotedDate(int); called by encode
+     * before reading a row of a batch
+     */
+    protected void useValueTables(TransactionBatch batch) {
+        postedDates = batch.getPostedDates();
+        if (txnTypes == null) {
+            txnTypes = encodeConstants(TransactionBatch.TXN_TYPES);
+            debitCreditIndicators = encodeConstants(TransactionBatch.DEBIT_CREDIT_INDICATORS);
+        }
+        if (batch.getProductCodes() != productCodesSource) {
+            productCodesSource = batch.getProductCodes();
+            productCodes = encodeConstants(productCodesSource);
+        }
+        if (batch.getCategoryNames() != categoryNamesSource) {
+            categoryNamesSource = batch.getCategoryNames();
+            categoryNames = encodeConstants(categoryNamesSource);
+        }
+        if (batch.getCategoryGuids() != categoryGuidsSource) {
+            categoryGuidsSource = batch.getCategoryGuids();
+            categoryGuids = encodeConstants(categoryGuidsSource);
+        }
+    }
+
+    private byte[][] encodeConstants(List<String> values) {
+        byte[][] encoded = new byte[values.size()][];
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = constantBytes(values.get(i));
+        }
+        return encoded;
+    }
+
+    /**
+     * Writes a date as a double-quoted ISO date, as both CSV and JSON Lines rows render it
+     */
+    protected void writeQuotedDate(LocalDate date) {
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            // ISO formatting adds a sign outside four-digit years; take the general path
+            writeByte('"');
+            writeBytes(date.toString().getBytes(StandardCharsets.US_ASCII));
+            writeByte('"');
+            return;
+        }
+        ensureCapacity(12);
+        buffer[size++] = '"';
+        writeDigits(year, 4);
+        buffer[size++] = '-';
+        writeDigits(date.getMonthValue(), 2);
+        buffer[size++] = '-';
+        writeDigits(date.getDayOfMonth(), 2);
+        buffer[size++] = '"';
+    }
+
+    /**
+     * Writes a date given as days since the epoch, as writeQuotedDate(LocalDate) does. Days of the current batch's
+     * date table are copied from its cached renderings
+     */
+    protected void writeQuotedDate(int epochDay) {
+        if (postedDates == null || !postedDates.hasIsoDate(epochDay)) {
+            writeQuotedDate(LocalDate.ofEpochDay(epochDay));
+            return;
+        }
+        ensureCapacity(PostedDateTable.ISO_DATE_LENGTH + 2);
+        buffer[size++] = '"';
+        postedDates.copyIsoDate(epochDay, buffer, size);
+        size += PostedDateTable.ISO_DATE_LENGTH;
+        buffer[size++] = '"';
+    }
+
+    /**
+     * Writes a non-negative amount in cents as a two-decimal number
+     */
+    protected void writeUnsignedAmount(long amountCents) {
+        writeLong(amountCents / 100);
+        ensureCapacity(3);
+        buffer[size++] = '.';
+        writeDigits((int) (amountCents % 100), 2);
+    }
+
+    /**
+     * Writes a non-negative number in decimal
+     */
+    protected void writeLong(long value) {
+        int digits = 1;
+        for (long rest = value; rest >= 10; rest /= 10) {
+            digits++;
+        }
+        ensureCapacity(digits);
+        for (int i = size + digits - 1; i >= size; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        size += digits;
+    }
+
+    /**
+     * Writes exactly width digits of a value that fits, left-padded with zeros
+     */
+    protected void writeDigits(int value, int width) {
+        ensureCapacity(width);
+        for (int i = size + width - 1; i >= size; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        size += width;
+    }
+
+    protected void writeByte(char c) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) c;
+    }
+
+    protected void writeBytes(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    protected void ensureCapacity(int additional) {
+        if (size + additional > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + additional));
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.datasampler.datagenerator.output;
+
+import com.datasampler.datagenerator.model.Compression;
+import com.datasampler.datagenerator.model.FileType;
+import com.datasampler.datagenerator.model.ManifestFile;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Writes the rows of one partition as a sequence of files part-00000.csv, part-00001.csv, ... in a directory of
+ * a PartitionSink, starting a new file once the current one holds maxRows rows or would grow beyond maxBytes.
+ * Every CSV file starts with the CSV header; JSON Lines files (part-00000.jsonl, ...) have none. Byte limits count
+ * uncompressed bytes including the header; a file always holds at least one row, even if that row alone exceeds
+ * the limit. Not thread-safe.
+ */
+public class RollingPartitionWriter implements Closeable {
+
+    private final PartitionSink sink;
+    private final String directory;
+    private final FileType fileType;
+    private final byte[] header;
+    private final Compression compression;
+    private final int gzipBufferSize;
+    private final int gzipLevel;
+    private final long maxRows;
+    private final long maxBytes;
+
+    private final List<ManifestFile> files = new ArrayList<>();
+    private String currentPath;
+    private OutputStream current;
+    private long rowsInFile;
+    private long bytesInFile;
+
+    /**
+     * Creates a writer; no file is created until the first row is written
+     *
+     * @param sink The sink the files are created in
+     * @param directory Directory prefix of the files, empty or ending with '/'
+     * @param fileType Format of the rows written
+     * @param compression Compression applied to each file
+     * @param gzipBufferSize Deflater buffer size for gzip files
+     * @param gzipLevel Deflate level for gzip files
+     * @param maxRows Maximum rows per file, or Long.MAX_VALUE for no limit
+     * @param maxBytes Maximum uncompressed bytes per file, or Long.MAX_VALUE for no limit
+     */
+    public RollingPartitionWriter(PartitionSink sink, String directory, FileType fileType, Compression compression,
+                            int gzipBufferSize, int gzipLevel, long maxRows, long maxBytes) {
+        if (maxRows <= 0 || maxBytes <= 0) {
+            throw new IllegalArgumentException("Row and byte limits must be greater than 0");
+        }
+        this.sink = sink;
+        this.directory = directory;
+        this.fileType = fileType;
+        this.header = RecordEncoder.header(fileType);
+        this.compression = compression != null ? compression : Compression.NONE;
+        this.gzipBufferSize = gzipBufferSize;
+        this.gzipLevel = gzipLevel;
+        this.maxRows = maxRows;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Appends all rows of an encoded chunk, rolling over to new files as needed
+     *
+     * @param chunk Rows encoded in this writer's format, without a header
+     * @throws IOException If writing to the sink fails
+     */
+    public void write(RecordEncoder chunk) throws IOException {
+        int rows = chunk.getRowCount();
+        int row = 0;
+        while (row < rows) {
+            if (current == null) {
+                openNextFile();
+            }
+
+            // Take as many rows as the row limit allows, then drop rows until they fit the byte limit
+            int end = row + (int) Math.min(rows - row, maxRows - rowsInFile);
+            long byteBudget = maxBytes - bytesInFile;
+            if (chunk.rowsSize(row, end) > byteBudget) {
+                end = lastRowWithin(chunk, row, end, byteBudget);
+                if (end == row && rowsInFile == 0) {
+                    // A single row larger than the limit still gets a file of its own
+                    end = row + 1;
+                }
+            }
+
+            chunk.writeRowsTo(current, row, end);
+            rowsInFile += end - row;
+            bytesInFile += chunk.rowsSize(row, end);
+            row = end;
+
+            // Stopping before the end of the chunk means a limit was reached
+            if (row < rows || rowsInFile >= maxRows || bytesInFile >= maxBytes) {
+                closeCurrent();
+            }
+        }
+    }
+
+    /**
+     * @return The files completed so far, in order, with their row counts and uncompressed sizes
+     */
+    public List<ManifestFile> getFiles() {
+        return Collections.unmodifiableList(files);
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeCurrent();
+    }
+
+    /**
+     * Finds the largest end such that rows [from, end) fit in byteBudget bytes
+     */
+    private static int lastRowWithin(RecordEncoder chunk, int from, int to, long byteBudget) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (chunk.rowsSize(from, mid) <= byteBudget) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private void openNextFile() throws IOException {
+        String path = String.format("%spart-%05d%s%s", directory, files.size(), fileType.getFileExtension(),
+                compression.getFileExtension());
+        OutputStream file = sink.openFile(path);
+        current = compression == Compression.GZIP
+                ? new ConfigurableGzipOutputStream(file, gzipBufferSize, gzipLevel)
+                : file;
+        currentPath = path;
+        current.write(header);
+        rowsInFile = 0;
+        bytesInFile = header.length;
+    }
+
+    private void closeCurrent() throws IOException {
+        if (current != null) {
+            OutputStream file = current;
+            current = null;
+            file.close();
+            files.add(new ManifestFile(currentPath, rowsInFile, bytesInFile));
+        }
+    }
+}
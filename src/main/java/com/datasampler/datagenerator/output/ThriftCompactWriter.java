@@ -0,0 +1,142 @@
+package com.datasampler.datagenerator.output;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Minimal writer of the Thrift compact protocol, the encoding of Parquet's page headers and file footer.
+ * Structs are written field by field: each field header stores the difference from the previous field id of its
+ * struct, so nested structs keep their own last field id on a stack. Supports the i32, i64, boolean, string,
+ * struct and list types Parquet needs. Not thread-safe.
+ */
+final class ThriftCompactWriter {
+
+    static final int TYPE_I32 = 5;
+    static final int TYPE_I64 = 6;
+    static final int TYPE_BINARY = 8;
+    static final int TYPE_STRUCT = 12;
+    private static final int TYPE_BOOLEAN_TRUE = 1;
+    private static final int TYPE_BOOLEAN_FALSE = 2;
+    private static final int TYPE_LIST = 9;
+
+    private byte[] buffer;
+    private int size;
+    // Last field id written in each enclosing struct, and in the current one
+    private int[] lastFieldIds = new int[8];
+    private int depth;
+    private int lastFieldId;
+
+    ThriftCompactWriter(int initialCapacity) {
+        buffer = new byte[Math.max(initialCapacity, 64)];
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    /**
+     * Starts a struct that is not a field, such as the top-level struct or an element of a list
+     */
+    void structBegin() {
+        if (depth == lastFieldIds.length) {
+            lastFieldIds = Arrays.copyOf(lastFieldIds, depth * 2);
+        }
+        lastFieldIds[depth++] = lastFieldId;
+        lastFieldId = 0;
+    }
+
+    void structEnd() {
+        writeByte(0); // Stop field
+        lastFieldId = lastFieldIds[--depth];
+    }
+
+    void i32Field(int id, int value) {
+        fieldBegin(id, TYPE_I32);
+        writeI32(value);
+    }
+
+    void i64Field(int id, long value) {
+        fieldBegin(id, TYPE_I64);
+        writeI64(value);
+    }
+
+    /**
+     * Writes a boolean field; the compact protocol keeps the value in the field header
+     */
+    void booleanField(int id, boolean value) {
+        fieldBegin(id, value ? TYPE_BOOLEAN_TRUE : TYPE_BOOLEAN_FALSE);
+    }
+
+    void stringField(int id, String value) {
+        fieldBegin(id, TYPE_BINARY);
+        writeString(value);
+    }
+
+    /**
+     * Starts a struct field; end it with structEnd
+     */
+    void structFieldBegin(int id) {
+        fieldBegin(id, TYPE_STRUCT);
+        structBegin();
+    }
+
+    /**
+     * Starts a list field; write exactly size elements of the element type after it
+     */
+    void listFieldBegin(int id, int elementType, int size) {
+        fieldBegin(id, TYPE_LIST);
+        if (size < 15) {
+            writeByte(size << 4 | elementType);
+        } else {
+            writeByte(0xf0 | elementType);
+            writeVarint(size);
+        }
+    }
+
+    void writeI32(int value) {
+        writeVarint(((value << 1) ^ (value >> 31)) & 0xffffffffL);
+    }
+
+    void writeI64(long value) {
+        writeVarint((value << 1) ^ (value >> 63));
+    }
+
+    void writeString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    private void fieldBegin(int id, int type) {
+        int delta = id - lastFieldId;
+        if (delta > 0 && delta <= 15) {
+            writeByte(delta << 4 | type);
+        } else {
+            writeByte(type);
+            writeI32(id);
+        }
+        lastFieldId = id;
+    }
+
+    private void writeVarint(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7fL) != 0) {
+            buffer[size++] = (byte) ((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+    }
+
+    private void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) value;
+    }
+
+    private void ensureCapacity(int additional) {
+        if (size + additional > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + additional));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.datasampler.datagenerator.output;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams partitioned output as a zip archive with one entry per file. Entries are compressed while they are
+ * written, so nothing is held in memory beyond a write buffer; only one entry can be open at a time.
+ * Plain entries are deflated at the configured level. Entries that are already gzip-compressed are stored: a true
+ * STORED entry needs its CRC and size before its data, which would mean buffering the whole file, so they are
+ * written as DEFLATE at level 0, which copies the bytes in stored blocks at the same cost and stays streamable.
+ * Content passed to writeFile is known up front and is written as a true STORED entry.
+ * Closing the sink writes the central directory but leaves the underlying stream open.
+ */
+public class ZipPartitionSink implements PartitionSink {
+
+    // Batches the many small writes of the zip and deflater streams into large writes to the underlying stream
+    private static final int WRITE_BUFFER_SIZE = 65536;
+
+    private final ZipOutputStream zipStream;
+    private final int deflateLevel;
+    private boolean entryOpen;
+
+    /**
+     * Creates a sink that deflates plain entries at the default level
+     *
+     * @param outputStream The stream to write the archive to
+     */
+    public ZipPartitionSink(OutputStream outputStream) {
+        this(outputStream, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Creates a sink
+     *
+     * @param outputStream The stream to write the archive to
+     * @param deflateLevel Deflate level for entries that are not compressed yet, from 0 (store) to 9, or -1 for the default
+     */
+    public ZipPartitionSink(OutputStream outputStream, int deflateLevel) {
+        if (deflateLevel < Deflater.DEFAULT_COMPRESSION || deflateLevel > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Zip level must be between -1 and 9, got " + deflateLevel);
+        }
+        this.zipStream = new ZipOutputStream(new BufferedOutputStream(outputStream, WRITE_BUFFER_SIZE));
+        this.deflateLevel = deflateLevel;
+    }
+
+    @Override
+    public OutputStream openFile(String path) throws IOException {
+        ensureNoOpenEntry(path);
+        zipStream.setMethod(ZipOutputStream.DEFLATED);
+        zipStream.setLevel(isCompressed(path) ? Deflater.NO_COMPRESSION : deflateLevel);
+        zipStream.putNextEntry(new ZipEntry(path));
+        entryOpen = true;
+        return new FilterOutputStream(zipStream) {
+            private boolean closed;
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                out.write(bytes, offset, length);
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (!closed) {
+                    closed = true;
+                    zipStream.closeEntry();
+                    entryOpen = false;
+                }
+            }
+        };
+    }
+
+    @Override
+    public void writeFile(String path, byte[] content) throws IOException {
+        ensureNoOpenEntry(path);
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        ZipEntry entry = new ZipEntry(path);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(content.length);
+        entry.setCompressedSize(content.length);
+        entry.setCrc(crc.getValue());
+        zipStream.putNextEntry(entry);
+        zipStream.write(content);
+        zipStream.closeEntry();
+    }
+
+    @Override
+    public boolean supportsConcurrentFiles() {
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        zipStream.finish();
+        zipStream.flush();
+    }
+
+    private void ensureNoOpenEntry(String path) {
+        if (entryOpen) {
+            throw new IllegalStateException("Close the previous entry before opening " + path);
+        }
+    }
+
+    private static boolean isCompressed(String path) {
+        return path.endsWith(".gz");
+    }
+}
@@ -1,6 +1,10 @@
 package com.datasampler.datagenerator.service;
 
 import com.datasampler.datagenerator.model.Category;
+import com.datasampler.datagenerator.model.FileType;
+import com.datasampler.datagenerator.output.CsvRecordEncoder;
+import com.datasampler.datagenerator.output.JsonLinesRecordEncoder;
+import com.datasampler.datagenerator.util.AliasTable;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.PostConstruct;
@@ -10,12 +14,16 @@ import org.springframework.stereotype.Service;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
+import java.util.function.Function;
+import java.util.random.RandomGenerator;
 import java.util.stream.Collectors;
 
 @Service
 public class CategoryService {
     private static final String CATEGORIES_JSON_PATH = "categories.json";
     private static final String UNCATEGORIZED_GUID = "CAT-00000100";
+    private static final String FEES_AND_CHARGES = "Fees and Charges";
+    private static final String UNCATEGORIZED = "Uncategorized";
 
     private List<Category> allCategories;
     private Map<String, Category> categoryGuidMap;
@@ -23,6 +31,29 @@ public class CategoryService {
     private Map<String, String> categoryNameToGuidMap;
     private Map<String, String> subcategoryToParentGuidMap;
 
+    // Weighted pick tables built once at load time so that every random pick is O(1)
+    private List<Category> parentCategories;
+    private PickTable randomParentCategories; // all parents except Uncategorized
+    private PickTable purchaseParentCategories; // parents eligible for PURCHASE (no Uncategorized, no Fees and Charges)
+    private PickTable feeSubcategories; // children of Fees and Charges
+    private Map<String, PickTable> parentToChildrenTables;
+    private Category uncategorizedCategory;
+
+    // Every category of the file, then the Uncategorized fallback if the file has none. A category's position in
+    // this table is its id, which lets generators pick categories and look up their values without hashing
+    private Category[] categoryTable;
+    private Map<Category, Integer> categoryIds;
+    private int uncategorizedId;
+    private PickTable[] subcategoryTablesById; // Children of each category, or null if it has none
+    private short[] nameIndexesById; // Position of each category's name in categoryNames
+    private short[] guidIndexesById; // Position of each category's GUID in categoryGuids
+    private int[] categoryIdsByNameIndex; // The category each name resolves to, as getCategoryGuidByName does
+    private List<String> categoryNames;
+    private List<String> categoryGuids;
+
+    // Category names and GUIDs encoded once per output format, so writers can copy the bytes instead of encoding per row
+    private Map<FileType, Map<String, byte[]>> encodedValuesByFileType;
+
     @PostConstruct
     public void init() {
         try {
@@ -39,6 +70,20 @@ public class CategoryService {
         try (InputStream inputStream = resource.getInputStream()) {
             allCategories = mapper.readValue(inputStream, new TypeReference<List<Category>>() {});
 
+            // Intern names and GUIDs so records share one instance per value, which makes lookups by value cheap
+            for (Category category : allCategories) {
+                category.setCategory(category.getCategory().intern());
+                category.setCategoryGUID(category.getCategoryGUID().intern());
+            }
+
+            // Weights are optional, but when present they must be usable by the alias tables
+            for (Category category : allCategories) {
+                Double weight = category.getWeight();
+                if (weight != null && !(weight > 0 && weight < Double.POSITIVE_INFINITY)) {
+                    throw new IllegalStateException("Invalid weight " + weight + " for category " + category.getCategory());
+                }
+            }
+
             // Initialize maps for quick lookups
             categoryGuidMap = allCategories.stream()
                     .collect(Collectors.toMap(Category::getCategoryGUID, category -> category));
@@ -65,9 +110,204 @@ public class CategoryService {
                     subcategoryToParentGuidMap.put(category.getCategory(), category.getParentCategoryGUID());
                 }
             }
+
+            buildPickTables();
+            buildEncodedValues();
         }
     }
 
+    private void buildPickTables() {
+        parentCategories = allCategories.stream()
+                .filter(c -> c.getParentCategoryGUID().isEmpty())
+                .toList();
+
+        // Fall back to a synthetic entry so that picks never return null
+        uncategorizedCategory = categoryGuidMap.getOrDefault(UNCATEGORIZED_GUID,
+                new Category(UNCATEGORIZED_GUID, UNCATEGORIZED, "", null));
+
+        List<Category> table = new ArrayList<>(allCategories);
+        if (!categoryGuidMap.containsKey(UNCATEGORIZED_GUID)) {
+            table.add(uncategorizedCategory);
+        }
+        categoryTable = table.toArray(new Category[0]);
+        categoryIds = new IdentityHashMap<>();
+        for (int id = 0; id < categoryTable.length; id++) {
+            categoryIds.put(categoryTable[id], id);
+        }
+        uncategorizedId = idOf(uncategorizedCategory);
+
+        List<Category> randomParents = parentCategories.stream()
+                .filter(c -> !c.getCategoryGUID().equals(UNCATEGORIZED_GUID))
+                .toList();
+        randomParentCategories = new PickTable(randomParents);
+
+        purchaseParentCategories = new PickTable(randomParents.stream()
+                .filter(c -> !FEES_AND_CHARGES.equals(c.getCategory()))
+                .toList());
+
+        parentToChildrenTables = new HashMap<>();
+        for (Map.Entry<String, List<Category>> entry : parentToChildrenMap.entrySet()) {
+            parentToChildrenTables.put(entry.getKey(), new PickTable(entry.getValue()));
+        }
+
+        feeSubcategories = parentToChildrenTables.getOrDefault(getCategoryGuidByName(FEES_AND_CHARGES),
+                new PickTable(Collections.emptyList()));
+
+        buildValueIndexes();
+    }
+
+    private void buildValueIndexes() {
+        // Generators write the names of Fees and Charges and Uncategorized even when the file lacks them
+        categoryNames = allCategoryValues(Category::getCategory, FEES_AND_CHARGES, UNCATEGORIZED);
+        categoryGuids = allCategoryValues(Category::getCategoryGUID);
+        Map<String, Integer> nameIndexes = indexOf(categoryNames);
+        Map<String, Integer> guidIndexes = indexOf(categoryGuids);
+
+        subcategoryTablesById = new PickTable[categoryTable.length];
+        nameIndexesById = new short[categoryTable.length];
+        guidIndexesById = new short[categoryTable.length];
+        for (int id = 0; id < categoryTable.length; id++) {
+            subcategoryTablesById[id] = parentToChildrenTables.get(categoryTable[id].getCategoryGUID());
+            nameIndexesById[id] = nameIndexes.get(categoryTable[id].getCategory()).shortValue();
+            guidIndexesById[id] = guidIndexes.get(categoryTable[id].getCategoryGUID()).shortValue();
+        }
+
+        categoryIdsByNameIndex = new int[categoryNames.size()];
+        for (int nameIndex = 0; nameIndex < categoryNames.size(); nameIndex++) {
+            Category category = categoryGuidMap.get(getCategoryGuidByName(categoryNames.get(nameIndex)));
+            categoryIdsByNameIndex[nameIndex] = category != null ? idOf(category) : uncategorizedId;
+        }
+    }
+
+    private int idOf(Category category) {
+        Integer id = categoryIds.get(category);
+        if (id == null) {
+            throw new IllegalArgumentException("Unknown category " + category.getCategoryGUID());
+        }
+        return id;
+    }
+
+    private static Map<String, Integer> indexOf(List<String> values) {
+        if (values.size() > Short.MAX_VALUE + 1) {
+            throw new IllegalStateException("Too many distinct category values: " + values.size());
+        }
+        Map<String, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            indexes.put(values.get(i), i);
+        }
+        return indexes;
+    }
+
+    private void buildEncodedValues() {
+        encodedValuesByFileType = new EnumMap<>(FileType.class);
+        for (FileType fileType : FileType.values()) {
+            if (fileType.isColumnar()) {
+                // Columnar formats write each category once, in the dictionaries of the file
+                continue;
+            }
+            Map<String, byte[]> encodedValues = new HashMap<>();
+            for (Category category : allCategories) {
+                encodedValues.put(category.getCategory(), encodeValue(category.getCategory(), fileType));
+                encodedValues.put(category.getCategoryGUID(), encodeValue(category.getCategoryGUID(), fileType));
+            }
+            encodedValues.put(uncategorizedCategory.getCategory(), encodeValue(uncategorizedCategory.getCategory(), fileType));
+            encodedValues.put(UNCATEGORIZED_GUID, encodeValue(UNCATEGORIZED_GUID, fileType));
+            encodedValuesByFileType.put(fileType, Collections.unmodifiableMap(encodedValues));
+        }
+    }
+
+    private static byte[] encodeValue(String value, FileType fileType) {
+        return switch (fileType) {
+            case CSV -> CsvRecordEncoder.encodeValue(value);
+            case JSONL -> JsonLinesRecordEncoder.encodeValue(value);
+            case ARROW, PARQUET -> throw new IllegalArgumentException(fileType + " values are not encoded one at a time");
+        };
+    }
+
+    /**
+     * Returns every category name and GUID already encoded for the given output format, quoted and escaped
+     * exactly as the writer for that format would. The map and its arrays are shared and must not be modified.
+     * @param fileType A row-oriented output format, CSV or JSONL
+     * @return Encoded bytes keyed by category name or GUID
+     */
+    public Map<String, byte[]> getEncodedValues(FileType fileType) {
+        return encodedValuesByFileType.get(fileType);
+    }
+
+    /**
+     * Returns every name a record's category or subcategory can take, in the order of the categories file
+     */
+    public List<String> getCategoryNames() {
+        return categoryNames;
+    }
+
+    /**
+     * Returns every GUID a record's categoryGUID can take, in the order of the categories file
+     */
+    public List<String> getCategoryGuids() {
+        return categoryGuids;
+    }
+
+    private List<String> allCategoryValues(Function<Category, String> value, String... extraValues) {
+        Set<String> values = new LinkedHashSet<>();
+        for (Category category : allCategories) {
+            values.add(value.apply(category));
+        }
+        // The fallback is not in the file when the file has no Uncategorized entry
+        values.add(value.apply(uncategorizedCategory));
+        values.addAll(Arrays.asList(extraValues));
+        return List.copyOf(values);
+    }
+
+    /**
+     * Returns the position of a name in getCategoryNames()
+     *
+     * @param categoryName A category or subcategory name
+     * @return The index of the name
+     * @throws IllegalArgumentException If no category has this name
+     */
+    public int indexOfCategoryName(String categoryName) {
+        int index = categoryNames.indexOf(categoryName);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown category name " + categoryName);
+        }
+        return index;
+    }
+
+    /**
+     * Returns the position of a category's name in getCategoryNames()
+     *
+     * @param categoryId Id of the category
+     * @return The index of its name
+     */
+    public short getNameIndex(int categoryId) {
+        return nameIndexesById[categoryId];
+    }
+
+    /**
+     * Returns the position of a category's GUID in getCategoryGuids()
+     *
+     * @param categoryId Id of the category
+     * @return The index of its GUID
+     */
+    public short getGuidIndex(int categoryId) {
+        return guidIndexesById[categoryId];
+    }
+
+    /**
+     * Returns the category a name resolves to, the id counterpart of getCategoryGuidByName
+     *
+     * @param nameIndex Position of the name in getCategoryNames()
+     * @return Id of the category, or of Uncategorized if no category has this name
+     */
+    public int getCategoryIdByNameIndex(int nameIndex) {
+        return categoryIdsByNameIndex[nameIndex];
+    }
+
+    public int getUncategorizedId() {
+        return uncategorizedId;
+    }
+
     public String getCategoryGuidByName(String categoryName) {
         return categoryNameToGuidMap.getOrDefault(categoryName, UNCATEGORIZED_GUID);
     }
@@ -77,34 +317,77 @@ public class CategoryService {
     }
 
     public List<Category> getParentCategories() {
-        return allCategories.stream()
-                .filter(c -> c.getParentCategoryGUID().isEmpty())
-                .collect(Collectors.toList());
+        return parentCategories;
     }
 
     public Category getCategoryByGuid(String categoryGuid) {
         return categoryGuidMap.get(categoryGuid);
     }
 
-    public String getRandomSubcategoryGuid(String parentCategoryGuid, Random random) {
-        List<Category> subcategories = getSubcategories(parentCategoryGuid);
-        if (subcategories.isEmpty()) {
-            return UNCATEGORIZED_GUID;
-        }
-        return subcategories.get(random.nextInt(subcategories.size())).getCategoryGUID();
+    public String getRandomSubcategoryGuid(String parentCategoryGuid, RandomGenerator random) {
+        return getRandomSubcategory(parentCategoryGuid, random).getCategoryGUID();
     }
 
-    public String getRandomParentCategoryGuid(Random random) {
-        List<Category> parents = getParentCategories();
-        // Filter out Uncategorized for random selection
-        parents = parents.stream()
-                .filter(c -> !c.getCategoryGUID().equals(UNCATEGORIZED_GUID))
-                .collect(Collectors.toList());
+    public String getRandomParentCategoryGuid(RandomGenerator random) {
+        return categoryTable[randomParentCategories.pick(random)].getCategoryGUID();
+    }
 
-        if (parents.isEmpty()) {
-            return UNCATEGORIZED_GUID;
-        }
-        return parents.get(random.nextInt(parents.size())).getCategoryGUID();
+    /**
+     * Picks a weighted random subcategory of the given parent, or Uncategorized if the parent has no children.
+     * @param parentCategoryGuid GUID of the parent category
+     * @param random Random source to draw from
+     * @return The picked subcategory
+     */
+    public Category getRandomSubcategory(String parentCategoryGuid, RandomGenerator random) {
+        PickTable subcategories = parentToChildrenTables.get(parentCategoryGuid);
+        return subcategories != null ? categoryTable[subcategories.pick(random)] : uncategorizedCategory;
+    }
+
+    /**
+     * Same as getRandomSubcategory, by id
+     * @param parentCategoryId Id of the parent category
+     * @param random Random source to draw from
+     * @return Id of the picked subcategory
+     */
+    public int getRandomSubcategoryId(int parentCategoryId, RandomGenerator random) {
+        PickTable subcategories = subcategoryTablesById[parentCategoryId];
+        return subcategories != null ? subcategories.pick(random) : uncategorizedId;
+    }
+
+    /**
+     * Picks a weighted random parent category for a PURCHASE transaction, never Uncategorized or Fees and Charges.
+     * @param random Random source to draw from
+     * @return The picked parent category
+     */
+    public Category getRandomPurchaseParentCategory(RandomGenerator random) {
+        return categoryTable[getRandomPurchaseParentCategoryId(random)];
+    }
+
+    /**
+     * Same as getRandomPurchaseParentCategory, by id
+     * @param random Random source to draw from
+     * @return Id of the picked parent category
+     */
+    public int getRandomPurchaseParentCategoryId(RandomGenerator random) {
+        return purchaseParentCategories.pick(random);
+    }
+
+    /**
+     * Picks a weighted random subcategory of Fees and Charges for a FEE transaction.
+     * @param random Random source to draw from
+     * @return The picked fee subcategory
+     */
+    public Category getRandomFeeSubcategory(RandomGenerator random) {
+        return categoryTable[getRandomFeeSubcategoryId(random)];
+    }
+
+    /**
+     * Same as getRandomFeeSubcategory, by id
+     * @param random Random source to draw from
+     * @return Id of the picked fee subcategory
+     */
+    public int getRandomFeeSubcategoryId(RandomGenerator random) {
+        return feeSubcategories.pick(random);
     }
 
     public String getParentGuidForSubcategory(String subcategoryName) {
@@ -119,4 +402,33 @@ public class CategoryService {
         Category category = categoryGuidMap.get(categoryGuid);
         return category != null ? category.getCategory() : "Uncategorized";
     }
+
+    /**
+     * Category ids paired with an alias table over their weights, so a pick costs O(1) however skewed the weights are.
+     */
+    private final class PickTable {
+        private final int[] categoryIds;
+        private final AliasTable aliasTable;
+
+        PickTable(List<Category> candidates) {
+            categoryIds = new int[candidates.size()];
+            double[] weights = new double[candidates.size()];
+            for (int i = 0; i < categoryIds.length; i++) {
+                categoryIds[i] = idOf(candidates.get(i));
+                Double weight = candidates.get(i).getWeight();
+                weights[i] = weight != null ? weight : 1.0;
+            }
+            aliasTable = categoryIds.length > 0 ? new AliasTable(weights) : null;
+        }
+
+        /**
+         * @return Id of the picked category, or of Uncategorized if the table is empty
+         */
+        int pick(RandomGenerator random) {
+            if (aliasTable == null) {
+                return uncategorizedId;
+            }
+            return categoryIds[aliasTable.sample(random)];
+        }
+    }
 }
@@ -1,28 +1,99 @@
 package com.datasampler.datagenerator.service;
 
-import com.datasampler.datagenerator.model.Category;
+import com.datasampler.datagenerator.model.Compression;
+import com.datasampler.datagenerator.model.FileType;
+import com.datasampler.datagenerator.model.GenerationRequest;
+import com.datasampler.datagenerator.model.ManifestFile;
+import com.datasampler.datagenerator.model.OutputManifest;
+import com.datasampler.datagenerator.model.PartitionBy;
+import com.datasampler.datagenerator.model.RowOrder;
+import com.datasampler.datagenerator.model.Seasonality;
+import com.datasampler.datagenerator.model.TransactionBatch;
 import com.datasampler.datagenerator.model.TransactionRecord;
+import com.datasampler.datagenerator.output.ArrowStreamEncoder;
+import com.datasampler.datagenerator.output.ConfigurableGzipOutputStream;
+import com.datasampler.datagenerator.output.CsvRecordEncoder;
+import com.datasampler.datagenerator.output.DirectBufferPool;
+import com.datasampler.datagenerator.output.DirectoryPartitionSink;
+import com.datasampler.datagenerator.output.FileChannelOutputStream;
+import com.datasampler.datagenerator.output.ParallelGzipOutputStream;
+import com.datasampler.datagenerator.output.ParquetFileEncoder;
+import com.datasampler.datagenerator.output.PartitionSink;
+import com.datasampler.datagenerator.output.RecordEncoder;
+import com.datasampler.datagenerator.output.RollingPartitionWriter;
+import com.datasampler.datagenerator.output.ZipPartitionSink;
+import com.datasampler.datagenerator.util.CounterRandom;
+import com.datasampler.datagenerator.util.PostedDateOrder;
+import com.datasampler.datagenerator.util.PostedDateTable;
+import com.datasampler.datagenerator.util.SeasonalityProfile;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Random;
+import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.Spliterator;
+import java.util.SplittableRandom;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+import java.util.random.RandomGenerator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPOutputStream;
 
 @Service
 public class DataGeneratorService {
 
     private static final String[] PRODUCT_CODES = {"CREDIT"};
-    private static final Random RANDOM = new Random();
     private static final AtomicInteger TXN_UID_GENERATOR = new AtomicInteger(1000000);
+    // First txnUid of a seeded request, the value a fresh TXN_UID_GENERATOR would hand out; record i gets this plus i
+    private static final int SEEDED_FIRST_TXN_UID = 1000001;
+    // Stream index of the per-day row counts of posted-date-ordered output; record streams use indexes from 0
+    private static final long ROWS_PER_DAY_STREAM = -1;
+    // Exclusive bounds of the packed random digits: 14 for an account number, 6 + 4 for a tokenized PAN
+    private static final long ACCOUNT_NUMBER_BOUND = 100_000_000_000_000L;
+    private static final long PAN_DIGITS_BOUND = 10_000_000_000L;
+    // Typical size of an encoded CSV row, used to presize encoder buffers
+    private static final int CSV_ROW_BYTES_ESTIMATE = 200;
+    // The same row as a JSON object also carries every field name
+    private static final int JSONL_ROW_BYTES_ESTIMATE = 480;
+    // Number of records generated by one parallel task
+    private static final int GENERATION_CHUNK_SIZE = 10000;
+    // Number of encoded CSV chunks per worker that may wait to be written
+    private static final int CSV_CHUNKS_IN_FLIGHT = 2;
+    // Number of rows in one Arrow record batch, generated and encoded by one parallel task
+    private static final int ARROW_BATCH_SIZE = 65536;
+    // Number of encoded Arrow batches per worker that may wait to be written; a batch is several megabytes
+    private static final int ARROW_BATCHES_IN_FLIGHT = 1;
+    // Number of rows in one Parquet data page, generated and encoded by one parallel task
+    private static final int PARQUET_PAGE_ROWS = 65536;
+    // Number of encoded Parquet batches per worker that may wait to be added to a row group
+    private static final int PARQUET_BATCHES_IN_FLIGHT = 1;
+    // Name of the file describing partitioned output
+    private static final String MANIFEST_FILE_NAME = "_manifest.json";
+    // Number of concurrently open files whose direct buffers are kept for reuse
+    private static final int FILES_WITH_POOLED_BUFFERS = 4;
 
     // Set to track recently used categories to avoid repetition
     private final Set<String> usedCategories = new HashSet<>();
@@ -30,6 +101,83 @@ public class DataGeneratorService {
     @Autowired
     private CategoryService categoryService;
 
+    // Number of worker threads for parallel generation; 0 means one per available processor
+    @Value("${datagenerator.parallelism:0}")
+    private int parallelism;
+
+    @Value("${datagenerator.gzip.level:6}")
+    private int gzipLevel;
+
+    @Value("${datagenerator.gzip.buffer-size:65536}")
+    private int gzipBufferSize;
+
+    @Value("${datagenerator.gzip.parallel:true}")
+    private boolean parallelGzip;
+
+    @Value("${datagenerator.gzip.block-size:1048576}")
+    private int gzipBlockSize;
+
+    // Deflate level of CSV entries in zip downloads; entries that are already gzip-compressed are stored
+    @Value("${datagenerator.zip.level:6}")
+    private int zipLevel;
+
+    // Rows per Parquet row group; the encoded pages of a row group are held in memory until it is complete
+    @Value("${datagenerator.parquet.row-group-rows:524288}")
+    private int parquetRowGroupRows;
+
+    // Direct buffers used when writing files: size of each buffer, and how many are filled before one gathering write
+    @Value("${datagenerator.file.buffer-size:4194304}")
+    private int fileBufferSize;
+
+    @Value("${datagenerator.file.buffers-per-write:4}")
+    private int fileBuffersPerWrite;
+
+    // Posted-date profile of seasonality=card requests: weights of the months January-December, of the days
+    // Monday-Sunday, and multipliers of fixed-date holidays as MM-DD:weight
+    @Value("${datagenerator.seasonality.card.month-weights:0.9,0.85,0.95,0.95,1,1,1,1,0.95,1,1.15,1.4}")
+    private String cardMonthWeights;
+
+    @Value("${datagenerator.seasonality.card.day-of-week-weights:0.9,0.9,0.95,1,1.25,1.3,0.8}")
+    private String cardDayOfWeekWeights;
+
+    @Value("${datagenerator.seasonality.card.holiday-weights:02-14:1.2,12-23:1.4,12-24:1.6,12-25:0.5,12-26:1.3,12-31:1.2,01-01:0.6}")
+    private String cardHolidayWeights;
+
+    private ForkJoinPool generationPool;
+    private DirectBufferPool fileBufferPool;
+    private ArrowStreamEncoder arrowEncoder;
+    private ParquetFileEncoder parquetEncoder;
+    private SeasonalityProfile cardSeasonality;
+    // Value tables shared by every TransactionBatch
+    private List<String> productCodes;
+    private List<String> categoryNames;
+    private List<String> categoryGuids;
+    // Indices of the category names the generator writes by name
+    private short feesAndChargesName;
+    private short uncategorizedName;
+
+    @PostConstruct
+    public void init() {
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        generationPool = new ForkJoinPool(workers);
+        // Keep enough buffers for a few files written at the same time
+        fileBufferPool = new DirectBufferPool(fileBufferSize, fileBuffersPerWrite * FILES_WITH_POOLED_BUFFERS);
+        cardSeasonality = SeasonalityProfile.parse(cardMonthWeights, cardDayOfWeekWeights, cardHolidayWeights);
+        productCodes = List.of(PRODUCT_CODES);
+        categoryNames = categoryService.getCategoryNames();
+        categoryGuids = categoryService.getCategoryGuids();
+        feesAndChargesName = (short) categoryService.indexOfCategoryName("Fees and Charges");
+        uncategorizedName = (short) categoryService.indexOfCategoryName("Uncategorized");
+        // Dictionaries hold every value the generator can produce for the dictionary-encoded columns
+        arrowEncoder = new ArrowStreamEncoder(productCodes, TransactionBatch.TXN_TYPES, categoryNames, categoryGuids);
+        parquetEncoder = new ParquetFileEncoder(productCodes, TransactionBatch.TXN_TYPES, categoryNames, categoryGuids);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        generationPool.shutdownNow();
+    }
+
     /**
      * Generates a list of random transaction records
      *
@@ -73,387 +221,523 @@ public class DataGeneratorService {
      * @return List of generated transaction records
      */
     public List<TransactionRecord> generateTransactionRecords(int dataSampleCount, int uniqueSampleCount, String txnType, Integer year) {
-        List<TransactionRecord> records = new ArrayList<>();
-        Set<String> uniqueKeys = new HashSet<>();
+        return streamTransactionRecords(dataSampleCount, uniqueSampleCount, txnType, year)
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Returns a lazy stream of random transaction records. Records are generated on demand as the
+     * stream is consumed, following the same rules as generateTransactionRecords: first uniqueSampleCount
+     * records with unique composite keys, then related records derived from them.
+     *
+     * @param dataSampleCount Number of records to generate per unique sample
+     * @param uniqueSampleCount Number of unique composite keys to generate
+     * @param txnType Optional transaction type filter (PURCHASE, FEE, PAYMENT, or null for all types)
+     * @param year Optional year for transaction posted dates (e.g., 2024)
+     * @return Sequential, ordered stream of dataSampleCount records
+     */
+    public Stream<TransactionRecord> streamTransactionRecords(int dataSampleCount, int uniqueSampleCount, String txnType, Integer year) {
+        return streamTransactionRecords(GenerationRequest.builder()
+                .dataSampleCount(dataSampleCount)
+                .uniqueSampleCount(uniqueSampleCount)
+                .txnType(txnType)
+                .year(year)
+                .build());
+    }
 
-        // Generate records with unique composite keys
-        while (uniqueKeys.size() < uniqueSampleCount) {
-            TransactionRecord record = generateRandomTransactionRecord(txnType, year);
+    /**
+     * Returns a lazy stream of the records in the requested slice of the dataset.
+     * For a seeded request the stream yields exactly the records written by writeDataset for the same request.
+     *
+     * @param request The generation parameters
+     * @return Sequential, ordered stream of the records from offset up to offset + limit
+     */
+    public Stream<TransactionRecord> streamTransactionRecords(GenerationRequest request) {
+        Iterator<TransactionRecord> iterator = new TransactionRecordIterator(request);
+        return StreamSupport.stream(
+                Spliterators.spliterator(iterator, sliceEnd(request) - sliceStart(request),
+                        Spliterator.ORDERED | Spliterator.NONNULL),
+                false);
+    }
 
-            // Create a composite key from accountUid, productCd, txnPostedDate, and txnUid
-            String compositeKey = record.getAccountUid() + "_" +
-                                 record.getProductCd() + "_" +
-                                 record.getTxnPostedDate() + "_" +
-                                 record.getTxnUid();
+    /**
+     * Pull-based generator behind streamTransactionRecords. Each record is computed from its index only,
+     * so memory stays constant however many records are streamed. Composite keys are unique by construction
+     * because every index has its own txnUid, so no key set is kept.
+     */
+    private class TransactionRecordIterator implements Iterator<TransactionRecord> {
+        private final IndexedRecordGenerator generator;
+        private final int end;
+        private int position;
+
+        TransactionRecordIterator(GenerationRequest request) {
+            PostedDateTable postedDates = postedDateTable(request);
+            long seed = resolveSeed(request);
+            this.generator = new IndexedRecordGenerator(request, postedDates, postedDateOrder(request, postedDates, seed),
+                    seed, reserveTxnUids(request));
+            this.position = sliceStart(request);
+            this.end = sliceEnd(request);
+        }
 
-            // Set the primaryKey field
-            record.setPrimaryKey(compositeKey);
+        @Override
+        public boolean hasNext() {
+            return position < end;
+        }
 
-            // Only add the record if the composite key is unique
-            if (uniqueKeys.add(compositeKey)) {
-                records.add(record);
+        @Override
+        public TransactionRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
             }
+            return generator.generate(position++);
         }
+    }
 
-        // If dataSampleCount > uniqueSampleCount, create related records with the same primary key but varied details
-        if (dataSampleCount > uniqueSampleCount) {
-            int initialSize = records.size();
-            for (int i = 0; i < dataSampleCount - initialSize; i++) {
-                // Select a random record from the unique set to use as a base
-                TransactionRecord originalRecord = records.get(RANDOM.nextInt(initialSize));
-
-                // Create a new txnUid
-                int newTxnUid = TXN_UID_GENERATOR.incrementAndGet();
-
-                // Vary the transaction date
-                LocalDate originalTxnDate = originalRecord.getTxnDate();
-                LocalDate originalPostedDate = originalRecord.getTxnPostedDate();
-                LocalDate newTxnDate;
-
-                // If year parameter is provided or null (which means use current year), ensure the date stays within that year
-                if (year != null || originalRecord.getTxnPostedDate().getYear() == LocalDate.now().getYear()) {
-                    int useYear = (year != null) ? year : LocalDate.now().getYear();
-                    LocalDate today = LocalDate.now();
-
-                    // If using current year, ensure dates are up to yesterday
-                    if (useYear == today.getYear()) {
-                        // Generate a date from January 1st to yesterday
-                        LocalDate startDate = LocalDate.of(useYear, 1, 1);
-                        LocalDate endDate = today.minusDays(1); // Yesterday
-
-                        // Calculate random day between start date and end date
-                        long minDay = startDate.toEpochDay();
-                        long maxDay = endDate.toEpochDay();
-
-                        // If the current date is January 1st, use that date
-                        if (minDay > maxDay) {
-                            originalPostedDate = startDate;
-                        } else {
-                            long randomDay = ThreadLocalRandom.current().nextLong(minDay, maxDay + 1);
-                            originalPostedDate = LocalDate.ofEpochDay(randomDay);
-                        }
-                    } else {
-                        // For past or future years, generate a date distributed across all months
-                        int month = RANDOM.nextInt(12) + 1; // 1-12 for January-December
-                        int maxDaysInMonth = java.time.YearMonth.of(useYear, month).lengthOfMonth();
-                        int day = RANDOM.nextInt(maxDaysInMonth) + 1; // 1 to max days in month
-
-                        // Create new posted date in the specified year
-                        originalPostedDate = LocalDate.of(useYear, month, day);
-                    }
-
-                    // Transaction date is 0-2 days before posted date
-                    // Calculate days to subtract, but ensure we don't cross year boundary
-                    int daysToSubtract = RANDOM.nextInt(3); // 0-2 days before posted date
-
-                    // If subtracting days would cross year boundary, adjust to stay in the same year
-                    if (originalPostedDate.getDayOfYear() <= daysToSubtract) {
-                        daysToSubtract = originalPostedDate.getDayOfYear() - 1;
-                        // If we're at January 1st, don't subtract any days
-                        if (daysToSubtract < 0) {
-                            daysToSubtract = 0;
-                        }
-                    }
-
-                    newTxnDate = originalPostedDate.minusDays(daysToSubtract);
-
-                    // Double-check that transaction date is in the same year as posted date
-                    if (newTxnDate.getYear() != originalPostedDate.getYear()) {
-                        newTxnDate = LocalDate.of(originalPostedDate.getYear(), 1, 1); // Use January 1st of the same year as a fallback
-                    }
-                } else {
-                    // Without year parameter, vary within 7 days of the original
-                    newTxnDate = originalTxnDate.plusDays(RANDOM.nextInt(7) - 3); // -3 to +3 days
-
-                    // Ensure txnDate is not after txnPostedDate
-                    if (newTxnDate.isAfter(originalPostedDate)) {
-                        newTxnDate = originalPostedDate;
-                    }
-                }
+    /**
+     * Computes the record at any index of a dataset directly from the dataset seed and the index.
+     * Indexes below uniqueSampleCount are unique records. Every other index is a related record
+     * whose base unique record is picked by its own draws and recomputed from that record's index,
+     * so no earlier record has to be generated or kept. Records are written into the columns of a
+     * TransactionBatch, so generating them creates no objects per record. With a PostedDateOrder, rows are
+     * generated by position: each position is mapped to a record index and gets the posted date of its
+     * position. Instances are not thread-safe; each worker creates its own.
+     */
+    private class IndexedRecordGenerator {
+        private final long seed;
+        private final int firstTxnUid;
+        private final int uniqueSampleCount;
+        private final int txnType; // Index into TransactionBatch.TXN_TYPES, or -1 for a random type per record
+        private final PostedDateTable postedDates;
+        private final PostedDateOrder order; // Layout of rows in posted date order, or null for generation order
+        private final CounterRandom random = new CounterRandom();
+        private final CounterRandom originalRandom = new CounterRandom();
+        // Holds the unique record a related record is derived from
+        private final TransactionBatch original;
+        private TransactionBatch single;
+
+        IndexedRecordGenerator(GenerationRequest request, PostedDateTable postedDates, PostedDateOrder order,
+                               long seed, int firstTxnUid) {
+            this.seed = seed;
+            this.firstTxnUid = firstTxnUid;
+            this.uniqueSampleCount = request.getUniqueSampleCount();
+            this.txnType = txnTypeIndex(request.getTxnType());
+            this.postedDates = postedDates;
+            this.order = order;
+            this.original = newBatch(1, postedDates);
+        }
 
-                // For related records, either vary the original amount or generate a completely new amount
-                BigDecimal newAmount;
-                if (RANDOM.nextDouble() < 0.5) {
-                    // 50% chance: Generate a completely new random amount between 1 and 10,000
-                    double amount = 1 + (RANDOM.nextDouble() * 9999);
-                    newAmount = new BigDecimal(amount).setScale(2, BigDecimal.ROUND_HALF_UP);
-                } else {
-                    // 50% chance: Vary the original amount (within 50% of the original)
-                    BigDecimal originalAmount = originalRecord.getAmount();
-                    double variationFactor = 0.5 + (RANDOM.nextDouble() * 1.0); // 0.5 to 1.5 (±50%)
-                    newAmount = originalAmount.multiply(new BigDecimal(variationFactor))
-                            .setScale(2, BigDecimal.ROUND_HALF_UP);
-                }
+        /**
+         * Returns the index of the record generated at a position of the output
+         */
+        private int recordIndex(int position) {
+            return order != null ? order.recordIndex(position) : position;
+        }
 
-                // Randomize category and subcategory
-                String category;
-                String subCategory;
-                String categoryGUID;
-                String generatedTxnType;
-                String debitCreditIndicator;
-
-                // If txnType is provided, use it; otherwise, determine based on original or randomly
-                if (txnType != null && !txnType.isEmpty()) {
-                    generatedTxnType = txnType;
-                } else {
-                    // Determine transaction type: PURCHASE (60%), FEE (15%), or PAYMENT (25%)
-                    double randomValue = RANDOM.nextDouble();
-                    boolean originalIsFee = "FEE".equals(originalRecord.getTxnType());
-                    boolean originalIsPayment = "PAYMENT".equals(originalRecord.getTxnType());
-
-                    if (originalIsFee || (!originalIsPayment && randomValue < 0.15)) {
-                        generatedTxnType = "FEE";
-                    } else if (originalIsPayment || randomValue < 0.40) {
-                        generatedTxnType = "PAYMENT";
-                    } else {
-                        generatedTxnType = "PURCHASE";
-                    }
-                }
+        TransactionRecord generate(int position) {
+            if (single == null) {
+                single = newBatch(1, postedDates);
+            }
+            return generate(single, position, position + 1).toRecord(0);
+        }
 
-                // Set category, subcategory, and debitCreditIndicator based on transaction type
-                if ("FEE".equals(generatedTxnType)) {
-                    // For FEE transactions, always use "Fees and Charges"
-                    category = "Fees and Charges";
-                    String feesGUID = categoryService.getCategoryGuidByName("Fees and Charges");
-                    categoryGUID = categoryService.getRandomSubcategoryGuid(feesGUID, RANDOM);
-                    subCategory = categoryService.getCategoryNameByGuid(categoryGUID);
-                    debitCreditIndicator = "D"; // FEE is a Debit
-                } else if ("PAYMENT".equals(generatedTxnType)) {
-                    // For PAYMENT transactions
-                    // Use Uncategorized for PAYMENT transactions
-                    categoryGUID = categoryService.getUncategorizedGuid();
-                    category = "Uncategorized";
-                    subCategory = "Uncategorized";
-                    debitCreditIndicator = "C"; // PAYMENT is a Credit
-                } else {
-                    // For PURCHASE transactions
-                    debitCreditIndicator = "D"; // PURCHASE is a Debit
-
-                    // 70% chance to completely change the category
-                    if (RANDOM.nextDouble() < 0.7) {
-                        // Get a random parent category (excluding "Fees and Charges")
-                        do {
-                            String parentGUID = categoryService.getRandomParentCategoryGuid(RANDOM);
-                            category = categoryService.getCategoryNameByGuid(parentGUID);
-
-                            // Get a random subcategory for this parent
-                            categoryGUID = categoryService.getRandomSubcategoryGuid(parentGUID, RANDOM);
-                            subCategory = categoryService.getCategoryNameByGuid(categoryGUID);
-                        } while ("Fees and Charges".equals(category));
-                    } else {
-                        // Keep the original category but change subcategory
-                        category = originalRecord.getCategory();
-
-                        // If original category was "Fees and Charges", change it to something else
-                        if ("Fees and Charges".equals(category)) {
-                            do {
-                                String parentGUID = categoryService.getRandomParentCategoryGuid(RANDOM);
-                                category = categoryService.getCategoryNameByGuid(parentGUID);
-                            } while ("Fees and Charges".equals(category));
-                        }
-
-                        String parentGUID = categoryService.getCategoryGuidByName(category);
-                        categoryGUID = categoryService.getRandomSubcategoryGuid(parentGUID, RANDOM);
-                        subCategory = categoryService.getCategoryNameByGuid(categoryGUID);
-                    }
+        TransactionBatch generate(int start, int end) {
+            return generate(newBatch(end - start, postedDates), start, end);
+        }
+
+        /**
+         * Fills the rows of a batch with the rows at positions from start to end, and sets its size
+         */
+        TransactionBatch generate(TransactionBatch batch, int start, int end) {
+            for (int position = start; position < end; position++) {
+                int row = position - start;
+                int index = recordIndex(position);
+                random.reset(seed, index);
+                if (index < uniqueSampleCount) {
+                    generateRandomTransaction(batch, row, txnType, postedEpochDay(position), postedDates, random,
+                            firstTxnUid + index);
+                    continue;
                 }
 
-                TransactionRecord relatedRecord = TransactionRecord.builder()
-                    .accountUid(originalRecord.getAccountUid())
-                    .productCd(originalRecord.getProductCd())
-                    .txnPostedDate(originalPostedDate) // Use the potentially updated posted date
-                    .txnDate(newTxnDate) // Varied transaction date
-                    .txnType(generatedTxnType)
-                    .amount(newAmount) // Varied amount
-                    .category(category)
-                    .subCategory(subCategory) // Potentially varied subcategory
-                    .categoryGUID(categoryGUID)
-                    .txnUid(newTxnUid)
-                    .tokenizedPan(originalRecord.getTokenizedPan())
-                    .last4digitNbr(originalRecord.getLast4digitNbr())
-                    .debitCreditIndicator(debitCreditIndicator) // Set the debit/credit indicator
-                    .primaryKey(originalRecord.getAccountUid() + "_" +
-                               originalRecord.getProductCd() + "_" +
-                               originalPostedDate + "_" + // Use the potentially updated posted date
-                               newTxnUid) // Create a new primary key with the new txnUid
-                    .build();
-
-                records.add(relatedRecord);
+                // Select a random record from the unique set to use as a base; only its dates are not reused
+                int originalIndex = random.nextInt(uniqueSampleCount);
+                originalRandom.reset(seed, originalIndex);
+                generateRandomTransaction(original, 0, txnType, postedDates.nextEpochDay(originalRandom), postedDates,
+                        originalRandom, firstTxnUid + originalIndex);
+                generateRelatedTransaction(original, batch, row, txnType, postedEpochDay(position), postedDates, random,
+                        firstTxnUid + index);
             }
+            batch.setSize(end - start);
+            return batch;
+        }
+
+        /**
+         * Draws the posted date of the record at a position. Ordered output replaces it with the day of the
+         * position, but still makes the draw, so the rest of a record is the same whatever the order.
+         */
+        private int postedEpochDay(int position) {
+            int epochDay = postedDates.nextEpochDay(random);
+            return order != null ? order.epochDay(position) : epochDay;
+        }
+    }
+
+    private TransactionBatch newBatch(int capacity, PostedDateTable postedDates) {
+        return new TransactionBatch(capacity, productCodes, categoryNames, categoryGuids, postedDates);
+    }
+
+    /**
+     * Returns the index of a requested txn type in TransactionBatch.TXN_TYPES, or -1 if none is requested
+     */
+    private static int txnTypeIndex(String txnType) {
+        if (txnType == null || txnType.isEmpty()) {
+            return -1;
         }
+        int index = TransactionBatch.TXN_TYPES.indexOf(txnType);
+        if (index < 0) {
+            throw new IllegalArgumentException("Transaction type must be one of: " + TransactionBatch.TXN_TYPES);
+        }
+        return index;
+    }
 
+    /**
+     * Generates a list of random transaction records on the generation pool.
+     *
+     * @param dataSampleCount Number of records to generate per unique sample
+     * @param uniqueSampleCount Number of unique composite keys to generate
+     * @param txnType Optional transaction type filter (PURCHASE, FEE, PAYMENT, or null for all types)
+     * @param year Optional year for transaction posted dates (e.g., 2024)
+     * @return List of generated transaction records, unique records first unless ordered by posted date
+     */
+    public List<TransactionRecord> generateTransactionRecordsParallel(int dataSampleCount, int uniqueSampleCount, String txnType, Integer year) {
+        return generateTransactionRecordsParallel(GenerationRequest.builder()
+                .dataSampleCount(dataSampleCount)
+                .uniqueSampleCount(uniqueSampleCount)
+                .txnType(txnType)
+                .year(year)
+                .build());
+    }
+
+    /**
+     * Generates the requested slice of the dataset on the generation pool. The slice is split into chunks
+     * that are generated concurrently and merged back in order. Every record is computed from the request
+     * seed and its own index, so workers share no random generator, and gets its own txnUid, so composite
+     * keys are unique across workers without a shared key set. The result does not depend on the number of workers.
+     *
+     * @param request The generation parameters
+     * @return List of generated transaction records in output order: unique records first, or by posted date
+     */
+    public List<TransactionRecord> generateTransactionRecordsParallel(GenerationRequest request) {
+        PostedDateTable postedDates = postedDateTable(request);
+        long seed = resolveSeed(request);
+        PostedDateOrder order = postedDateOrder(request, postedDates, seed);
+        int firstTxnUid = reserveTxnUids(request);
+        int sliceStart = sliceStart(request);
+        int sliceEnd = sliceEnd(request);
+
+        List<ForkJoinTask<List<TransactionRecord>>> tasks = new ArrayList<>();
+        for (int start = sliceStart; start < sliceEnd; start += GENERATION_CHUNK_SIZE) {
+            int chunkStart = start;
+            int chunkEnd = Math.min(sliceEnd, start + GENERATION_CHUNK_SIZE);
+            tasks.add(generationPool.submit(() -> {
+                TransactionBatch batch = new IndexedRecordGenerator(request, postedDates, order, seed, firstTxnUid)
+                        .generate(chunkStart, chunkEnd);
+                List<TransactionRecord> chunk = new ArrayList<>(batch.getSize());
+                for (int row = 0; row < batch.getSize(); row++) {
+                    chunk.add(batch.toRecord(row));
+                }
+                return chunk;
+            }));
+        }
+
+        List<TransactionRecord> records = new ArrayList<>(sliceEnd - sliceStart);
+        for (ForkJoinTask<List<TransactionRecord>> task : tasks) {
+            records.addAll(task.join());
+        }
         return records;
     }
 
+    /**
+     * Returns the seed of a request, drawing a fresh one when the request is not seeded.
+     * Every date, amount, category, account and PAN of the request follows from this seed.
+     */
+    private long resolveSeed(GenerationRequest request) {
+        return request.getSeed() != null ? request.getSeed() : new SplittableRandom().nextLong();
+    }
+
+    /**
+     * Resolves the days posted dates are drawn from: the requested year, or the current year up to yesterday,
+     * weighted by the requested seasonality. Resolving them once keeps every chunk and pass of a request on the
+     * same days, even across midnight.
+     */
+    private PostedDateTable postedDateTable(GenerationRequest request) {
+        SeasonalityProfile profile = request.getSeasonality() == Seasonality.CARD ? cardSeasonality : null;
+        return PostedDateTable.forYear(request.getYear(), LocalDate.now(), profile);
+    }
+
+    /**
+     * Lays out the rows of a request in posted date order, or returns null if the request keeps generation order.
+     * The rows per day are drawn from their own stream of the request seed, so every chunk and slice of a request
+     * sees the same layout.
+     */
+    private PostedDateOrder postedDateOrder(GenerationRequest request, PostedDateTable postedDates, long seed) {
+        if (request.getOrder() != RowOrder.POSTED_DATE) {
+            return null;
+        }
+        return new PostedDateOrder(postedDates, totalRecordCount(request),
+                new CounterRandom().reset(seed, ROWS_PER_DAY_STREAM));
+    }
+
+    /**
+     * Reserves a block of txnUids for all records of a request and returns the first one.
+     * Seeded requests always start from the same txnUid so that their output is reproducible.
+     */
+    private int reserveTxnUids(GenerationRequest request) {
+        if (request.getSeed() != null) {
+            return SEEDED_FIRST_TXN_UID;
+        }
+        return TXN_UID_GENERATOR.getAndAdd(totalRecordCount(request)) + 1;
+    }
+
+    private int totalRecordCount(GenerationRequest request) {
+        return Math.max(request.getDataSampleCount(), request.getUniqueSampleCount());
+    }
+
+    /**
+     * Returns how many records the request produces once offset and limit are applied
+     *
+     * @param request The generation parameters
+     * @return Number of records in the requested slice
+     */
+    public int countRecords(GenerationRequest request) {
+        return sliceEnd(request) - sliceStart(request);
+    }
+
+    /**
+     * Index of the first record of the requested slice
+     */
+    private int sliceStart(GenerationRequest request) {
+        return Math.min(request.getOffset(), totalRecordCount(request));
+    }
+
+    /**
+     * Index after the last record of the requested slice
+     */
+    private int sliceEnd(GenerationRequest request) {
+        if (request.getLimit() == null) {
+            return totalRecordCount(request);
+        }
+        return (int) Math.min((long) sliceStart(request) + request.getLimit(), totalRecordCount(request));
+    }
+
     // This method is already defined above
 
     /**
-     * Generates a single random transaction record
+     * Generates a record related to an existing unique record: same account, product and PAN,
+     * but with a new txnUid and varied dates, amount and category
      *
-     * @param txnType Optional transaction type filter (PURCHASE, FEE, PAYMENT, or null for all types)
-     * @param year Optional year for transaction posted date (e.g., 2024). If provided, date will be within this year
-     * @return A randomly generated transaction record
+     * @param original The batch whose first row is the unique record to use as a base
+     * @param batch The batch to write the record to
+     * @param row The row of the batch to write
+     * @param txnType Index of the transaction type filter in TransactionBatch.TXN_TYPES, or -1 for all types
+     * @param postedEpochDay The posted date of the new record, as days since 1970-01-01
+     * @param postedDates The days of the request's year
+     * @param random The random generator of the calling worker
+     * @param newTxnUid The txnUid for the new record
      */
-    private TransactionRecord generateRandomTransactionRecord(String txnType, Integer year) {
-        LocalDate postedDate = generateRandomDate(year);
+    private void generateRelatedTransaction(TransactionBatch original, TransactionBatch batch, int row, int txnType,
+                                            int postedEpochDay, PostedDateTable postedDates, RandomGenerator random,
+                                            int newTxnUid) {
+        // New dates in the request's year; the account, product and PAN stay those of the original
+        int txnEpochDay = txnEpochDayBefore(postedEpochDay, postedDates, random);
+
+        // For related records, either vary the original amount or generate a completely new amount
+        long newAmountCents;
+        if (random.nextDouble() < 0.5) {
+            // 50% chance: Generate a completely new random amount between 1.00 and 10,000.00
+            newAmountCents = generateRandomAmountCents(random);
+        } else {
+            // 50% chance: Vary the original amount (within 50% of the original)
+            double variationFactor = 0.5 + (random.nextDouble() * 1.0); // 0.5 to 1.5 (±50%)
+            newAmountCents = Math.round(original.getAmountCents()[0] * variationFactor);
+        }
 
-        // Transaction date is usually on or before the posted date
-        // Calculate days to subtract, but ensure we don't cross year boundary
-        int daysToSubtract = RANDOM.nextInt(3); // 0-2 days before posted date
-
-        // If subtracting days would cross year boundary, adjust to stay in the same year
-        if (postedDate.getDayOfYear() <= daysToSubtract) {
-            daysToSubtract = postedDate.getDayOfYear() - 1;
-            // If we're at January 1st, don't subtract any days
-            if (daysToSubtract < 0) {
-                daysToSubtract = 0;
+        // Randomize category and subcategory, as indices into the category names and GUIDs
+        short category;
+        short subCategory;
+        short categoryGUID;
+        int generatedTxnType;
+
+        // If txnType is provided, use it; otherwise, determine based on original or randomly
+        if (txnType >= 0) {
+            generatedTxnType = txnType;
+        } else {
+            // Determine transaction type: PURCHASE (60%), FEE (15%), or PAYMENT (25%)
+            double randomValue = random.nextDouble();
+            boolean originalIsFee = original.getTxnType()[0] == TransactionBatch.FEE;
+            boolean originalIsPayment = original.getTxnType()[0] == TransactionBatch.PAYMENT;
+
+            if (originalIsFee || (!originalIsPayment && randomValue < 0.15)) {
+                generatedTxnType = TransactionBatch.FEE;
+            } else if (originalIsPayment || randomValue < 0.40) {
+                generatedTxnType = TransactionBatch.PAYMENT;
+            } else {
+                generatedTxnType = TransactionBatch.PURCHASE;
             }
         }
 
-        LocalDate txnDate = postedDate.minusDays(daysToSubtract);
+        // Set category and subcategory based on transaction type; the debit/credit indicator follows from the type
+        if (generatedTxnType == TransactionBatch.FEE) {
+            // For FEE transactions, always use "Fees and Charges"
+            category = feesAndChargesName;
+            int feeSubcategory = categoryService.getRandomFeeSubcategoryId(random);
+            categoryGUID = categoryService.getGuidIndex(feeSubcategory);
+            subCategory = categoryService.getNameIndex(feeSubcategory);
+        } else if (generatedTxnType == TransactionBatch.PAYMENT) {
+            // For PAYMENT transactions
+            // Use Uncategorized for PAYMENT transactions
+            categoryGUID = categoryService.getGuidIndex(categoryService.getUncategorizedId());
+            category = uncategorizedName;
+            subCategory = uncategorizedName;
+        } else {
+            // For PURCHASE transactions
+
+            // 70% chance to completely change the category
+            int parentCategory;
+            if (random.nextDouble() < 0.7) {
+                // Get a random parent category (the pick table already excludes "Fees and Charges")
+                parentCategory = categoryService.getRandomPurchaseParentCategoryId(random);
+                category = categoryService.getNameIndex(parentCategory);
+            } else {
+                // Keep the original category but change subcategory
+                category = original.getCategory()[0];
+                parentCategory = categoryService.getCategoryIdByNameIndex(category);
+
+                // If original category was "Fees and Charges", change it to something else
+                if (category == feesAndChargesName) {
+                    parentCategory = categoryService.getRandomPurchaseParentCategoryId(random);
+                    category = categoryService.getNameIndex(parentCategory);
+                }
+            }
 
-        // Double-check that transaction date is in the same year as posted date
-        if (txnDate.getYear() != postedDate.getYear()) {
-            txnDate = LocalDate.of(postedDate.getYear(), 1, 1); // Use January 1st of the same year as a fallback
+            // Get a random subcategory for this parent
+            int subcategory = categoryService.getRandomSubcategoryId(parentCategory, random);
+            categoryGUID = categoryService.getGuidIndex(subcategory);
+            subCategory = categoryService.getNameIndex(subcategory);
         }
 
-        String tokenizedPan = generateRandomTokenizedPan();
+        // The primary key is derived from the account, posted date and new txnUid
+        batch.getAccountNumber()[row] = original.getAccountNumber()[0];
+        batch.getProductCd()[row] = original.getProductCd()[0];
+        batch.getPostedEpochDay()[row] = postedEpochDay;
+        batch.getTxnEpochDay()[row] = txnEpochDay; // Varied transaction date
+        batch.getTxnType()[row] = (byte) generatedTxnType;
+        batch.getAmountCents()[row] = newAmountCents; // Varied amount
+        batch.getCategory()[row] = category;
+        batch.getSubCategory()[row] = subCategory; // Potentially varied subcategory
+        batch.getCategoryGuid()[row] = categoryGUID;
+        batch.getTxnUid()[row] = newTxnUid;
+        batch.getPanDigits()[row] = original.getPanDigits()[0];
+    }
+
 
-        // Get category and subcategory from CategoryService
-        String categoryGUID;
-        String category;
-        String subCategory;
-        String generatedTxnType;
-        String debitCreditIndicator;
+    /**
+     * Generates a single random transaction record
+     *
+     * @param batch The batch to write the record to
+     * @param row The row of the batch to write
+     * @param txnType Index of the transaction type filter in TransactionBatch.TXN_TYPES, or -1 for all types
+     * @param postedEpochDay The posted date of the record, as days since 1970-01-01
+     * @param postedDates The days of the request's year
+     * @param random The random generator of the calling worker
+     * @param txnUid The txnUid for the new record
+     */
+    private void generateRandomTransaction(TransactionBatch batch, int row, int txnType, int postedEpochDay,
+                                           PostedDateTable postedDates, RandomGenerator random, int txnUid) {
+        // Transaction date is usually on or before the posted date
+        int txnEpochDay = txnEpochDayBefore(postedEpochDay, postedDates, random);
+
+        long panDigits = generateRandomPanDigits(random);
+
+        // Get category and subcategory from CategoryService, as indices into the category names and GUIDs
+        short categoryGUID;
+        short category;
+        short subCategory;
+        int generatedTxnType;
 
         // If txnType is provided, use it; otherwise, determine randomly
-        if (txnType != null && !txnType.isEmpty()) {
+        if (txnType >= 0) {
             generatedTxnType = txnType;
         } else {
             // Determine transaction type: PURCHASE (70%), FEE (15%), or PAYMENT (15%)
-            double randomValue = RANDOM.nextDouble();
+            double randomValue = random.nextDouble();
             if (randomValue < 0.15) {
-                generatedTxnType = "FEE";
+                generatedTxnType = TransactionBatch.FEE;
             } else if (randomValue < 0.30) {
-                generatedTxnType = "PAYMENT";
+                generatedTxnType = TransactionBatch.PAYMENT;
             } else {
-                generatedTxnType = "PURCHASE";
+                generatedTxnType = TransactionBatch.PURCHASE;
             }
         }
 
-        // Set category, subcategory, and debitCreditIndicator based on transaction type
-        if ("FEE".equals(generatedTxnType)) {
+        // Set category and subcategory based on transaction type; the debit/credit indicator follows from the type
+        if (generatedTxnType == TransactionBatch.FEE) {
             // For FEE transactions, always use "Fees and Charges" and txnType = "FEE"
-            String feesGUID = categoryService.getCategoryGuidByName("Fees and Charges");
-            categoryGUID = categoryService.getRandomSubcategoryGuid(feesGUID, RANDOM);
-            category = "Fees and Charges";
-            subCategory = categoryService.getCategoryNameByGuid(categoryGUID);
-            debitCreditIndicator = "D"; // FEE is a Debit
-        } else if ("PAYMENT".equals(generatedTxnType)) {
+            int feeSubcategory = categoryService.getRandomFeeSubcategoryId(random);
+            categoryGUID = categoryService.getGuidIndex(feeSubcategory);
+            category = feesAndChargesName;
+            subCategory = categoryService.getNameIndex(feeSubcategory);
+        } else if (generatedTxnType == TransactionBatch.PAYMENT) {
             // For PAYMENT transactions
             // Use Uncategorized for PAYMENT transactions
-            categoryGUID = categoryService.getUncategorizedGuid();
-            category = "Uncategorized";
-            subCategory = "Uncategorized";
-            debitCreditIndicator = "C"; // PAYMENT is a Credit
+            categoryGUID = categoryService.getGuidIndex(categoryService.getUncategorizedId());
+            category = uncategorizedName;
+            subCategory = uncategorizedName;
         } else {
             // For PURCHASE transactions
 
-            // Get a random parent category (excluding "Fees and Charges")
-            do {
-                categoryGUID = categoryService.getRandomParentCategoryGuid(RANDOM);
-                category = categoryService.getCategoryNameByGuid(categoryGUID);
-            } while ("Fees and Charges".equals(category));
-
-            // Get a random subcategory for this parent
-            String subCategoryGUID = categoryService.getRandomSubcategoryGuid(categoryGUID, RANDOM);
-            subCategory = categoryService.getCategoryNameByGuid(subCategoryGUID);
-
-            // Update categoryGUID to the subcategory GUID
-            categoryGUID = subCategoryGUID;
-            debitCreditIndicator = "D"; // PURCHASE is a Debit
-        }
-
-        String accountUid = generateRandomAccountUid();
-        String productCd = generateRandomProductCd();
-        int txnUid = TXN_UID_GENERATOR.incrementAndGet();
-
-        // Create the primary key
-        String primaryKey = accountUid + "_" + productCd + "_" + postedDate + "_" + txnUid;
-
-        return TransactionRecord.builder()
-                .accountUid(accountUid)
-                .productCd(productCd)
-                .txnPostedDate(postedDate)
-                .txnDate(txnDate)
-                .txnType(generatedTxnType)
-                .amount(generateRandomAmount())
-                .category(category)
-                .subCategory(subCategory)
-                .categoryGUID(categoryGUID)
-                .txnUid(txnUid)
-                .tokenizedPan(tokenizedPan)
-                .last4digitNbr(tokenizedPan.substring(tokenizedPan.length() - 4))
-                .primaryKey(primaryKey)
-                .debitCreditIndicator(debitCreditIndicator)
-                .build();
-    }
+            // Get a random parent category (the pick table already excludes "Fees and Charges")
+            int parentCategory = categoryService.getRandomPurchaseParentCategoryId(random);
+            category = categoryService.getNameIndex(parentCategory);
 
-    private String generateRandomAccountUid() {
-        // First 6 digits are zeros
-        StringBuilder sb = new StringBuilder("000000");
-
-        // Generate 14 random digits
-        for (int i = 0; i < 14; i++) {
-            sb.append(RANDOM.nextInt(10));
+            // Get a random subcategory for this parent and use its GUID
+            int subcategory = categoryService.getRandomSubcategoryId(parentCategory, random);
+            subCategory = categoryService.getNameIndex(subcategory);
+            categoryGUID = categoryService.getGuidIndex(subcategory);
         }
 
-        return sb.toString();
+        long accountNumber = generateRandomAccountNumber(random);
+        int productCd = generateRandomProductCd(random);
+
+        // accountUid, tokenizedPan, last4digitNbr and the primary key are rendered from the packed digits on demand
+        batch.getAccountNumber()[row] = accountNumber;
+        batch.getProductCd()[row] = (byte) productCd;
+        batch.getPostedEpochDay()[row] = postedEpochDay;
+        batch.getTxnEpochDay()[row] = txnEpochDay;
+        batch.getTxnType()[row] = (byte) generatedTxnType;
+        batch.getAmountCents()[row] = generateRandomAmountCents(random);
+        batch.getCategory()[row] = category;
+        batch.getSubCategory()[row] = subCategory;
+        batch.getCategoryGuid()[row] = categoryGUID;
+        batch.getTxnUid()[row] = txnUid;
+        batch.getPanDigits()[row] = panDigits;
     }
 
-    private String generateRandomProductCd() {
-        return PRODUCT_CODES[RANDOM.nextInt(PRODUCT_CODES.length)];
+    private long generateRandomAccountNumber(RandomGenerator random) {
+        // The 14 random digits that follow the six leading zeros of an accountUid
+        return random.nextLong(ACCOUNT_NUMBER_BOUND);
     }
 
-    private LocalDate generateRandomDate() {
-        // Always use current year with dates up to yesterday
-        int currentYear = LocalDate.now().getYear();
-        return generateRandomDate(currentYear);
+    private int generateRandomProductCd(RandomGenerator random) {
+        // Index into PRODUCT_CODES
+        return random.nextInt(PRODUCT_CODES.length);
     }
 
-    private LocalDate generateRandomDate(Integer year) {
-        LocalDate today = LocalDate.now();
-
-        if (year == null) {
-            // Use current year when no year is specified
-            return generateRandomDate(today.getYear());
-        }
-
-        // If the specified year is the current year, ensure dates are up to yesterday
-        if (year == today.getYear()) {
-            // Generate a date from January 1st to yesterday
-            LocalDate startDate = LocalDate.of(year, 1, 1);
-            LocalDate endDate = today.minusDays(1); // Yesterday
-
-            // Calculate random day between start date and end date
-            long minDay = startDate.toEpochDay();
-            long maxDay = endDate.toEpochDay();
-
-            // If the current date is January 1st, use that date
-            if (minDay > maxDay) {
-                return startDate;
-            }
-
-            long randomDay = ThreadLocalRandom.current().nextLong(minDay, maxDay + 1);
-            return LocalDate.ofEpochDay(randomDay);
-        } else {
-            // For past or future years, generate a date distributed across all months
-            int month = RANDOM.nextInt(12) + 1; // 1-12 for January-December
-            int maxDaysInMonth = java.time.YearMonth.of(year, month).lengthOfMonth();
-            int day = RANDOM.nextInt(maxDaysInMonth) + 1; // 1 to max days in month
-
-            return LocalDate.of(year, month, day);
-        }
+    /**
+     * Draws a transaction date 0-2 days before a posted date, without crossing into the previous year
+     */
+    private static int txnEpochDayBefore(int postedEpochDay, PostedDateTable postedDates, RandomGenerator random) {
+        int daysToSubtract = random.nextInt(3); // 0-2 days before posted date
+        // On January 1st and 2nd, stop at January 1st
+        return Math.max(postedEpochDay - daysToSubtract, postedDates.getFirstEpochDay());
     }
 
     // LocalTime no longer needed as we're using LocalDate
@@ -466,10 +750,9 @@ public class DataGeneratorService {
     }
     */
 
-    private BigDecimal generateRandomAmount() {
-        // Generate amount between 1 and 10,000
-        double amount = 1 + (RANDOM.nextDouble() * 9999);
-        return new BigDecimal(amount).setScale(2, BigDecimal.ROUND_HALF_UP);
+    private long generateRandomAmountCents(RandomGenerator random) {
+        // Generate amount between 1.00 and 10,000.00 inclusive, in cents
+        return random.nextLong(100, 1_000_001);
     }
 
     // These methods are no longer needed as we're using CategoryService
@@ -570,16 +853,9 @@ public class DataGeneratorService {
 
     // No longer needed as we're using TXN_UID_GENERATOR.incrementAndGet()
 
-    private String generateRandomTokenizedPan() {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < 16; i++) {
-            if (i > 5 && i < 12) {
-                sb.append('X');
-            } else {
-                sb.append(RANDOM.nextInt(10));
-            }
-        }
-        return sb.toString();
+    private long generateRandomPanDigits(RandomGenerator random) {
+        // The 10 unmasked digits of a tokenized PAN: first 6 and last 4
+        return random.nextLong(PAN_DIGITS_BOUND);
     }
 
     // No longer needed as we're extracting last4digitNbr from tokenizedPan
@@ -591,65 +867,434 @@ public class DataGeneratorService {
      * @return CSV formatted string
      */
     public String convertToCsv(List<TransactionRecord> records) {
-        StringBuilder csv = new StringBuilder();
+        CsvRecordEncoder encoder = new CsvRecordEncoder(records.size() * CSV_ROW_BYTES_ESTIMATE,
+                categoryService.getEncodedValues(FileType.CSV));
 
         // Add header
-        csv.append("primary_key,account_uid,product_cd,txn_posted_date,txn_date,txn_type,amount,category,sub_category,category_guid,debit_credit_indicator,txn_uid,tokenized_pan,last4digitNbr\n");
+        encoder.writeHeader();
 
         // Add records
         for (TransactionRecord record : records) {
-            csv.append(formatCsvValue(record.getPrimaryKey())).append(",")
-               .append(formatCsvValue(record.getAccountUid())).append(",")
-               .append(formatCsvValue(record.getProductCd())).append(",")
-               .append(formatCsvValue(record.getTxnPostedDate().toString())).append(",")
-               .append(formatCsvValue(record.getTxnDate().toString())).append(",")
-               .append(formatCsvValue(record.getTxnType())).append(",")
-               .append(formatCsvValue(record.getAmount().toString())).append(",")
-               .append(formatCsvValue(record.getCategory())).append(",")
-               .append(formatCsvValue(record.getSubCategory())).append(",")
-               .append(formatCsvValue(record.getCategoryGUID())).append(",")
-               .append(formatCsvValue(record.getDebitCreditIndicator())).append(",")
-               .append(formatCsvValue(String.valueOf(record.getTxnUid()))).append(",")
-               .append(formatCsvValue(record.getTokenizedPan())).append(",")
-               .append(formatCsvValue(record.getLast4digitNbr())).append("\n");
+            encoder.encode(record);
         }
 
-        return csv.toString();
+        return new String(encoder.toByteArray(), StandardCharsets.UTF_8);
     }
 
     /**
-     * Formats a value for CSV output, adding double quotes if the value contains special characters
+     * Generates the requested slice of the dataset and streams it in the requested file type (CSV, JSON Lines,
+     * Arrow or Parquet) to the given output stream.
+     * Rows are generated and encoded in chunks on the generation pool and written in order as soon as
+     * each chunk is ready, so neither the full record list nor the full encoded output is ever held in memory.
+     * Records before the offset are never generated, so the cost depends only on the size of the slice.
+     * For a seeded request the output is byte-identical across runs, whatever the number of workers.
+     * With gzip compression the output is compressed as it is written. By default blocks of it are compressed in
+     * parallel on the generation pool and written as concatenated gzip members, so compression scales with the
+     * same workers as generation. A partitioned request is written as a zip archive of its files instead.
      *
-     * @param value The value to format
-     * @return The formatted value
-     */
-    private String formatCsvValue(String value) {
-        if (value == null) {
-            return "";
-        }
-
-        // Check if the value contains special characters that require quoting
-        boolean needsQuotes = value.contains(",") || value.contains("\"") ||
-                             value.contains("\n") || value.contains("\r") ||
-                             value.contains(" ") || value.contains(";") ||
-                             value.contains("'") || value.contains("-") ||
-                             value.contains("&") || value.contains("@") ||
-                             value.contains("(") || value.contains(")") ||
-                             value.contains("[") || value.contains("]") ||
-                             value.contains("{") || value.contains("}") ||
-                             value.contains("!") || value.contains("?") ||
-                             value.contains("#") || value.contains("$") ||
-                             value.contains("%") || value.contains("^") ||
-                             value.contains("*") || value.contains("+") ||
-                             value.contains("=") || value.contains("<") ||
-                             value.contains(">") || value.contains("/") ||
-                             value.contains("\\");
-
-        if (needsQuotes) {
-            // Escape any double quotes by doubling them and wrap the value in double quotes
-            return "\"" + value.replace("\"", "\"\"") + "\"";
-        } else {
-            return value;
+     * @param request The generation parameters
+     * @param outputStream The stream to write the data to; it is flushed but not closed
+     * @throws IOException If writing to the output stream fails
+     */
+    public void writeDataset(GenerationRequest request, OutputStream outputStream) throws IOException {
+        writeDataset(request, outputStream, rows -> {});
+    }
+
+    /**
+     * Same as writeDataset(request, outputStream), reporting progress after each chunk of rows is written
+     *
+     * @param request The generation parameters
+     * @param outputStream The stream to write the data to; it is flushed but not closed
+     * @param rowsWrittenListener Called on the writing thread with the number of rows in each written chunk
+     * @throws IOException If writing to the output stream fails
+     */
+    public void writeDataset(GenerationRequest request, OutputStream outputStream, LongConsumer rowsWrittenListener)
+            throws IOException {
+        if (request.isPartitioned()) {
+            // Several files are bundled as a zip archive; each file is compressed on its own
+            ZipPartitionSink zipSink = new ZipPartitionSink(outputStream, zipLevel);
+            writePartitions(request, zipSink, rowsWrittenListener);
+            zipSink.close();
+            return;
+        }
+        if (request.getCompression() == Compression.GZIP && parallelGzip) {
+            ParallelGzipOutputStream gzipStream = new ParallelGzipOutputStream(outputStream, generationPool,
+                    gzipBlockSize, gzipLevel, generationPool.getParallelism() * CSV_CHUNKS_IN_FLIGHT);
+            writeRows(request, gzipStream, rowsWrittenListener);
+            // Write the remaining members but leave the caller's stream open
+            gzipStream.finish();
+            return;
+        }
+        if (request.getCompression() == Compression.GZIP) {
+            GZIPOutputStream gzipStream = new ConfigurableGzipOutputStream(outputStream, gzipBufferSize, gzipLevel);
+            writeRows(request, gzipStream, rowsWrittenListener);
+            // Write the gzip trailer but leave the caller's stream open
+            gzipStream.finish();
+            outputStream.flush();
+            return;
+        }
+        writeRows(request, outputStream, rowsWrittenListener);
+    }
+
+    /**
+     * Writes the dataset for a generation request straight to a local file, without going through the servlet stack
+     *
+     * @param request The generation parameters
+     * @param file The file to create or overwrite
+     * @param sync Whether to force the file to the storage device (fsync) before returning
+     * @throws IOException If writing the file fails
+     */
+    public void writeDataset(GenerationRequest request, Path file, boolean sync) throws IOException {
+        try (OutputStream outputStream = openFile(file, sync)) {
+            writeDataset(request, outputStream);
+        }
+    }
+
+    /**
+     * Writes the files of a partitioned request under a local directory
+     *
+     * @param request The generation parameters
+     * @param directory The directory to write the files to; created if it does not exist
+     * @param sync Whether to force each file to the storage device (fsync) when it is complete
+     * @throws IOException If writing the files fails
+     */
+    public void writePartitions(GenerationRequest request, Path directory, boolean sync) throws IOException {
+        try (PartitionSink sink = new DirectoryPartitionSink(directory, fileBufferPool, sync)) {
+            writePartitions(request, sink, rows -> {});
+        }
+    }
+
+    /**
+     * Opens a file for writing through a FileChannel with pooled direct buffers
+     *
+     * @param file The file to create or overwrite
+     * @param sync Whether closing the stream forces the file to the storage device (fsync)
+     * @return A stream that must be closed to write the remaining bytes and release its buffers
+     * @throws IOException If the file cannot be opened
+     */
+    public OutputStream openFile(Path file, boolean sync) throws IOException {
+        return new FileChannelOutputStream(file, fileBufferPool, fileBuffersPerWrite, sync);
+    }
+
+    private void writeRows(GenerationRequest request, OutputStream outputStream, LongConsumer rowsWrittenListener)
+            throws IOException {
+        FileType fileType = request.getFileTypeOrDefault();
+        if (fileType == FileType.ARROW) {
+            writeArrowBatches(request, outputStream, rowsWrittenListener);
+            return;
+        }
+        if (fileType == FileType.PARQUET) {
+            writeParquetRowGroups(request, outputStream, rowsWrittenListener);
+            return;
+        }
+        outputStream.write(RecordEncoder.header(fileType));
+
+        PostedDateTable postedDates = postedDateTable(request);
+        long seed = resolveSeed(request);
+        PostedDateOrder order = postedDateOrder(request, postedDates, seed);
+        int firstTxnUid = reserveTxnUids(request);
+        int sliceEnd = sliceEnd(request);
+
+        // Generate and encode chunks on the generation pool and write them in order. At most CSV_CHUNKS_IN_FLIGHT
+        // chunks per worker are pending at a time, so memory stays bounded however many records are requested.
+        int maxInFlight = generationPool.getParallelism() * CSV_CHUNKS_IN_FLIGHT;
+        Deque<ForkJoinTask<RecordEncoder>> pending = new ArrayDeque<>();
+        for (int start = sliceStart(request); start < sliceEnd; start += GENERATION_CHUNK_SIZE) {
+            int chunkStart = start;
+            int chunkEnd = Math.min(sliceEnd, start + GENERATION_CHUNK_SIZE);
+            pending.add(generationPool.submit(() -> encodeRows(fileType,
+                    new IndexedRecordGenerator(request, postedDates, order, seed, firstTxnUid)
+                            .generate(chunkStart, chunkEnd))));
+            writeCompletedChunks(pending, maxInFlight, outputStream, rowsWrittenListener);
+        }
+        writeCompletedChunks(pending, 1, outputStream, rowsWrittenListener);
+        outputStream.flush();
+    }
+
+    /**
+     * Writes pending chunks in submission order until fewer than maxPending remain.
+     */
+    private void writeCompletedChunks(Deque<ForkJoinTask<RecordEncoder>> pending, int maxPending,
+                                      OutputStream outputStream, LongConsumer rowsWrittenListener) throws IOException {
+        while (pending.size() >= maxPending) {
+            RecordEncoder chunk = pending.poll().join();
+            chunk.writeTo(outputStream);
+            rowsWrittenListener.accept(chunk.getRowCount());
+        }
+    }
+
+    /**
+     * Writes the slice as an Arrow IPC stream. Each task generates ARROW_BATCH_SIZE records straight into the
+     * columns of one record batch and encodes it, and batches are written in order like CSV chunks.
+     */
+    private void writeArrowBatches(GenerationRequest request, OutputStream outputStream,
+                                   LongConsumer rowsWrittenListener) throws IOException {
+        arrowEncoder.writeStart(outputStream);
+
+        PostedDateTable postedDates = postedDateTable(request);
+        long seed = resolveSeed(request);
+        PostedDateOrder order = postedDateOrder(request, postedDates, seed);
+        int firstTxnUid = reserveTxnUids(request);
+        int sliceEnd = sliceEnd(request);
+        int maxInFlight = generationPool.getParallelism() * ARROW_BATCHES_IN_FLIGHT;
+        Deque<ForkJoinTask<ArrowStreamEncoder.Batch>> pending = new ArrayDeque<>();
+        for (int start = sliceStart(request); start < sliceEnd; start += ARROW_BATCH_SIZE) {
+            int batchStart = start;
+            int batchEnd = Math.min(sliceEnd, start + ARROW_BATCH_SIZE);
+            pending.add(generationPool.submit(() -> {
+                TransactionBatch rows = new IndexedRecordGenerator(request, postedDates, order, seed, firstTxnUid)
+                        .generate(batchStart, batchEnd);
+                return arrowEncoder.newBatch(rows.getSize()).add(rows).encode();
+            }));
+            writeCompletedBatches(pending, maxInFlight, outputStream, rowsWrittenListener);
+        }
+        writeCompletedBatches(pending, 1, outputStream, rowsWrittenListener);
+
+        arrowEncoder.writeEnd(outputStream);
+        outputStream.flush();
+    }
+
+    /**
+     * Writes pending Arrow batches in submission order until fewer than maxPending remain.
+     */
+    private void writeCompletedBatches(Deque<ForkJoinTask<ArrowStreamEncoder.Batch>> pending, int maxPending,
+                                       OutputStream outputStream, LongConsumer rowsWrittenListener)
+            throws IOException {
+        while (pending.size() >= maxPending) {
+            ArrowStreamEncoder.Batch batch = pending.poll().join();
+            batch.writeTo(outputStream);
+            rowsWrittenListener.accept(batch.getRowCount());
+        }
+    }
+
+    /**
+     * Writes the slice as a Parquet file of row groups of parquetRowGroupRows rows. Each task generates
+     * PARQUET_PAGE_ROWS records straight into the columns of one batch and encodes a data page per column; the
+     * pages of a row group are kept until the row group is complete, since Parquet stores each column's pages
+     * together.
+     */
+    private void writeParquetRowGroups(GenerationRequest request, OutputStream outputStream,
+                                       LongConsumer rowsWrittenListener) throws IOException {
+        ParquetFileEncoder.Writer writer = parquetEncoder.newWriter(outputStream, parquetRowGroupRows);
+
+        PostedDateTable postedDates = postedDateTable(request);
+        long seed = resolveSeed(request);
+        PostedDateOrder order = postedDateOrder(request, postedDates, seed);
+        int firstTxnUid = reserveTxnUids(request);
+        int sliceStart = sliceStart(request);
+        int sliceEnd = sliceEnd(request);
+        int maxInFlight = generationPool.getParallelism() * PARQUET_BATCHES_IN_FLIGHT;
+        Deque<ForkJoinTask<ParquetFileEncoder.Batch>> pending = new ArrayDeque<>();
+        for (int rowGroupStart = sliceStart; rowGroupStart < sliceEnd; rowGroupStart += parquetRowGroupRows) {
+            // Pages never straddle row groups, so every row group has exactly parquetRowGroupRows rows but the last
+            int rowGroupEnd = (int) Math.min(sliceEnd, (long) rowGroupStart + parquetRowGroupRows);
+            for (int start = rowGroupStart; start < rowGroupEnd; start += PARQUET_PAGE_ROWS) {
+                int batchStart = start;
+                int batchEnd = Math.min(rowGroupEnd, start + PARQUET_PAGE_ROWS);
+                pending.add(generationPool.submit(() -> {
+                    TransactionBatch rows = new IndexedRecordGenerator(request, postedDates, order, seed, firstTxnUid)
+                            .generate(batchStart, batchEnd);
+                    return parquetEncoder.newBatch(rows.getSize()).add(rows).encode();
+                }));
+                while (pending.size() >= maxInFlight) {
+                    rowsWrittenListener.accept(writer.write(pending.poll().join()));
+                }
+            }
+        }
+        while (!pending.isEmpty()) {
+            rowsWrittenListener.accept(writer.write(pending.poll().join()));
+        }
+        rowsWrittenListener.accept(writer.finish());
+        outputStream.flush();
+    }
+
+    /**
+     * Writes a partitioned request as several files in a sink: one directory per posted month when
+     * partitioning by month, each split into part files by the request's row and byte limits. Chunks are generated
+     * and split by partition on the generation pool; each partition has its own writer, and when the sink accepts
+     * concurrent files the partitions of a chunk are written in parallel. A sink that takes one file at a time gets
+     * one generation pass per partition instead, which keeps memory bounded at the cost of regenerating the data.
+     * File contents do not depend on the sink or the number of workers. A _manifest.json listing the files with
+     * their row counts and sizes, and the seed of a seeded request, is written last; readers such as Spark skip files
+     * starting with an underscore.
+     *
+     * @param request The generation parameters
+     * @param sink The sink to create the files in; it is not closed
+     * @param rowsWrittenListener Called on the writing thread with the number of rows in each written chunk
+     * @throws IOException If writing to the sink fails
+     */
+    public void writePartitions(GenerationRequest request, PartitionSink sink, LongConsumer rowsWrittenListener)
+            throws IOException {
+        boolean byMonth = request.getPartitionBy() == PartitionBy.MONTH;
+        int partitionCount = byMonth ? 12 : 1;
+        // Posted dates always fall in the requested year, or the current year if none is given
+        PostedDateTable postedDates = postedDateTable(request);
+        int year = postedDates.getYear();
+
+        RollingPartitionWriter[] writers = new RollingPartitionWriter[partitionCount];
+        for (int partition = 0; partition < partitionCount; partition++) {
+            String directory = byMonth ? String.format("year=%d/month=%02d/", year, partition + 1) : "";
+            writers[partition] = new RollingPartitionWriter(sink, directory, request.getFileTypeOrDefault(),
+                    request.getCompression(), gzipBufferSize,
+                    gzipLevel,
+                    request.getMaxRowsPerFile() != null ? request.getMaxRowsPerFile() : Long.MAX_VALUE,
+                    request.getMaxBytesPerFile() != null ? request.getMaxBytesPerFile() : Long.MAX_VALUE);
+        }
+
+        // Every pass must see the same records, so the dates, seed and txnUids are fixed once
+        long seed = resolveSeed(request);
+        PostedDateOrder order = postedDateOrder(request, postedDates, seed);
+        int firstTxnUid = reserveTxnUids(request);
+        try {
+            if (sink.supportsConcurrentFiles()) {
+                writePartitionPass(request, postedDates, order, seed, firstTxnUid, writers, 0, partitionCount, true,
+                        rowsWrittenListener);
+            } else {
+                for (int partition = 0; partition < partitionCount; partition++) {
+                    writePartitionPass(request, postedDates, order, seed, firstTxnUid, writers, partition,
+                            partition + 1, false, rowsWrittenListener);
+                    writers[partition].close();
+                }
+            }
+        } finally {
+            for (RollingPartitionWriter writer : writers) {
+                writer.close();
+            }
+        }
+
+        // Describe the files last, once their row counts and sizes are known
+        List<ManifestFile> files = new ArrayList<>();
+        long totalRows = 0;
+        for (RollingPartitionWriter writer : writers) {
+            for (ManifestFile file : writer.getFiles()) {
+                files.add(file);
+                totalRows += file.getRows();
+            }
+        }
+        OutputManifest manifest = OutputManifest.builder()
+                .seed(request.getSeed())
+                .totalRows(totalRows)
+                .fileType(request.getFileTypeOrDefault())
+                .compression(request.getCompression() != null ? request.getCompression() : Compression.NONE)
+                .partitionBy(byMonth ? PartitionBy.MONTH : PartitionBy.NONE)
+                .files(files)
+                .build();
+        sink.writeFile(MANIFEST_FILE_NAME, new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsBytes(manifest));
+    }
+
+    /**
+     * Generates the whole slice once and writes the rows of partitions [fromPartition, toPartition)
+     */
+    private void writePartitionPass(GenerationRequest request, PostedDateTable postedDates, PostedDateOrder order,
+                                    long seed, int firstTxnUid, RollingPartitionWriter[] writers, int fromPartition, int toPartition, boolean parallelWrites,
+                                    LongConsumer rowsWrittenListener) throws IOException {
+        boolean byMonth = writers.length > 1;
+        int sliceEnd = sliceEnd(request);
+        int maxInFlight = generationPool.getParallelism() * CSV_CHUNKS_IN_FLIGHT;
+        FileType fileType = request.getFileTypeOrDefault();
+        Deque<ForkJoinTask<RecordEncoder[]>> pending = new ArrayDeque<>();
+        for (int start = sliceStart(request); start < sliceEnd; start += GENERATION_CHUNK_SIZE) {
+            int chunkStart = start;
+            int chunkEnd = Math.min(sliceEnd, start + GENERATION_CHUNK_SIZE);
+            pending.add(generationPool.submit(() -> encodePartitionedRows(fileType,
+                    new IndexedRecordGenerator(request, postedDates, order, seed, firstTxnUid)
+                            .generate(chunkStart, chunkEnd),
+                    writers.length, fromPartition, toPartition, byMonth, postedDates)));
+            writeCompletedPartitionedChunks(pending, maxInFlight, writers, parallelWrites, rowsWrittenListener);
+        }
+        writeCompletedPartitionedChunks(pending, 1, writers, parallelWrites, rowsWrittenListener);
+    }
+
+    /**
+     * Writes pending partitioned chunks in submission order until fewer than maxPending remain.
+     */
+    private void writeCompletedPartitionedChunks(Deque<ForkJoinTask<RecordEncoder[]>> pending, int maxPending,
+                                                 RollingPartitionWriter[] writers, boolean parallelWrites,
+                                                 LongConsumer rowsWrittenListener) throws IOException {
+        while (pending.size() >= maxPending) {
+            RecordEncoder[] chunk = pending.poll().join();
+            writePartitionedChunk(chunk, writers, parallelWrites);
+            long rows = 0;
+            for (RecordEncoder encoder : chunk) {
+                rows += encoder != null ? encoder.getRowCount() : 0;
+            }
+            rowsWrittenListener.accept(rows);
+        }
+    }
+
+    /**
+     * Hands each partition's rows of a chunk to its writer, in parallel on the generation pool if allowed
+     */
+    private void writePartitionedChunk(RecordEncoder[] chunk, RollingPartitionWriter[] writers, boolean parallelWrites)
+            throws IOException {
+        List<ForkJoinTask<Void>> writes = new ArrayList<>();
+        for (int partition = 0; partition < chunk.length; partition++) {
+            RecordEncoder rows = chunk[partition];
+            if (rows == null) {
+                continue;
+            }
+            RollingPartitionWriter writer = writers[partition];
+            if (parallelWrites) {
+                writes.add(generationPool.submit(() -> {
+                    writer.write(rows);
+                    return null;
+                }));
+            } else {
+                writer.write(rows);
+            }
         }
+
+        IOException failure = null;
+        for (ForkJoinTask<Void> write : writes) {
+            try {
+                write.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while writing partitions", e);
+            } catch (ExecutionException e) {
+                // Wait for the other writes before failing, so no writer is still running afterwards
+                if (failure == null) {
+                    failure = e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Encodes the rows of a chunk into one encoder per partition; partitions outside
+     * [fromPartition, toPartition) and partitions without rows are left null
+     */
+    private RecordEncoder[] encodePartitionedRows(FileType fileType, TransactionBatch batch,
+                                                  int partitionCount, int fromPartition, int toPartition,
+                                                  boolean byMonth, PostedDateTable postedDates) {
+        RecordEncoder[] encoders = new RecordEncoder[partitionCount];
+        int expectedRowsPerPartition = batch.getSize() / partitionCount + 1;
+        int[] postedEpochDays = batch.getPostedEpochDay();
+        for (int row = 0; row < batch.getSize(); row++) {
+            int partition = byMonth ? postedDates.date(postedEpochDays[row]).getMonthValue() - 1 : 0;
+            if (partition < fromPartition || partition >= toPartition) {
+                continue;
+            }
+            if (encoders[partition] == null) {
+                encoders[partition] = newEncoder(fileType, expectedRowsPerPartition * rowBytesEstimate(fileType));
+            }
+            encoders[partition].encode(batch, row);
+        }
+        return encoders;
+    }
+
+    private RecordEncoder encodeRows(FileType fileType, TransactionBatch batch) {
+        return newEncoder(fileType, batch.getSize() * rowBytesEstimate(fileType)).encode(batch);
+    }
+
+    private RecordEncoder newEncoder(FileType fileType, int initialCapacity) {
+        return RecordEncoder.create(fileType, initialCapacity, categoryService.getEncodedValues(fileType));
+    }
+
+    private static int rowBytesEstimate(FileType fileType) {
+        return fileType == FileType.JSONL ? JSONL_ROW_BYTES_ESTIMATE : CSV_ROW_BYTES_ESTIMATE;
     }
 }
@@ -0,0 +1,244 @@
+package com.datasampler.datagenerator.service;
+
+import com.datasampler.datagenerator.model.Compression;
+import com.datasampler.datagenerator.model.GenerationRequest;
+import com.datasampler.datagenerator.model.JobState;
+import com.datasampler.datagenerator.model.JobStatus;
+import com.datasampler.datagenerator.output.CountingOutputStream;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs generation requests in the background and writes each result to a file in the jobs directory.
+ * A bounded number of jobs run at a time and a bounded number wait in the queue; further submissions are rejected,
+ * so a burst of jobs cannot exhaust threads. Finished jobs and their result files are deleted once they are older
+ * than the retention period; expired jobs are swept whenever a job is submitted or looked up.
+ */
+@Service
+public class GenerationJobService {
+
+    @Autowired
+    private DataGeneratorService dataGeneratorService;
+
+    // Number of jobs generating at the same time; each job still uses all generation workers
+    @Value("${datagenerator.jobs.max-concurrent:2}")
+    private int maxConcurrentJobs;
+
+    // Number of jobs that may wait for a free slot before submissions are rejected
+    @Value("${datagenerator.jobs.queue-capacity:16}")
+    private int queueCapacity;
+
+    // Directory the result files are written to
+    @Value("${datagenerator.jobs.directory:${java.io.tmpdir}/data-generator-jobs}")
+    private String jobsDirectory;
+
+    // Whether a job forces its file to the storage device (fsync) before it is marked COMPLETED
+    @Value("${datagenerator.jobs.fsync:false}")
+    private boolean fsync;
+
+    // Minutes a finished job and its result file are kept before both are deleted
+    @Value("${datagenerator.jobs.retention-minutes:60}")
+    private long retentionMinutes;
+
+    private final Map<String, GenerationJob> jobs = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor jobExecutor;
+    private Path directory;
+
+    @PostConstruct
+    public void init() throws IOException {
+        directory = Files.createDirectories(Paths.get(jobsDirectory));
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        jobExecutor = new ThreadPoolExecutor(maxConcurrentJobs, maxConcurrentJobs, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "generation-job-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+    }
+
+    /**
+     * Queues a generation job
+     *
+     * @param request The generation parameters
+     * @return The status of the new job
+     * @throws RejectedExecutionException If the job queue is full
+     */
+    public JobStatus submit(GenerationRequest request) {
+        removeExpiredJobs(Instant.now());
+        String jobId = UUID.randomUUID().toString();
+        GenerationJob job = new GenerationJob(jobId, request, dataGeneratorService.countRecords(request));
+        jobs.put(jobId, job);
+        try {
+            jobExecutor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(jobId);
+            throw e;
+        }
+        return job.toStatus();
+    }
+
+    /**
+     * Returns a snapshot of a job's progress
+     *
+     * @param jobId The job id returned by submit
+     * @return The job status, or null if no job has this id
+     */
+    public JobStatus getStatus(String jobId) {
+        removeExpiredJobs(Instant.now());
+        GenerationJob job = jobs.get(jobId);
+        return job == null ? null : job.toStatus();
+    }
+
+    /**
+     * Returns the file a job writes its result to; the file is complete only once the job is COMPLETED
+     *
+     * @param jobId The job id returned by submit
+     * @return Path of the result file
+     */
+    public Path getResultFile(String jobId) {
+        removeExpiredJobs(Instant.now());
+        GenerationJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new IllegalArgumentException("Unknown job " + jobId);
+        }
+        return resultFile(job);
+    }
+
+    private void run(GenerationJob job) {
+        job.startedAt = Instant.now();
+        job.state = JobState.RUNNING;
+
+        // Write to a temporary name first, so a result file is never seen half written
+        Path resultFile = resultFile(job);
+        Path partFile = resultFile.resolveSibling(resultFile.getFileName() + ".part");
+        try {
+            try (OutputStream out = new CountingOutputStream(
+                    dataGeneratorService.openFile(partFile, fsync), job.bytesWritten)) {
+                dataGeneratorService.writeDataset(job.request, out, job.rowsWritten::addAndGet);
+            }
+            Files.move(partFile, resultFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.completedAt = Instant.now();
+            job.state = JobState.COMPLETED;
+        } catch (Throwable e) {
+            // Errors such as OutOfMemoryError fail the job too, so it is never left RUNNING with its partial file
+            job.error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            job.completedAt = Instant.now();
+            job.state = JobState.FAILED;
+            try {
+                Files.deleteIfExists(partFile);
+            } catch (IOException ignored) {
+                // Leave the partial file behind; it is never served
+            }
+            if (e instanceof Error error) {
+                throw error;
+            }
+        }
+    }
+
+    /**
+     * Deletes the jobs that finished more than the retention period before now, together with their result files
+     *
+     * @param now The current time
+     */
+    void removeExpiredJobs(Instant now) {
+        Instant finishedBefore = now.minus(Duration.ofMinutes(retentionMinutes));
+        for (GenerationJob job : jobs.values()) {
+            Instant completed = job.completedAt;
+            if (completed == null || !completed.isBefore(finishedBefore) || !jobs.remove(job.id, job)) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(resultFile(job));
+            } catch (IOException ignored) {
+                // The job is gone either way; the file is never served again
+            }
+        }
+    }
+
+    private Path resultFile(GenerationJob job) {
+        return directory.resolve(job.id + job.request.getFileExtension());
+    }
+
+    private static Compression compressionOf(GenerationRequest request) {
+        return request.getCompression() != null ? request.getCompression() : Compression.NONE;
+    }
+
+    /**
+     * Mutable state of one job. Fields are written by the job thread and read by status requests.
+     */
+    private static final class GenerationJob {
+        private final String id;
+        private final GenerationRequest request;
+        private final long totalRows;
+        private final Instant submittedAt = Instant.now();
+        private final AtomicLong rowsWritten = new AtomicLong();
+        private final AtomicLong bytesWritten = new AtomicLong();
+        private volatile JobState state = JobState.QUEUED;
+        private volatile Instant startedAt;
+        private volatile Instant completedAt;
+        private volatile String error;
+
+        private GenerationJob(String id, GenerationRequest request, long totalRows) {
+            this.id = id;
+            this.request = request;
+            this.totalRows = totalRows;
+        }
+
+        private JobStatus toStatus() {
+            // Read state first: once it is COMPLETED or FAILED, the other fields are final
+            JobState currentState = state;
+            long rows = rowsWritten.get();
+            Instant start = startedAt;
+            Instant end = completedAt != null ? completedAt : Instant.now();
+
+            double rowsPerSecond = 0;
+            if (start != null) {
+                double seconds = Duration.between(start, end).toNanos() / 1e9;
+                rowsPerSecond = seconds > 0 ? rows / seconds : 0;
+            }
+
+            return JobStatus.builder()
+                    .jobId(id)
+                    .state(currentState)
+                    .compression(compressionOf(request))
+                    .fileExtension(request.getFileExtension())
+                    .totalRows(totalRows)
+                    .rowsWritten(rows)
+                    .bytesWritten(bytesWritten.get())
+                    .rowsPerSecond(rowsPerSecond)
+                    .submittedAt(submittedAt)
+                    .startedAt(start)
+                    .completedAt(completedAt)
+                    .error(error)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.datasampler.datagenerator.util;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Walker/Vose alias table for sampling indexes from a fixed discrete distribution. Building the table is O(n);
+ * each draw costs one random double and at most two array reads, no matter how skewed the weights are.
+ * Immutable and safe to share between threads.
+ */
+public final class AliasTable {
+
+    // Column i keeps index i with probability[i] and otherwise redirects to alias[i]
+    private final double[] probability;
+    private final int[] alias;
+
+    /**
+     * Builds a table from relative weights
+     *
+     * @param weights Non-negative, finite weights; at least one must be positive
+     */
+    public AliasTable(double[] weights) {
+        int n = weights.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("At least one weight is required");
+        }
+
+        double total = 0;
+        for (double weight : weights) {
+            if (!(weight >= 0) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException("Weights must be non-negative and finite, got " + weight);
+            }
+            total += weight;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("At least one weight must be positive");
+        }
+
+        probability = new double[n];
+        alias = new int[n];
+
+        // Scale weights so the average column holds exactly 1.0, then split columns into under- and overfull
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        // Top up each underfull column with mass from an overfull one
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+
+            probability[less] = scaled[less];
+            alias[less] = more;
+
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+
+        // Whatever is left is full up to rounding error
+        while (largeCount > 0) {
+            int i = large[--largeCount];
+            probability[i] = 1.0;
+            alias[i] = i;
+        }
+        while (smallCount > 0) {
+            int i = small[--smallCount];
+            probability[i] = 1.0;
+            alias[i] = i;
+        }
+    }
+
+    /**
+     * Draws an index with probability proportional to its weight
+     *
+     * @param random Random source to draw from
+     * @return Index in [0, size())
+     */
+    public int sample(RandomGenerator random) {
+        // One double picks both the column (integer part) and the coin flip within it (fractional part)
+        double u = random.nextDouble() * probability.length;
+        int column = (int) u;
+        return u - column < probability[column] ? column : alias[column];
+    }
+
+    public int size() {
+        return probability.length;
+    }
+}
@@ -0,0 +1,41 @@
+package com.datasampler.datagenerator.util;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Counter-based random generator. The stream positioned with reset(seed, index) is a pure function of
+ * the seed and the index, so the draws for any record of a dataset can be reproduced without drawing
+ * the ones for the records before it. The output function is SplitMix64, the mixer of SplittableRandom.
+ * Instances are mutable and not thread-safe; each worker keeps its own.
+ */
+public final class CounterRandom implements RandomGenerator {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long state;
+
+    /**
+     * Positions this generator at the start of the stream for the given seed and index
+     *
+     * @param seed The dataset seed
+     * @param index The index of the record within the dataset
+     * @return This generator
+     */
+    public CounterRandom reset(long seed, long index) {
+        // Mixing the index before combining it with the seed keeps the streams of neighbouring indexes apart
+        state = mix64(seed ^ mix64((index + 1) * GOLDEN_GAMMA));
+        return this;
+    }
+
+    @Override
+    public long nextLong() {
+        state += GOLDEN_GAMMA;
+        return mix64(state);
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
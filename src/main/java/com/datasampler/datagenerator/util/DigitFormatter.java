@@ -0,0 +1,47 @@
+package com.datasampler.datagenerator.util;
+
+/**
+ * Renders non-negative numbers as fixed-width, zero-padded digit runs. Appending goes straight into the
+ * target builder, so packed identifiers can be written out without creating intermediate Strings.
+ */
+public final class DigitFormatter {
+
+    private DigitFormatter() {
+    }
+
+    /**
+     * Appends a value left-padded with zeros to the given width
+     *
+     * @param sb The builder to append to
+     * @param value Non-negative value to render
+     * @param width Minimum number of digits
+     */
+    public static void appendZeroPadded(StringBuilder sb, long value, int width) {
+        for (int digits = digitCount(value); digits < width; digits++) {
+            sb.append('0');
+        }
+        sb.append(value);
+    }
+
+    /**
+     * Renders a value left-padded with zeros to the given width
+     *
+     * @param value Non-negative value to render
+     * @param width Minimum number of digits
+     * @return The padded digits
+     */
+    public static String zeroPadded(long value, int width) {
+        StringBuilder sb = new StringBuilder(Math.max(width, 19));
+        appendZeroPadded(sb, value, width);
+        return sb.toString();
+    }
+
+    public static int digitCount(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+}
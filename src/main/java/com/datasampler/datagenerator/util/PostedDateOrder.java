@@ -0,0 +1,87 @@
+package com.datasampler.datagenerator.util;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Lays the rows of a dataset out in posted date order without sorting them. The number of rows of every day is
+ * drawn once, so the day of any row position follows from the cumulative counts and rows can be generated one
+ * day after another, from any position. Positions are mapped to record indexes by a fixed stride coprime with
+ * the row count, which visits every index once and spreads unique and related records evenly over the days.
+ * Immutable and safe to share between threads.
+ */
+public final class PostedDateOrder {
+
+    private static final double GOLDEN_RATIO_FRACTION = 0.6180339887498949;
+
+    private final int firstEpochDay;
+    private final int rowCount;
+    private final int[] dayStarts; // Position of the first row of each day, by offset from January 1st
+    private final long stride;
+
+    /**
+     * Draws the rows of each day of a table
+     *
+     * @param postedDates The days to spread the rows over
+     * @param rowCount Number of rows in the dataset
+     * @param random Random source for the rows per day; the same draws give the same layout
+     */
+    public PostedDateOrder(PostedDateTable postedDates, int rowCount, RandomGenerator random) {
+        this.firstEpochDay = postedDates.getFirstEpochDay();
+        this.rowCount = rowCount;
+        int[] rowsPerDay = postedDates.drawRowsPerDay(rowCount, random);
+        dayStarts = new int[rowsPerDay.length];
+        for (int offset = 1; offset < rowsPerDay.length; offset++) {
+            dayStarts[offset] = dayStarts[offset - 1] + rowsPerDay[offset - 1];
+        }
+
+        // A stride near the golden ratio of the row count gives the most even spread of consecutive indexes
+        long candidate = Math.max(1, Math.round(rowCount * GOLDEN_RATIO_FRACTION));
+        while (gcd(candidate, rowCount) > 1) {
+            candidate++;
+        }
+        stride = candidate;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the index of the record generated at a position of the ordered output
+     *
+     * @param position Position of the row, in [0, getRowCount())
+     */
+    public int recordIndex(int position) {
+        return (int) (position * stride % rowCount);
+    }
+
+    /**
+     * Returns the posted date of the row at a position of the ordered output
+     *
+     * @param position Position of the row, in [0, getRowCount())
+     * @return The day as days since 1970-01-01
+     */
+    public int epochDay(int position) {
+        int offset = Arrays.binarySearch(dayStarts, position);
+        if (offset < 0) {
+            // Not the first row of a day: it belongs to the day starting before it
+            offset = -offset - 2;
+        } else {
+            // Days without rows share their start with the next day; the row belongs to the last of them
+            while (offset + 1 < dayStarts.length && dayStarts[offset + 1] == position) {
+                offset++;
+            }
+        }
+        return firstEpochDay + offset;
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
@@ -0,0 +1,221 @@
+package com.datasampler.datagenerator.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.random.RandomGenerator;
+
+/**
+ * The days of one year that posted dates are drawn from, resolved once per request. Days are drawn uniformly, with
+ * a single bounded int added to January 1st, or following a seasonality profile, with one draw from an alias table
+ * over the days. The dates of the year and their yyyy-MM-dd renderings are cached, so sampling, looking up a
+ * day's month and writing a date need no calendar arithmetic. Immutable and safe to share between threads.
+ */
+public final class PostedDateTable {
+
+    // Length of a yyyy-MM-dd date
+    public static final int ISO_DATE_LENGTH = 10;
+
+    private final int year;
+    private final int firstEpochDay; // January 1st of the year, as days since 1970-01-01
+    private final int dayCount; // Number of days that can be drawn, starting from January 1st
+    private final LocalDate[] dates; // Every day of the year, by offset from January 1st
+    // yyyy-MM-dd of every day of the year as ASCII, ISO_DATE_LENGTH bytes per day; null outside years 0 to 9999,
+    // which ISO formatting renders with a sign
+    private final byte[] isoDates;
+    private final double[] dayWeights; // Seasonality weight of each day that can be drawn, or null for uniform
+    private final AliasTable dayTable; // Offsets of the days weighted by dayWeights, or null for uniform
+
+    private PostedDateTable(int year, int dayCount, SeasonalityProfile profile) {
+        LocalDate first = LocalDate.of(year, 1, 1);
+        this.year = year;
+        this.firstEpochDay = (int) first.toEpochDay();
+        this.dayCount = dayCount;
+        this.dates = new LocalDate[first.lengthOfYear()];
+        for (int offset = 0; offset < dates.length; offset++) {
+            dates[offset] = first.plusDays(offset);
+        }
+        if (year >= 0 && year <= 9999) {
+            isoDates = new byte[dates.length * ISO_DATE_LENGTH];
+            for (int offset = 0; offset < dates.length; offset++) {
+                byte[] isoDate = dates[offset].toString().getBytes(StandardCharsets.US_ASCII);
+                System.arraycopy(isoDate, 0, isoDates, offset * ISO_DATE_LENGTH, ISO_DATE_LENGTH);
+            }
+        } else {
+            isoDates = null;
+        }
+        if (profile == null) {
+            dayWeights = null;
+            dayTable = null;
+        } else {
+            dayWeights = new double[dayCount];
+            for (int offset = 0; offset < dayCount; offset++) {
+                dayWeights[offset] = profile.weight(dates[offset]);
+            }
+            dayTable = new AliasTable(dayWeights);
+        }
+    }
+
+    /**
+     * Builds the table for a requested year. The current year only runs up to yesterday, or is just January 1st
+     * on January 1st; any other year covers all of its days.
+     *
+     * @param year The requested year, or null for the current year
+     * @param today The date requests are generated on
+     * @return The table of the year
+     */
+    public static PostedDateTable forYear(Integer year, LocalDate today) {
+        return forYear(year, today, null);
+    }
+
+    /**
+     * Builds the table for a requested year, with days weighted by a seasonality profile
+     *
+     * @param year The requested year, or null for the current year
+     * @param today The date requests are generated on
+     * @param profile Relative volume of the days, or null to draw them uniformly
+     * @return The table of the year
+     */
+    public static PostedDateTable forYear(Integer year, LocalDate today, SeasonalityProfile profile) {
+        int useYear = year != null ? year : today.getYear();
+        if (useYear == today.getYear()) {
+            return new PostedDateTable(useYear, Math.max(1, today.getDayOfYear() - 1), profile);
+        }
+        return new PostedDateTable(useYear, LocalDate.of(useYear, 1, 1).lengthOfYear(), profile);
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public int getFirstEpochDay() {
+        return firstEpochDay;
+    }
+
+    public int getDayCount() {
+        return dayCount;
+    }
+
+    /**
+     * Draws a day from the days of the table, uniformly or following the seasonality profile
+     *
+     * @param random Random source to draw from
+     * @return The day as days since 1970-01-01
+     */
+    public int nextEpochDay(RandomGenerator random) {
+        return firstEpochDay + (dayTable != null ? dayTable.sample(random) : random.nextInt(dayCount));
+    }
+
+    /**
+     * Draws how many of a number of rows fall on each day: a multinomial with the probabilities nextEpochDay
+     * draws days with. Each day's count is a binomial draw from the rows left for the days after it.
+     *
+     * @param rowCount Number of rows to spread over the days
+     * @param random Random source to draw from
+     * @return Rows per day, by offset from January 1st, summing to rowCount
+     */
+    public int[] drawRowsPerDay(int rowCount, RandomGenerator random) {
+        int[] rowsPerDay = new int[dayCount];
+        double remainingWeight = dayWeights != null ? 0 : dayCount;
+        if (dayWeights != null) {
+            for (double weight : dayWeights) {
+                remainingWeight += weight;
+            }
+        }
+        int remainingRows = rowCount;
+        for (int offset = 0; offset < dayCount - 1 && remainingRows > 0; offset++) {
+            double weight = dayWeights != null ? dayWeights[offset] : 1;
+            rowsPerDay[offset] = nextBinomial(random, remainingRows, weight / remainingWeight);
+            remainingRows -= rowsPerDay[offset];
+            remainingWeight -= weight;
+        }
+        rowsPerDay[dayCount - 1] += remainingRows;
+        return rowsPerDay;
+    }
+
+    /**
+     * Draws the number of successes in n trials of probability p. Small means are drawn exactly by inverting the
+     * distribution; large ones from the normal approximation, which is within a fraction of a row of the exact
+     * distribution there and costs one draw.
+     */
+    private static int nextBinomial(RandomGenerator random, int n, double p) {
+        if (p <= 0) {
+            return 0;
+        }
+        if (p >= 1) {
+            return n;
+        }
+        // Draw the rarer outcome, so the mean below is at most n / 2
+        boolean flip = p > 0.5;
+        double q = flip ? 1 - p : p;
+        double mean = n * q;
+        int k;
+        if (mean < 30) {
+            // Walk the probability mass function from 0 until it covers a uniform draw
+            double odds = q / (1 - q);
+            double probability = Math.exp(n * Math.log1p(-q));
+            double u = random.nextDouble();
+            k = 0;
+            while (u > probability && k < n) {
+                u -= probability;
+                k++;
+                probability *= odds * (n - k + 1) / k;
+            }
+        } else {
+            double draw = Math.rint(mean + Math.sqrt(mean * (1 - q)) * random.nextGaussian());
+            k = (int) Math.max(0, Math.min(n, draw));
+        }
+        return flip ? n - k : k;
+    }
+
+    /**
+     * Returns the cached date of a day of the year
+     *
+     * @param epochDay The day as days since 1970-01-01; it must fall in the year of the table
+     */
+    public LocalDate date(int epochDay) {
+        return dates[epochDay - firstEpochDay];
+    }
+
+    /**
+     * Returns whether a day falls in the year of the table
+     *
+     * @param epochDay The day as days since 1970-01-01
+     */
+    public boolean containsDay(int epochDay) {
+        return epochDay >= firstEpochDay && epochDay - firstEpochDay < dates.length;
+    }
+
+    /**
+     * Returns whether the table has the cached yyyy-MM-dd rendering of a day
+     *
+     * @param epochDay The day as days since 1970-01-01
+     */
+    public boolean hasIsoDate(int epochDay) {
+        return isoDates != null && containsDay(epochDay);
+    }
+
+    /**
+     * Copies the cached yyyy-MM-dd rendering of a day into an array
+     *
+     * @param epochDay The day as days since 1970-01-01; hasIsoDate must be true for it
+     * @param destination The array to copy to
+     * @param position Where the ISO_DATE_LENGTH bytes start in the array
+     */
+    public void copyIsoDate(int epochDay, byte[] destination, int position) {
+        int start = (epochDay - firstEpochDay) * ISO_DATE_LENGTH;
+        System.arraycopy(isoDates, start, destination, position, ISO_DATE_LENGTH);
+    }
+
+    /**
+     * Appends the cached yyyy-MM-dd rendering of a day
+     *
+     * @param sb The builder to append to
+     * @param epochDay The day as days since 1970-01-01; hasIsoDate must be true for it
+     */
+    public void appendIsoDate(StringBuilder sb, int epochDay) {
+        int start = (epochDay - firstEpochDay) * ISO_DATE_LENGTH;
+        for (int i = start; i < start + ISO_DATE_LENGTH; i++) {
+            sb.append((char) isoDates[i]);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.datasampler.datagenerator.util;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Relative volume of transactions by day of the year. A day's weight is the weight of its month times the weight of
+ * its day of the week, times its holiday weight if it is one of the listed holidays. Weights are relative, so only
+ * their ratios matter. Immutable and safe to share between threads.
+ */
+public final class SeasonalityProfile {
+
+    private final double[] monthWeights; // January to December
+    private final double[] dayOfWeekWeights; // Monday to Sunday
+    private final Map<MonthDay, Double> holidayWeights;
+
+    /**
+     * Creates a profile from its weights
+     *
+     * @param monthWeights 12 weights, January to December
+     * @param dayOfWeekWeights 7 weights, Monday to Sunday
+     * @param holidayWeights Multipliers of the days that get more or less volume than their month and weekday imply
+     * @throws IllegalArgumentException If a list has the wrong length or a weight is not positive and finite
+     */
+    public SeasonalityProfile(double[] monthWeights, double[] dayOfWeekWeights, Map<MonthDay, Double> holidayWeights) {
+        if (monthWeights.length != 12) {
+            throw new IllegalArgumentException("12 month weights are required, got " + monthWeights.length);
+        }
+        if (dayOfWeekWeights.length != 7) {
+            throw new IllegalArgumentException("7 day of week weights are required, got " + dayOfWeekWeights.length);
+        }
+        // Positive weights keep every day drawable, so any range of days has a valid distribution
+        for (double weight : monthWeights) {
+            checkWeight(weight);
+        }
+        for (double weight : dayOfWeekWeights) {
+            checkWeight(weight);
+        }
+        for (double weight : holidayWeights.values()) {
+            checkWeight(weight);
+        }
+        this.monthWeights = monthWeights.clone();
+        this.dayOfWeekWeights = dayOfWeekWeights.clone();
+        this.holidayWeights = Map.copyOf(holidayWeights);
+    }
+
+    /**
+     * Parses a profile from its configuration strings
+     *
+     * @param monthWeights Comma-separated weights, January to December, e.g. "1,1,1,1,1,1,1,1,1,1,1.2,1.5"
+     * @param dayOfWeekWeights Comma-separated weights, Monday to Sunday
+     * @param holidayWeights Comma-separated MM-DD:weight pairs, e.g. "12-24:1.8,12-25:0.4"; may be empty
+     * @return The profile
+     * @throws IllegalArgumentException If a value cannot be parsed or is out of range
+     */
+    public static SeasonalityProfile parse(String monthWeights, String dayOfWeekWeights, String holidayWeights) {
+        Map<MonthDay, Double> holidays = new HashMap<>();
+        for (String entry : holidayWeights.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Holiday weights must be MM-DD:weight, got " + entry.trim());
+            }
+            try {
+                holidays.put(MonthDay.parse("--" + parts[0].trim()), Double.parseDouble(parts[1].trim()));
+            } catch (DateTimeException e) {
+                throw new IllegalArgumentException("Holiday weights must be MM-DD:weight, got " + entry.trim());
+            }
+        }
+        return new SeasonalityProfile(parseWeights(monthWeights), parseWeights(dayOfWeekWeights), holidays);
+    }
+
+    /**
+     * Returns the relative volume of a day
+     *
+     * @param date The day
+     * @return A positive weight
+     */
+    public double weight(LocalDate date) {
+        double weight = monthWeights[date.getMonthValue() - 1] * dayOfWeekWeights[date.getDayOfWeek().getValue() - 1];
+        Double holidayWeight = holidayWeights.get(MonthDay.from(date));
+        return holidayWeight != null ? weight * holidayWeight : weight;
+    }
+
+    private static double[] parseWeights(String weights) {
+        return Arrays.stream(weights.split(",")).map(String::trim).mapToDouble(Double::parseDouble).toArray();
+    }
+
+    private static void checkWeight(double weight) {
+        if (!(weight > 0) || Double.isInfinite(weight)) {
+            throw new IllegalArgumentException("Weights must be positive and finite, got " + weight);
+        }
+    }
+}
@@ -1,25 +1,33 @@
 package com.datasampler.datagenerator.controller;
 
-import com.datasampler.datagenerator.model.TransactionRecord;
+import com.datasampler.datagenerator.model.Compression;
+import com.datasampler.datagenerator.model.FileType;
+import com.datasampler.datagenerator.model.GenerationRequest;
+import com.datasampler.datagenerator.model.JobState;
+import com.datasampler.datagenerator.model.JobStatus;
+import com.datasampler.datagenerator.model.PartitionBy;
 import com.datasampler.datagenerator.service.DataGeneratorService;
+import com.datasampler.datagenerator.service.GenerationJobService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
-import java.math.BigDecimal;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
-import java.util.Arrays;
-import java.util.List;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.RejectedExecutionException;
 
-import static org.mockito.ArgumentMatchers.anyInt;
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(DataGeneratorController.class)
@@ -31,40 +39,28 @@ public class DataGeneratorControllerTest {
     @MockBean
     private DataGeneratorService dataGeneratorService;
 
+    @MockBean
+    private GenerationJobService generationJobService;
+
     @Test
     public void testGenerateData() throws Exception {
-        // Prepare test data
-        LocalDate testDate = LocalDate.of(2023, 1, 15);
-        List<TransactionRecord> mockRecords = Arrays.asList(
-            TransactionRecord.builder()
-                .accountUid("000000123456789012")
-                .productCd("CREDIT")
-                .txnPostedDate(testDate)
-                .txnDate(testDate.minusDays(1))
-                .txnType("PURCHASE")
-                .amount(new BigDecimal("123.45"))
-                .category("Shopping")
-                .subCategory("Grocery")
-                .txnUid(7890123)
-                .tokenizedPan("4111XXXXXXXX1111")
-                .last4digitNbr("1111")
-                .build()
-        );
-
-        // Set primaryKey
-        mockRecords.get(0).setPrimaryKey("000000123456789012_CREDIT_2023-01-15_7890123");
-
         String mockCsv = "primary_key,account_uid,product_cd,txn_posted_date,txn_date,txn_type,amount,category,sub_category,txn_uid,tokenized_pan,last4digitNbr\n" +
                          "000000123456789012_CREDIT_2023-01-15_7890123,000000123456789012,CREDIT,2023-01-15,2023-01-14,PURCHASE,123.45,Shopping,Grocery,7890123,4111XXXXXXXX1111,1111\n";
 
         // Mock service methods
-        when(dataGeneratorService.generateTransactionRecords(anyInt(), anyInt(), any(), any())).thenReturn(mockRecords);
-        when(dataGeneratorService.convertToCsv(mockRecords)).thenReturn(mockCsv);
+        doAnswer(invocation -> {
+            invocation.getArgument(1, OutputStream.class).write(mockCsv.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(dataGeneratorService).writeDataset(any(GenerationRequest.class), any(OutputStream.class));
 
         // Perform request and validate response
-        mockMvc.perform(get("/api/data/generate")
+        MvcResult result = mockMvc.perform(get("/api/data/generate")
                 .param("fileType", "CSV")
                 .param("dataSampleCount", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType("text/csv;charset=UTF-8"))
                 .andExpect(header().exists("Content-Disposition"))
@@ -106,42 +102,85 @@ public class DataGeneratorControllerTest {
     }
 
     @Test
-    public void testWithTxnTypeParameter() throws Exception {
-        // Prepare test data for FEE transaction type
-        LocalDate testDate = LocalDate.of(2023, 1, 15);
-        List<TransactionRecord> mockFeeRecords = Arrays.asList(
-            TransactionRecord.builder()
-                .accountUid("000000123456789012")
-                .productCd("CREDIT")
-                .txnPostedDate(testDate)
-                .txnDate(testDate.minusDays(1))
-                .txnType("FEE")
-                .amount(new BigDecimal("45.67"))
-                .category("Fees and Charges")
-                .subCategory("Late Payment Fee")
-                .categoryGUID("CAT-00001503")
-                .debitCreditIndicator("D")
-                .txnUid(7890123)
-                .tokenizedPan("4111XXXXXXXX1111")
-                .last4digitNbr("1111")
-                .build()
-        );
-
-        // Set primaryKey
-        mockFeeRecords.get(0).setPrimaryKey("000000123456789012_CREDIT_2023-01-15_7890123");
+    public void testJsonLinesDownload() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/data/generate")
+                .param("fileType", "jsonl")
+                .param("dataSampleCount", "10"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
 
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson;charset=UTF-8"))
+                .andExpect(header().string("Content-Disposition", containsString("txnTrainingSample.jsonl")));
+
+        verify(dataGeneratorService).writeDataset(argThat(request -> request.getFileType() == FileType.JSONL),
+                any(OutputStream.class));
+    }
+
+    @Test
+    public void testArrowDownload() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/data/generate")
+                .param("fileType", "arrow")
+                .param("dataSampleCount", "10"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/vnd.apache.arrow.stream"))
+                .andExpect(header().string("Content-Disposition", containsString("txnTrainingSample.arrows")));
+
+        verify(dataGeneratorService).writeDataset(argThat(request -> request.getFileType() == FileType.ARROW),
+                any(OutputStream.class));
+    }
+
+    @Test
+    public void testParquetDownload() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/data/generate")
+                .param("fileType", "parquet")
+                .param("dataSampleCount", "10"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/vnd.apache.parquet"))
+                .andExpect(header().string("Content-Disposition", containsString("txnTrainingSample.parquet")));
+
+        verify(dataGeneratorService).writeDataset(argThat(request -> request.getFileType() == FileType.PARQUET),
+                any(OutputStream.class));
+    }
+
+    @Test
+    public void testPartitionedArrowRejected() throws Exception {
+        mockMvc.perform(get("/api/data/generate")
+                .param("fileType", "ARROW")
+                .param("dataSampleCount", "10")
+                .param("partitionBy", "month"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testWithTxnTypeParameter() throws Exception {
         String mockFeeCsv = "primary_key,account_uid,product_cd,txn_posted_date,txn_date,txn_type,amount,category,sub_category,category_guid,debit_credit_indicator,txn_uid,tokenized_pan,last4digitNbr\n" +
                          "000000123456789012_CREDIT_2023-01-15_7890123,000000123456789012,CREDIT,2023-01-15,2023-01-14,FEE,45.67,Fees and Charges,Late Payment Fee,CAT-00001503,D,7890123,4111XXXXXXXX1111,1111\n";
 
         // Mock service methods for FEE transaction type
-        when(dataGeneratorService.generateTransactionRecords(anyInt(), anyInt(), any(), any())).thenReturn(mockFeeRecords);
-        when(dataGeneratorService.convertToCsv(mockFeeRecords)).thenReturn(mockFeeCsv);
+        doAnswer(invocation -> {
+            invocation.getArgument(1, OutputStream.class).write(mockFeeCsv.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(dataGeneratorService).writeDataset(any(GenerationRequest.class), any(OutputStream.class));
 
         // Perform request with txnType parameter and validate response
-        mockMvc.perform(get("/api/data/generate")
+        MvcResult result = mockMvc.perform(get("/api/data/generate")
                 .param("fileType", "CSV")
                 .param("dataSampleCount", "1")
                 .param("txnType", "FEE"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType("text/csv;charset=UTF-8"))
                 .andExpect(header().exists("Content-Disposition"))
@@ -159,41 +198,24 @@ public class DataGeneratorControllerTest {
 
     @Test
     public void testWithYearParameter() throws Exception {
-        // Prepare test data for year 2024
-        LocalDate testDate = LocalDate.of(2024, 6, 15); // June 15, 2024
-        List<TransactionRecord> mockYearRecords = Arrays.asList(
-            TransactionRecord.builder()
-                .accountUid("000000123456789012")
-                .productCd("CREDIT")
-                .txnPostedDate(testDate)
-                .txnDate(testDate.minusDays(1))
-                .txnType("PURCHASE")
-                .amount(new BigDecimal("123.45"))
-                .category("Shopping")
-                .subCategory("Grocery")
-                .categoryGUID("CAT-00000101")
-                .debitCreditIndicator("D")
-                .txnUid(7890123)
-                .tokenizedPan("4111XXXXXXXX1111")
-                .last4digitNbr("1111")
-                .build()
-        );
-
-        // Set primaryKey
-        mockYearRecords.get(0).setPrimaryKey("000000123456789012_CREDIT_2024-06-15_7890123");
-
         String mockYearCsv = "primary_key,account_uid,product_cd,txn_posted_date,txn_date,txn_type,amount,category,sub_category,category_guid,debit_credit_indicator,txn_uid,tokenized_pan,last4digitNbr\n" +
                          "000000123456789012_CREDIT_2024-06-15_7890123,000000123456789012,CREDIT,2024-06-15,2024-06-14,PURCHASE,123.45,Shopping,Grocery,CAT-00000101,D,7890123,4111XXXXXXXX1111,1111\n";
 
         // Mock service methods for year parameter
-        when(dataGeneratorService.generateTransactionRecords(anyInt(), anyInt(), any(), eq(2024))).thenReturn(mockYearRecords);
-        when(dataGeneratorService.convertToCsv(mockYearRecords)).thenReturn(mockYearCsv);
+        doAnswer(invocation -> {
+            invocation.getArgument(1, OutputStream.class).write(mockYearCsv.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(dataGeneratorService).writeDataset(argThat(request -> Integer.valueOf(2024).equals(request.getYear())), any(OutputStream.class));
 
         // Perform request with year parameter and validate response
-        mockMvc.perform(get("/api/data/generate")
+        MvcResult result = mockMvc.perform(get("/api/data/generate")
                 .param("fileType", "CSV")
                 .param("dataSampleCount", "1")
                 .param("year", "2024"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType("text/csv;charset=UTF-8"))
                 .andExpect(header().exists("Content-Disposition"))
@@ -208,4 +230,226 @@ public class DataGeneratorControllerTest {
                 .param("year", "1900"))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    public void testGzipCompression() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/data/generate")
+                .param("fileType", "CSV")
+                .param("dataSampleCount", "10")
+                .param("compression", "gzip"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // A gzip download is a .csv.gz attachment, not a Content-Encoding
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/gzip"))
+                .andExpect(header().string("Content-Disposition", containsString("txnTrainingSample.csv.gz")))
+                .andExpect(header().doesNotExist("Content-Encoding"));
+
+        verify(dataGeneratorService).writeDataset(argThat(request -> request.getCompression() == Compression.GZIP),
+                any(OutputStream.class));
+    }
+
+    @Test
+    public void testInvalidCompression() throws Exception {
+        mockMvc.perform(get("/api/data/generate")
+                .param("fileType", "CSV")
+                .param("dataSampleCount", "10")
+                .param("compression", "brotli"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testPartitionedDownload() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/data/generate")
+                .param("fileType", "CSV")
+                .param("dataSampleCount", "10")
+                .param("partitionBy", "month")
+                .param("maxRowsPerFile", "5"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Partitioned output is downloaded as one zip archive
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/zip"))
+                .andExpect(header().string("Content-Disposition", containsString("txnTrainingSample.zip")));
+
+        verify(dataGeneratorService).writeDataset(argThat(request -> request.getPartitionBy() == PartitionBy.MONTH
+                && Integer.valueOf(5).equals(request.getMaxRowsPerFile())
+                && request.getMaxBytesPerFile() == null), any(OutputStream.class));
+    }
+
+    @Test
+    public void testInvalidSeasonality() throws Exception {
+        mockMvc.perform(get("/api/data/generate")
+                .param("fileType", "CSV")
+                .param("dataSampleCount", "10")
+                .param("seasonality", "weekly"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Seasonality must be one of: none, card"));
+    }
+
+    @Test
+    public void testInvalidOrder() throws Exception {
+        mockMvc.perform(get("/api/data/generate")
+                .param("fileType", "CSV")
+                .param("dataSampleCount", "10")
+                .param("order", "amount"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Order must be one of: none, postedDate"));
+    }
+
+    @Test
+    public void testInvalidPartitioning() throws Exception {
+        mockMvc.perform(get("/api/data/generate")
+                .param("fileType", "CSV")
+                .param("dataSampleCount", "10")
+                .param("partitionBy", "day"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/data/generate")
+                .param("fileType", "CSV")
+                .param("dataSampleCount", "10")
+                .param("maxRowsPerFile", "0"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/data/generate")
+                .param("fileType", "CSV")
+                .param("dataSampleCount", "10")
+                .param("maxBytesPerFile", "-1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testWithSeedParameter() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/data/generate")
+                .param("fileType", "CSV")
+                .param("dataSampleCount", "10")
+                .param("seed", "42"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+
+        // The seed is passed through to the service together with the other parameters
+        verify(dataGeneratorService).writeDataset(argThat(request -> Long.valueOf(42L).equals(request.getSeed())
+                && request.getDataSampleCount() == 10
+                && request.getUniqueSampleCount() == 10), any(OutputStream.class));
+    }
+
+    @Test
+    public void testWithOffsetAndLimitParameters() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/data/generate")
+                .param("fileType", "CSV")
+                .param("dataSampleCount", "50000000")
+                .param("seed", "42")
+                .param("offset", "40000000")
+                .param("limit", "100000"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+
+        verify(dataGeneratorService).writeDataset(argThat(request -> request.getOffset() == 40000000
+                && Integer.valueOf(100000).equals(request.getLimit())), any(OutputStream.class));
+    }
+
+    @Test
+    public void testInvalidOffsetAndLimit() throws Exception {
+        mockMvc.perform(get("/api/data/generate")
+                .param("fileType", "CSV")
+                .param("dataSampleCount", "10")
+                .param("offset", "10"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/data/generate")
+                .param("fileType", "CSV")
+                .param("dataSampleCount", "10")
+                .param("offset", "-1"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/data/generate")
+                .param("fileType", "CSV")
+                .param("dataSampleCount", "10")
+                .param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testSubmitJob() throws Exception {
+        when(generationJobService.submit(any(GenerationRequest.class))).thenReturn(JobStatus.builder()
+                .jobId("job-1")
+                .state(JobState.QUEUED)
+                .compression(Compression.GZIP)
+                .totalRows(1000)
+                .build());
+
+        mockMvc.perform(post("/api/data/jobs")
+                .param("dataSampleCount", "1000")
+                .param("seed", "42")
+                .param("compression", "gzip"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/data/jobs/job-1"))
+                .andExpect(jsonPath("$.jobId").value("job-1"))
+                .andExpect(jsonPath("$.state").value("QUEUED"))
+                .andExpect(jsonPath("$.totalRows").value(1000));
+
+        verify(generationJobService).submit(argThat(request -> request.getDataSampleCount() == 1000
+                && Long.valueOf(42L).equals(request.getSeed())
+                && request.getCompression() == Compression.GZIP));
+    }
+
+    @Test
+    public void testSubmitJobValidation() throws Exception {
+        mockMvc.perform(post("/api/data/jobs")
+                .param("dataSampleCount", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testSubmitJobWhenQueueIsFull() throws Exception {
+        when(generationJobService.submit(any(GenerationRequest.class))).thenThrow(new RejectedExecutionException());
+
+        mockMvc.perform(post("/api/data/jobs")
+                .param("dataSampleCount", "10"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    public void testJobStatus() throws Exception {
+        when(generationJobService.getStatus("job-1")).thenReturn(JobStatus.builder()
+                .jobId("job-1")
+                .state(JobState.RUNNING)
+                .compression(Compression.NONE)
+                .totalRows(1000)
+                .rowsWritten(400)
+                .build());
+
+        mockMvc.perform(get("/api/data/jobs/job-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("RUNNING"))
+                .andExpect(jsonPath("$.rowsWritten").value(400));
+
+        mockMvc.perform(get("/api/data/jobs/unknown"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testJobResultBeforeCompletion() throws Exception {
+        when(generationJobService.getStatus("job-1")).thenReturn(JobStatus.builder()
+                .jobId("job-1")
+                .state(JobState.RUNNING)
+                .compression(Compression.NONE)
+                .build());
+
+        mockMvc.perform(get("/api/data/jobs/job-1/result"))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(get("/api/data/jobs/unknown/result"))
+                .andExpect(status().isNotFound());
+    }
 }
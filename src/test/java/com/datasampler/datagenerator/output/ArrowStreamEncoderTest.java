@@ -0,0 +1,273 @@
+package com.datasampler.datagenerator.output;
+
+import com.datasampler.datagenerator.model.TransactionBatch;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.datasampler.datagenerator.output.TransactionBatchFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArrowStreamEncoderTest {
+
+    private static final int SCHEMA = 1;
+    private static final int DICTIONARY_BATCH = 2;
+    private static final int RECORD_BATCH = 3;
+
+    private final ArrowStreamEncoder encoder = new ArrowStreamEncoder(PRODUCT_CODES, TXN_TYPES, CATEGORY_NAMES,
+            CATEGORY_GUIDS);
+
+    @Test
+    public void testStreamFraming() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.writeStart(out);
+        encoder.newBatch(4).add(rows(1, 1)).writeTo(out);
+        encoder.newBatch(4).writeTo(out);
+        encoder.writeEnd(out);
+
+        List<Message> messages = readStream(out.toByteArray());
+        assertEquals(List.of(SCHEMA, DICTIONARY_BATCH, DICTIONARY_BATCH, DICTIONARY_BATCH, DICTIONARY_BATCH,
+                DICTIONARY_BATCH, RECORD_BATCH, RECORD_BATCH), messages.stream().map(m -> m.headerType).toList());
+
+        Table schema = messages.get(0).header();
+        List<Table> fields = schema.tables(1);
+        List<String> names = fields.stream().map(field -> field.string(0)).toList();
+        assertEquals(List.of(CsvRecordEncoder.HEADER.trim().split(",")), names);
+        // product_cd, txn_type, category, sub_category and category_guid carry dictionary ids 0 to 4
+        List<Long> dictionaryIds = new ArrayList<>();
+        for (Table field : fields) {
+            Table dictionary = field.table(4);
+            if (dictionary != null) {
+                dictionaryIds.add(dictionary.getLong(0));
+            }
+        }
+        assertEquals(List.of(0L, 1L, 2L, 3L, 4L), dictionaryIds);
+
+        Table categories = messages.get(3).header();
+        assertEquals(2, categories.getLong(0));
+        assertEquals(List.of("Fees and Charges", "Annual Fee & Charges", "Café"),
+                messages.get(3).strings(categories.table(1), 0));
+
+        assertEquals(1, messages.get(6).header().getLong(0));
+        assertEquals(0, messages.get(7).header().getLong(0));
+    }
+
+    @Test
+    public void testRecordBatchValues() throws IOException {
+        TransactionBatch rows = rows(0, 20);
+        rows.getAmountCents()[9] = -12345;
+        rows.getTxnUid()[9] = -1;
+        ArrowStreamEncoder.Batch batch = encoder.newBatch(1).add(rows);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        batch.writeTo(out);
+        encoder.writeEnd(out);
+        assertThrows(IllegalStateException.class, () -> batch.add(rows));
+
+        Message message = readStream(out.toByteArray()).get(0);
+        Table recordBatch = message.header();
+        assertEquals(20, recordBatch.getLong(0));
+
+        // Nodes are (length, null count): generated rows have no nulls
+        long[] nodes = recordBatch.longPairs(1);
+        assertEquals(14 * 2, nodes.length);
+        for (int column = 0; column < 14; column++) {
+            assertEquals(20, nodes[2 * column]);
+            assertEquals(0, nodes[2 * column + 1]);
+        }
+
+        List<String> primaryKeys = message.strings(recordBatch, 0);
+        assertEquals("00000098420474225688_CREDIT_2024-03-06_1000001", primaryKeys.get(1));
+
+        // Buffers: validity, offsets and data for utf8 columns, validity and values for the others
+        assertFalse(message.isNull(recordBatch, 6, 8));
+        assertEquals(0, message.ints(recordBatch, 7)[8]);
+        int[] postedDays = message.ints(recordBatch, 9);
+        assertEquals(LocalDate.of(2024, 3, 5).plusDays(8).toEpochDay(), postedDays[8]);
+        assertEquals(1, message.ints(recordBatch, 13)[8]);
+
+        ByteBuffer amounts = message.buffer(recordBatch, 15);
+        assertEquals(20 * 16, amounts.remaining());
+        assertEquals(808, amounts.getLong(8 * 16));
+        assertEquals(0, amounts.getLong(8 * 16 + 8));
+        assertEquals(-12345, amounts.getLong(9 * 16));
+        assertEquals(-1, amounts.getLong(9 * 16 + 8));
+
+        assertEquals(2, message.ints(recordBatch, 19)[4]);
+        int[] txnUids = message.ints(recordBatch, 26);
+        assertEquals(1000004, txnUids[4]);
+        assertEquals(-1, txnUids[9]);
+        assertEquals("0042", message.strings(recordBatch, 30).get(0));
+    }
+
+    @Test
+    public void testValueTablesMapToDictionaries() throws IOException {
+        // The same rows, with value tables that list values in another order than the dictionaries, and some
+        // they lack, encode to the same bytes
+        TransactionBatch reordered = rows(0, 20, List.of("Travel", "Café", "Annual Fee & Charges", "Fees and Charges"),
+                List.of("CAT-00001505", "CAT-00001504"));
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        encoder.newBatch(20).add(rows(0, 20)).writeTo(expected);
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        encoder.newBatch(1).add(reordered).writeTo(actual);
+        assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+    }
+
+    @Test
+    public void testUnknownDictionaryValue() {
+        TransactionBatch rows = rows(0, 20);
+        rows.getTxnType()[3] = TransactionBatch.PAYMENT;
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> encoder.newBatch(1).add(rows));
+        assertEquals("No dictionary entry for txn_type value PAYMENT", e.getMessage());
+    }
+
+    /**
+     * Splits an IPC stream into messages, checking the framing, alignment and end-of-stream marker
+     */
+    private static List<Message> readStream(byte[] stream) {
+        ByteBuffer buffer = ByteBuffer.wrap(stream).order(ByteOrder.LITTLE_ENDIAN);
+        List<Message> messages = new ArrayList<>();
+        while (true) {
+            assertEquals(-1, buffer.getInt(), "Continuation marker");
+            int metadataLength = buffer.getInt();
+            if (metadataLength == 0) {
+                break;
+            }
+            assertEquals(0, (buffer.position() + metadataLength) % 8, "Metadata padding");
+            ByteBuffer metadata = slice(buffer, buffer.position(), metadataLength);
+            Table root = new Table(metadata, metadata.getInt(0));
+            assertEquals(4, root.getShort(0), "Metadata version V5");
+            long bodyLength = root.getLong(3);
+            assertEquals(0, bodyLength % 8, "Body padding");
+            ByteBuffer body = slice(buffer, buffer.position() + metadataLength, (int) bodyLength);
+            messages.add(new Message(root, root.getByte(1), body));
+            buffer.position(buffer.position() + metadataLength + (int) bodyLength);
+        }
+        assertFalse(buffer.hasRemaining());
+        return messages;
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int position, int length) {
+        return buffer.slice(position, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private record Message(Table root, int headerType, ByteBuffer body) {
+
+        Table header() {
+            return root.table(2);
+        }
+
+        ByteBuffer buffer(Table recordBatch, int index) {
+            long[] buffers = recordBatch.longPairs(2);
+            long offset = buffers[2 * index];
+            assertEquals(0, offset % 8, "Buffer alignment");
+            return slice(body, (int) offset, (int) buffers[2 * index + 1]);
+        }
+
+        boolean isNull(Table recordBatch, int validityIndex, int row) {
+            ByteBuffer validity = buffer(recordBatch, validityIndex);
+            return validity.remaining() > 0 && (validity.get(row >> 3) >> (row & 7) & 1) == 0;
+        }
+
+        int[] ints(Table recordBatch, int index) {
+            ByteBuffer values = buffer(recordBatch, index);
+            int[] ints = new int[values.remaining() / 4];
+            values.asIntBuffer().get(ints);
+            return ints;
+        }
+
+        /**
+         * Reads a utf8 column whose validity buffer is at validityIndex; null values read as null
+         */
+        List<String> strings(Table recordBatch, int validityIndex) {
+            int[] offsets = ints(recordBatch, validityIndex + 1);
+            ByteBuffer data = buffer(recordBatch, validityIndex + 2);
+            List<String> values = new ArrayList<>();
+            for (int row = 0; row + 1 < offsets.length; row++) {
+                byte[] bytes = new byte[offsets[row + 1] - offsets[row]];
+                data.get(offsets[row], bytes);
+                values.add(isNull(recordBatch, validityIndex, row) ? null : new String(bytes, StandardCharsets.UTF_8));
+            }
+            return values;
+        }
+    }
+
+    /**
+     * Reads fields of a FlatBuffers table through its vtable
+     */
+    private record Table(ByteBuffer buffer, int position) {
+
+        private int fieldPosition(int field) {
+            int vtable = position - buffer.getInt(position);
+            int entry = 4 + 2 * field;
+            if (entry >= buffer.getShort(vtable)) {
+                return 0;
+            }
+            int offset = buffer.getShort(vtable + entry);
+            return offset == 0 ? 0 : position + offset;
+        }
+
+        byte getByte(int field) {
+            int at = fieldPosition(field);
+            return at == 0 ? 0 : buffer.get(at);
+        }
+
+        short getShort(int field) {
+            int at = fieldPosition(field);
+            return at == 0 ? 0 : buffer.getShort(at);
+        }
+
+        long getLong(int field) {
+            int at = fieldPosition(field);
+            if (at == 0) {
+                return 0;
+            }
+            assertEquals(0, at % 8, "Long alignment");
+            return buffer.getLong(at);
+        }
+
+        private int target(int field) {
+            int at = fieldPosition(field);
+            return at == 0 ? 0 : at + buffer.getInt(at);
+        }
+
+        Table table(int field) {
+            int target = target(field);
+            return target == 0 ? null : new Table(buffer, target);
+        }
+
+        String string(int field) {
+            int target = target(field);
+            byte[] bytes = new byte[buffer.getInt(target)];
+            buffer.get(target + 4, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        List<Table> tables(int field) {
+            int vector = target(field);
+            List<Table> tables = new ArrayList<>();
+            for (int i = 0; i < buffer.getInt(vector); i++) {
+                int element = vector + 4 + 4 * i;
+                tables.add(new Table(buffer, element + buffer.getInt(element)));
+            }
+            return tables;
+        }
+
+        long[] longPairs(int field) {
+            int vector = target(field);
+            assertEquals(0, (vector + 4) % 8, "Struct vector alignment");
+            long[] values = new long[2 * buffer.getInt(vector)];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = buffer.getLong(vector + 4 + 8 * i);
+            }
+            return values;
+        }
+    }
+}
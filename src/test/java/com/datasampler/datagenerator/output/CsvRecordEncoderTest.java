@@ -0,0 +1,160 @@
+package com.datasampler.datagenerator.output;
+
+import com.datasampler.datagenerator.model.TransactionRecord;
+import com.datasampler.datagenerator.util.PostedDateTable;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvRecordEncoderTest {
+
+    // Every character that forces quoting, plus ordinary ASCII, digits and non-ASCII text
+    private static final String ALPHABET = ",\"\n\r ;'-&@()[]{}!?#$%^*+=<>/\\_.:|~`abcXYZ019éß€😀";
+
+    @Test
+    public void testHeader() {
+        byte[] header = new CsvRecordEncoder(0).writeHeader().toByteArray();
+        assertEquals(CsvRecordEncoder.HEADER, new String(header, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testEncodeValueMatchesQuotingRules() {
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder value = new StringBuilder();
+            int length = random.nextInt(8);
+            for (int j = 0; j < length; j++) {
+                int c = random.nextInt(ALPHABET.length());
+                if (Character.isHighSurrogate(ALPHABET.charAt(c))) {
+                    value.append(ALPHABET, c, c + 2);
+                } else if (!Character.isLowSurrogate(ALPHABET.charAt(c))) {
+                    value.append(ALPHABET.charAt(c));
+                }
+            }
+            String text = value.toString();
+            assertArrayEquals(referenceFormat(text).getBytes(StandardCharsets.UTF_8), CsvRecordEncoder.encodeValue(text),
+                    "Encoding of [" + text + "]");
+        }
+    }
+
+    @Test
+    public void testEncodeRecord() {
+        LocalDate postedDate = LocalDate.of(2024, 3, 5);
+        TransactionRecord record = TransactionRecord.builder()
+                .accountNumber(98420474225688L)
+                .productCd("CREDIT")
+                .txnPostedDate(postedDate)
+                .txnDate(postedDate.minusDays(1))
+                .txnType("FEE")
+                .amountCents(3405)
+                .category("Fees and Charges")
+                .subCategory("Annual Fee & Charges")
+                .categoryGUID("CAT-00001504")
+                .debitCreditIndicator("D")
+                .txnUid(1000001)
+                .panDigits(4111110042L)
+                .build();
+
+        CsvRecordEncoder encoder = new CsvRecordEncoder(0);
+        // Encode twice so the second row comes from the constant cache
+        encoder.encode(record).encode(record);
+
+        String row = "\"00000098420474225688_CREDIT_2024-03-05_1000001\",00000098420474225688,CREDIT,"
+                + "\"2024-03-05\",\"2024-03-04\",FEE,34.05,\"Fees and Charges\",\"Annual Fee & Charges\","
+                + "\"CAT-00001504\",D,1000001,411111XXXXXX0042,0042\n";
+        assertEquals(row + row, new String(encoder.toByteArray(), StandardCharsets.UTF_8));
+
+        encoder.reset();
+        assertEquals(0, encoder.size());
+    }
+
+    @Test
+    public void testWriteRowRanges() throws IOException {
+        CsvRecordEncoder encoder = new CsvRecordEncoder(0).writeHeader();
+        for (int i = 0; i < 3; i++) {
+            encoder.encode(TransactionRecord.builder()
+                    .primaryKey("PK" + i)
+                    .accountUid("A")
+                    .txnUid(i)
+                    .tokenizedPan("T")
+                    .last4digitNbr("1")
+                    .build());
+        }
+        assertEquals(3, encoder.getRowCount());
+
+        // Row ranges never include the header
+        String first = "PK0,A,,,,,0.00,,,,,0,T,1\n";
+        assertEquals(first.length(), encoder.rowsSize(0, 1));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.writeRowsTo(out, 0, 1);
+        encoder.writeRowsTo(out, 1, 1);
+        encoder.writeRowsTo(out, 2, 3);
+        String third = "PK2,A,,,,,0.00,,,,,2,T,1\n";
+        assertEquals(first + third, out.toString(StandardCharsets.UTF_8));
+        assertThrows(IndexOutOfBoundsException.class, () -> encoder.writeRowsTo(out, 2, 4));
+
+        encoder.reset();
+        assertEquals(0, encoder.getRowCount());
+    }
+
+    @Test
+    public void testEncodeBatch() {
+        String rows = "\"00000098420474225688_CREDIT_2024-03-05_1000001\",00000098420474225688,CREDIT,"
+                + "\"2024-03-05\",\"2024-03-04\",FEE,34.05,\"Fees and Charges\",\"Annual Fee & Charges\","
+                + "\"CAT-00001504\",D,1000001,411111XXXXXX0042,0042\n"
+                + "\"00000000000000000007_CREDIT_1999-12-31_12\",00000000000000000007,CREDIT,"
+                + "\"1999-12-31\",\"1999-12-31\",PAYMENT,0.05,Uncategorized,Uncategorized,"
+                + "\"CAT-00000100\",C,12,000000XXXXXX0009,0009\n";
+        // With a 2024 date table the first row's dates come from the table and the 1999 row's are computed
+        PostedDateTable year2024 = PostedDateTable.forYear(2024, LocalDate.of(2026, 3, 1));
+        for (PostedDateTable postedDates : new PostedDateTable[]{null, year2024}) {
+            CsvRecordEncoder encoder = new CsvRecordEncoder(0);
+            encoder.encode(TransactionBatchFixtures.twoRows(postedDates));
+            assertEquals(rows, new String(encoder.toByteArray(), StandardCharsets.UTF_8));
+            assertEquals(2, encoder.getRowCount());
+        }
+    }
+
+    @Test
+    public void testEncodeNullsAndNegativeNumbers() {
+        TransactionRecord record = TransactionRecord.builder()
+                .primaryKey("PK")
+                .accountUid("A")
+                .amountCents(-5)
+                .txnUid(-1)
+                .tokenizedPan("P")
+                .last4digitNbr("L")
+                .build();
+
+        String row = new String(new CsvRecordEncoder(0).encode(record).toByteArray(), StandardCharsets.UTF_8);
+        assertEquals("PK,A,,,,,\"-0.05\",,,,,\"-1\",P,L\n", row);
+    }
+
+    /**
+     * The quoting rules the encoder must stay byte-compatible with
+     */
+    private static String referenceFormat(String value) {
+        boolean needsQuotes = value.contains(",") || value.contains("\"") ||
+                value.contains("\n") || value.contains("\r") ||
+                value.contains(" ") || value.contains(";") ||
+                value.contains("'") || value.contains("-") ||
+                value.contains("&") || value.contains("@") ||
+                value.contains("(") || value.contains(")") ||
+                value.contains("[") || value.contains("]") ||
+                value.contains("{") || value.contains("}") ||
+                value.contains("!") || value.contains("?") ||
+                value.contains("#") || value.contains("$") ||
+                value.contains("%") || value.contains("^") ||
+                value.contains("*") || value.contains("+") ||
+                value.contains("=") || value.contains("<") ||
+                value.contains(">") || value.contains("/") ||
+                value.contains("\\");
+        return needsQuotes ? "\"" + value.replace("\"", "\"\"") + "\"" : value;
+    }
+}
@@ -0,0 +1,76 @@
+package com.datasampler.datagenerator.output;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileChannelOutputStreamTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testWritesAllBytesAcrossBufferBoundaries() throws IOException {
+        Random random = new Random(42);
+        byte[] data = new byte[100_000];
+        random.nextBytes(data);
+
+        // Tiny buffers force many gathering writes; mix single bytes, uneven arrays and flushes
+        Path file = tempDir.resolve("data.bin");
+        DirectBufferPool pool = new DirectBufferPool(7, 2);
+        try (FileChannelOutputStream outputStream = new FileChannelOutputStream(file, pool, 2, true)) {
+            int position = 0;
+            while (position < data.length) {
+                if (random.nextInt(5) == 0) {
+                    outputStream.write(data[position++]);
+                    continue;
+                }
+                int length = Math.min(data.length - position, random.nextInt(40));
+                outputStream.write(data, position, length);
+                position += length;
+                if (random.nextInt(50) == 0) {
+                    outputStream.flush();
+                }
+            }
+        }
+
+        assertArrayEquals(data, Files.readAllBytes(file));
+    }
+
+    @Test
+    public void testTruncatesExistingFile() throws IOException {
+        Path file = tempDir.resolve("existing.csv");
+        Files.write(file, new byte[1000]);
+
+        try (FileChannelOutputStream outputStream = new FileChannelOutputStream(file, new DirectBufferPool(64, 1), 1, false)) {
+            outputStream.write("a,b\n".getBytes());
+        }
+
+        assertEquals("a,b\n", Files.readString(file));
+    }
+
+    @Test
+    public void testBuffersAreReturnedToPool() throws IOException {
+        DirectBufferPool pool = new DirectBufferPool(64, 4);
+        FileChannelOutputStream outputStream = new FileChannelOutputStream(tempDir.resolve("a.csv"), pool, 2, false);
+        outputStream.close();
+        // Closing twice must not release the buffers twice
+        outputStream.close();
+        assertThrows(IOException.class, () -> outputStream.write(1));
+
+        // The next two acquisitions reuse the released buffers and hand them out cleared
+        ByteBuffer first = pool.acquire();
+        ByteBuffer second = pool.acquire();
+        assertNotSame(first, second);
+        assertTrue(first.isDirect());
+        assertEquals(64, first.remaining());
+        assertThrows(IllegalArgumentException.class, () -> pool.release(ByteBuffer.allocate(64)));
+    }
+}
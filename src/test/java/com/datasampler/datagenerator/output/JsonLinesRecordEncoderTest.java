@@ -0,0 +1,117 @@
+package com.datasampler.datagenerator.output;
+
+import com.datasampler.datagenerator.model.TransactionBatch;
+import com.datasampler.datagenerator.model.TransactionRecord;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonLinesRecordEncoderTest {
+
+    // Characters JSON must escape, plus ordinary ASCII, digits and non-ASCII text
+    private static final String ALPHABET = "\"\\\n\r\t\b\f\u0000\u001f/,' -abcXYZ019éß€😀";
+
+    @Test
+    public void testNoHeader() {
+        assertEquals(0, new JsonLinesRecordEncoder(0).writeHeader().size());
+    }
+
+    @Test
+    public void testEncodeRecord() {
+        LocalDate postedDate = LocalDate.of(2024, 3, 5);
+        TransactionRecord record = TransactionRecord.builder()
+                .accountNumber(98420474225688L)
+                .productCd("CREDIT")
+                .txnPostedDate(postedDate)
+                .txnDate(postedDate.minusDays(1))
+                .txnType("FEE")
+                .amountCents(3405)
+                .category("Fees and Charges")
+                .subCategory("Annual Fee & Charges")
+                .categoryGUID("CAT-00001504")
+                .debitCreditIndicator("D")
+                .txnUid(1000001)
+                .panDigits(4111110042L)
+                .build();
+
+        JsonLinesRecordEncoder encoder = new JsonLinesRecordEncoder(0);
+        // Encode twice so the second row comes from the constant cache
+        encoder.encode(record).encode(record);
+
+        String row = "{\"primary_key\":\"00000098420474225688_CREDIT_2024-03-05_1000001\","
+                + "\"account_uid\":\"00000098420474225688\",\"product_cd\":\"CREDIT\","
+                + "\"txn_posted_date\":\"2024-03-05\",\"txn_date\":\"2024-03-04\",\"txn_type\":\"FEE\","
+                + "\"amount\":34.05,\"category\":\"Fees and Charges\",\"sub_category\":\"Annual Fee & Charges\","
+                + "\"category_guid\":\"CAT-00001504\",\"debit_credit_indicator\":\"D\",\"txn_uid\":1000001,"
+                + "\"tokenized_pan\":\"411111XXXXXX0042\",\"last4digitNbr\":\"0042\"}\n";
+        assertEquals(row + row, new String(encoder.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals(2, encoder.getRowCount());
+        assertEquals(row.length(), encoder.rowsSize(1, 2));
+    }
+
+    @Test
+    public void testEncodeBatchMatchesRecords() {
+        TransactionBatch batch = TransactionBatchFixtures.twoRows();
+        JsonLinesRecordEncoder fromBatch = new JsonLinesRecordEncoder(0);
+        JsonLinesRecordEncoder fromRecords = new JsonLinesRecordEncoder(0);
+        for (int row = 0; row < batch.getSize(); row++) {
+            fromBatch.encode(batch, row);
+            fromRecords.encode(batch.toRecord(row));
+        }
+        assertEquals(new String(fromRecords.toByteArray(), StandardCharsets.UTF_8),
+                new String(fromBatch.toByteArray(), StandardCharsets.UTF_8));
+        assertTrue(new String(fromBatch.toByteArray(), StandardCharsets.UTF_8).contains(
+                "\"txn_posted_date\":\"1999-12-31\",\"txn_date\":\"1999-12-31\",\"txn_type\":\"PAYMENT\",\"amount\":0.05,"
+                        + "\"category\":\"Uncategorized\",\"sub_category\":\"Uncategorized\",\"category_guid\":\"CAT-00000100\","
+                        + "\"debit_credit_indicator\":\"C\",\"txn_uid\":12,"));
+    }
+
+    @Test
+    public void testEncodeNullsAndNegativeNumbers() {
+        TransactionRecord record = TransactionRecord.builder()
+                .primaryKey("PK")
+                .accountUid("A")
+                .amountCents(-5)
+                .txnUid(-1)
+                .tokenizedPan("P")
+                .last4digitNbr("L")
+                .build();
+
+        String row = new String(new JsonLinesRecordEncoder(0).encode(record).toByteArray(), StandardCharsets.UTF_8);
+        assertEquals("{\"primary_key\":\"PK\",\"account_uid\":\"A\",\"product_cd\":null,\"txn_posted_date\":null,"
+                + "\"txn_date\":null,\"txn_type\":null,\"amount\":-0.05,\"category\":null,\"sub_category\":null,"
+                + "\"category_guid\":null,\"debit_credit_indicator\":null,\"txn_uid\":-1,\"tokenized_pan\":\"P\","
+                + "\"last4digitNbr\":\"L\"}\n", row);
+    }
+
+    @Test
+    public void testEncodeValueRoundTrips() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder value = new StringBuilder();
+            int length = random.nextInt(8);
+            for (int j = 0; j < length; j++) {
+                int c = random.nextInt(ALPHABET.length());
+                if (Character.isHighSurrogate(ALPHABET.charAt(c))) {
+                    value.append(ALPHABET, c, c + 2);
+                } else if (!Character.isLowSurrogate(ALPHABET.charAt(c))) {
+                    value.append(ALPHABET.charAt(c));
+                }
+            }
+            String text = value.toString();
+            byte[] encoded = JsonLinesRecordEncoder.encodeValue(text);
+            assertEquals(text, objectMapper.readValue(encoded, String.class), "Encoding of [" + text + "]");
+            // Matches Jackson byte for byte apart from its choice of escapes for control characters
+            if (text.chars().noneMatch(ch -> ch < 0x20)) {
+                assertArrayEquals(objectMapper.writeValueAsBytes(text), encoded, "Encoding of [" + text + "]");
+            }
+        }
+    }
+}
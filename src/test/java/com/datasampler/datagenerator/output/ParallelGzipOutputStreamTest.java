@@ -0,0 +1,91 @@
+package com.datasampler.datagenerator.output;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelGzipOutputStreamTest {
+
+    private ExecutorService pool;
+
+    @BeforeEach
+    public void setUp() {
+        pool = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void testConcatenatedMembersDecompressToInput() throws IOException {
+        // Mix repetitive text with random bytes so some blocks compress well and some do not
+        Random random = new Random(42);
+        ByteArrayOutputStream input = new ByteArrayOutputStream();
+        for (int i = 0; i < 2000; i++) {
+            input.write(("row " + i + ",CREDIT,PURCHASE,Shopping,Grocery\n").getBytes());
+            byte[] noise = new byte[random.nextInt(200)];
+            random.nextBytes(noise);
+            input.write(noise);
+        }
+        byte[] data = input.toByteArray();
+
+        // A small block size forces many members; write in uneven pieces that straddle block boundaries
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        ParallelGzipOutputStream gzipStream = new ParallelGzipOutputStream(compressed, pool, 4096, 6, 3);
+        int position = 0;
+        while (position < data.length) {
+            int length = Math.min(data.length - position, 1 + random.nextInt(10000));
+            gzipStream.write(data, position, length);
+            position += length;
+            gzipStream.flush();
+        }
+        gzipStream.finish();
+
+        assertArrayEquals(data, gunzip(compressed.toByteArray()));
+    }
+
+    @Test
+    public void testEmptyInputIsValidGzip() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        ParallelGzipOutputStream gzipStream = new ParallelGzipOutputStream(compressed, pool, 1024, 6, 2);
+        gzipStream.finish();
+
+        assertTrue(compressed.size() > 0, "An empty stream should still contain one gzip member");
+        assertEquals(0, gunzip(compressed.toByteArray()).length);
+    }
+
+    @Test
+    public void testWriteAfterFinishFails() throws IOException {
+        ParallelGzipOutputStream gzipStream = new ParallelGzipOutputStream(new ByteArrayOutputStream(), pool, 1024, 6, 2);
+        gzipStream.write('a');
+        gzipStream.finish();
+
+        assertThrows(IOException.class, () -> gzipStream.write('b'));
+    }
+
+    @Test
+    public void testInvalidSettings() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        assertThrows(IllegalArgumentException.class, () -> new ParallelGzipOutputStream(output, pool, 1024, 10, 2));
+        assertThrows(IllegalArgumentException.class, () -> new ParallelGzipOutputStream(output, pool, 0, 6, 2));
+        assertThrows(IllegalArgumentException.class, () -> new ParallelGzipOutputStream(output, pool, 1024, 6, 0));
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream gzipStream = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return gzipStream.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package com.datasampler.datagenerator.output;
+
+import com.datasampler.datagenerator.model.TransactionBatch;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.datasampler.datagenerator.output.TransactionBatchFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParquetFileEncoderTest {
+
+    private final ParquetFileEncoder encoder = new ParquetFileEncoder(PRODUCT_CODES, TXN_TYPES, CATEGORY_NAMES,
+            CATEGORY_GUIDS);
+
+    @Test
+    public void testFileLayout() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ParquetFileEncoder.Writer writer = encoder.newWriter(out, 3);
+        // Batches are added to the current row group until it holds 3 rows
+        assertEquals(0, writer.write(batch(0, 2)));
+        assertEquals(3, writer.write(batch(2, 1)));
+        assertEquals(0, writer.write(batch(3, 2)));
+        assertEquals(2, writer.finish());
+
+        ByteBuffer file = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        Map<Integer, Object> footer = footer(file);
+        assertEquals(5L, footer.get(3));
+
+        List<Map<Integer, Object>> schema = list(footer, 2);
+        assertEquals("schema", string(schema.get(0), 4));
+        assertEquals(14L, schema.get(0).get(5));
+        List<String> names = schema.subList(1, schema.size()).stream().map(element -> string(element, 4)).toList();
+        assertEquals(List.of(CsvRecordEncoder.HEADER.trim().split(",")), names);
+        // amount is an INT64 decimal(18, 2)
+        assertEquals(2L, schema.get(7).get(1));
+        assertEquals(2L, schema.get(7).get(7));
+        assertEquals(18L, schema.get(7).get(8));
+
+        List<Map<Integer, Object>> rowGroups = list(footer, 4);
+        assertEquals(2, rowGroups.size());
+        assertEquals(3L, rowGroups.get(0).get(3));
+        assertEquals(2L, rowGroups.get(1).get(3));
+        // Column chunks follow each other from the magic bytes to the footer
+        long position = 4;
+        for (Map<Integer, Object> rowGroup : rowGroups) {
+            assertEquals(position, rowGroup.get(5));
+            for (Map<Integer, Object> chunk : list(rowGroup, 1)) {
+                Map<Integer, Object> metadata = struct(chunk, 3);
+                assertEquals(position, metadata.getOrDefault(11, metadata.get(9)));
+                position += (Long) metadata.get(7);
+            }
+        }
+        assertEquals(file.limit() - 8 - file.getInt(file.limit() - 8), position);
+    }
+
+    @Test
+    public void testColumnValues() throws IOException {
+        TransactionBatch rows = rows(0, 300);
+        rows.getAmountCents()[9] = -12345;
+        rows.getTxnUid()[9] = -1;
+        ParquetFileEncoder.Batch batch = encoder.newBatch(1).add(rows);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ParquetFileEncoder.Writer writer = encoder.newWriter(out, 1000);
+        writer.write(batch);
+        writer.finish();
+        assertThrows(IllegalStateException.class, () -> batch.add(rows));
+
+        ByteBuffer file = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        List<Map<Integer, Object>> chunks = list(list(footer(file), 4).get(0), 1);
+
+        List<Object> primaryKeys = readColumn(file, chunks.get(0));
+        assertEquals("00000098420474225688_CREDIT_2024-03-06_1000001", primaryKeys.get(1));
+
+        List<Object> postedDays = readColumn(file, chunks.get(3));
+        assertEquals((int) LocalDate.of(2024, 3, 5).plusDays(8).toEpochDay(), postedDays.get(8));
+
+        List<Object> txnTypes = readColumn(file, chunks.get(5));
+        assertEquals("FEE", txnTypes.get(8));
+        assertEquals("PURCHASE", txnTypes.get(7));
+
+        List<Object> amounts = readColumn(file, chunks.get(6));
+        assertEquals(808L, amounts.get(8));
+        assertEquals(-12345L, amounts.get(9));
+
+        List<Object> subCategories = readColumn(file, chunks.get(8));
+        assertEquals("Café", subCategories.get(4));
+        assertEquals("Annual Fee & Charges", subCategories.get(5));
+
+        // Sequential txnUids except for row 9, spanning several delta blocks
+        List<Object> txnUids = readColumn(file, chunks.get(11));
+        assertEquals(300, txnUids.size());
+        for (int i = 0; i < 300; i++) {
+            assertEquals(i == 9 ? -1 : 1000000 + i, txnUids.get(i));
+        }
+        assertEquals("0042", readColumn(file, chunks.get(13)).get(0));
+    }
+
+    @Test
+    public void testValueTablesMapToDictionaries() throws IOException {
+        // The same rows, with value tables that list values in another order than the dictionaries, and some
+        // they lack, encode to the same bytes
+        TransactionBatch reordered = rows(0, 300, List.of("Travel", "Café", "Annual Fee & Charges", "Fees and Charges"),
+                List.of("CAT-00001505", "CAT-00001504"));
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        ParquetFileEncoder.Writer writer = encoder.newWriter(expected, 1000);
+        writer.write(batch(0, 300));
+        writer.finish();
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        writer = encoder.newWriter(actual, 1000);
+        writer.write(encoder.newBatch(1).add(reordered));
+        writer.finish();
+        assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+    }
+
+    @Test
+    public void testUnknownDictionaryValue() {
+        TransactionBatch rows = rows(0, 300, List.of("Travel", "Fees and Charges", "Annual Fee & Charges", "Café"),
+                List.of("CAT-00001504"));
+        rows.getCategory()[299] = 0;
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> encoder.newBatch(1).add(rows));
+        assertEquals("No dictionary entry for category value Travel", e.getMessage());
+    }
+
+    private ParquetFileEncoder.Batch batch(int from, int count) {
+        return encoder.newBatch(count).add(rows(from, count));
+    }
+
+    private static Map<Integer, Object> footer(ByteBuffer file) {
+        int limit = file.limit();
+        assertEquals("PAR1", StandardCharsets.US_ASCII.decode(file.slice(0, 4)).toString());
+        assertEquals("PAR1", StandardCharsets.US_ASCII.decode(file.slice(limit - 4, 4)).toString());
+        int footerLength = file.getInt(limit - 8);
+        ThriftReader reader = new ThriftReader(file, limit - 8 - footerLength);
+        Map<Integer, Object> footer = reader.readStruct();
+        assertEquals(limit - 8, reader.position);
+        return footer;
+    }
+
+    /**
+     * Reads every page of a column chunk and returns its values, with null for missing ones
+     */
+    private static List<Object> readColumn(ByteBuffer file, Map<Integer, Object> chunk) {
+        Map<Integer, Object> metadata = struct(chunk, 3);
+        long type = (Long) metadata.get(1);
+        int position = (int) (long) (Long) metadata.getOrDefault(11, metadata.get(9));
+        int end = position + (int) (long) (Long) metadata.get(7);
+        List<Object> dictionary = null;
+        List<Object> values = new ArrayList<>();
+        while (position < end) {
+            ThriftReader reader = new ThriftReader(file, position);
+            Map<Integer, Object> header = reader.readStruct();
+            ByteBuffer page = file.slice(reader.position, (int) (long) (Long) header.get(3)).order(ByteOrder.LITTLE_ENDIAN);
+            position = reader.position + page.limit();
+            if ((Long) header.get(1) == 2) {
+                dictionary = readPlain(page, type, (int) (long) (Long) struct(header, 7).get(1));
+                continue;
+            }
+            Map<Integer, Object> dataPage = struct(header, 5);
+            int count = (int) (long) (Long) dataPage.get(1);
+            int levelsLength = page.getInt();
+            int[] levels = readHybrid(page.slice(4, levelsLength), 1, count);
+            page.position(4 + levelsLength);
+            int nonNull = 0;
+            for (int level : levels) {
+                nonNull += level;
+            }
+            List<Object> pageValues = switch ((int) (long) (Long) dataPage.get(2)) {
+                case 8 -> {
+                    int bitWidth = page.get();
+                    List<Object> indexed = new ArrayList<>();
+                    for (int index : readHybrid(page.slice(), bitWidth, nonNull)) {
+                        indexed.add(dictionary.get(index));
+                    }
+                    yield indexed;
+                }
+                case 5 -> readDeltaBinaryPacked(page.slice().order(ByteOrder.LITTLE_ENDIAN), nonNull);
+                default -> readPlain(page.slice().order(ByteOrder.LITTLE_ENDIAN), type, nonNull);
+            };
+            int next = 0;
+            for (int level : levels) {
+                values.add(level == 1 ? pageValues.get(next++) : null);
+            }
+        }
+        return values;
+    }
+
+    private static List<Object> readPlain(ByteBuffer page, long type, int count) {
+        List<Object> values = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (type == 1) {
+                values.add(page.getInt());
+            } else if (type == 2) {
+                values.add(page.getLong());
+            } else {
+                byte[] bytes = new byte[page.getInt()];
+                page.get(bytes);
+                values.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+        }
+        assertFalse(page.hasRemaining());
+        return values;
+    }
+
+    private static int[] readHybrid(ByteBuffer data, int bitWidth, int count) {
+        int[] values = new int[count + 8];
+        int read = 0;
+        while (read < count) {
+            long header = readVarint(data);
+            if ((header & 1) == 0) {
+                int value = 0;
+                for (int b = 0; b < (bitWidth + 7) / 8; b++) {
+                    value |= (data.get() & 0xff) << (8 * b);
+                }
+                for (int i = 0; i < header >> 1; i++) {
+                    values[read++] = value;
+                }
+            } else {
+                int groupValues = (int) (header >> 1) * 8;
+                if (read + groupValues > values.length) {
+                    values = Arrays.copyOf(values, read + groupValues);
+                }
+                unpack(data, values, read, groupValues, bitWidth);
+                read += groupValues;
+            }
+        }
+        assertFalse(data.hasRemaining());
+        return Arrays.copyOf(values, count);
+    }
+
+    private static List<Object> readDeltaBinaryPacked(ByteBuffer data, int count) {
+        int blockSize = (int) readVarint(data);
+        int miniblocks = (int) readVarint(data);
+        assertEquals(count, readVarint(data));
+        int miniblockSize = blockSize / miniblocks;
+        List<Object> values = new ArrayList<>();
+        int last = (int) zigZag(readVarint(data));
+        values.add(last);
+        int[] deltas = new int[miniblockSize];
+        while (values.size() < count) {
+            int minDelta = (int) zigZag(readVarint(data));
+            byte[] bitWidths = new byte[miniblocks];
+            data.get(bitWidths);
+            for (int m = 0; m < miniblocks && values.size() < count; m++) {
+                unpack(data, deltas, 0, miniblockSize, bitWidths[m]);
+                for (int i = 0; i < miniblockSize && values.size() < count; i++) {
+                    last += minDelta + deltas[i];
+                    values.add(last);
+                }
+            }
+        }
+        assertFalse(data.hasRemaining());
+        return values;
+    }
+
+    private static void unpack(ByteBuffer data, int[] values, int offset, int count, int bitWidth) {
+        long bits = 0;
+        int bitCount = 0;
+        for (int i = 0; i < count; i++) {
+            while (bitCount < bitWidth) {
+                bits |= (long) (data.get() & 0xff) << bitCount;
+                bitCount += 8;
+            }
+            values[offset + i] = (int) (bits & ((1L << bitWidth) - 1));
+            bits >>>= bitWidth;
+            bitCount -= bitWidth;
+        }
+    }
+
+    private static long readVarint(ByteBuffer data) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = data.get();
+            value |= (long) (b & 0x7f) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Integer, Object> struct(Map<Integer, Object> struct, int field) {
+        return (Map<Integer, Object>) struct.get(field);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<Integer, Object>> list(Map<Integer, Object> struct, int field) {
+        return (List<Map<Integer, Object>>) struct.get(field);
+    }
+
+    private static String string(Map<Integer, Object> struct, int field) {
+        return new String((byte[]) struct.get(field), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads Thrift compact structs into maps from field id to value: Long for integers, byte[] for binary,
+     * Boolean, List and nested maps
+     */
+    private static final class ThriftReader {
+        private final ByteBuffer buffer;
+        private int position;
+
+        private ThriftReader(ByteBuffer buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        private Map<Integer, Object> readStruct() {
+            Map<Integer, Object> fields = new HashMap<>();
+            int lastId = 0;
+            while (true) {
+                int header = buffer.get(position++) & 0xff;
+                if (header == 0) {
+                    return fields;
+                }
+                int type = header & 0x0f;
+                int id = header >> 4 != 0 ? lastId + (header >> 4) : (int) zigZag(readVarint());
+                fields.put(id, readValue(type));
+                lastId = id;
+            }
+        }
+
+        private Object readValue(int type) {
+            return switch (type) {
+                case 1 -> true;
+                case 2 -> false;
+                case 4, 5, 6 -> zigZag(readVarint());
+                case 8 -> {
+                    byte[] bytes = new byte[(int) readVarint()];
+                    buffer.get(position, bytes);
+                    position += bytes.length;
+                    yield bytes;
+                }
+                case 9 -> {
+                    int header = buffer.get(position++) & 0xff;
+                    long size = header >> 4 == 15 ? readVarint() : header >> 4;
+                    List<Object> elements = new ArrayList<>();
+                    for (int i = 0; i < size; i++) {
+                        elements.add(readValue(header & 0x0f));
+                    }
+                    yield elements;
+                }
+                case 12 -> readStruct();
+                default -> throw new IllegalStateException("Unexpected Thrift type " + type);
+            };
+        }
+
+        private long readVarint() {
+            ByteBuffer view = buffer.slice(position, Math.min(10, buffer.limit() - position));
+            long value = ParquetFileEncoderTest.readVarint(view);
+            position += view.position();
+            return value;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.datasampler.datagenerator.output;
+
+import com.datasampler.datagenerator.model.Compression;
+import com.datasampler.datagenerator.model.FileType;
+import com.datasampler.datagenerator.model.ManifestFile;
+import com.datasampler.datagenerator.model.TransactionRecord;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RollingPartitionWriterTest {
+
+    @Test
+    public void testRollsOverAtRowLimit() throws IOException {
+        InMemorySink sink = new InMemorySink();
+        try (RollingPartitionWriter writer = new RollingPartitionWriter(sink, "year=2024/month=01/", FileType.CSV,
+                Compression.NONE, 512, 6, 4, Long.MAX_VALUE)) {
+            // Chunks of 3 rows straddle the 4-row file boundary
+            writer.write(rows(0, 3));
+            writer.write(rows(3, 6));
+            writer.write(rows(6, 9));
+            // The last file is still open
+            assertEquals(List.of(
+                    new ManifestFile("year=2024/month=01/part-00000.csv", 4, CsvRecordEncoder.HEADER.length() + 4L * row(0).length()),
+                    new ManifestFile("year=2024/month=01/part-00001.csv", 4, CsvRecordEncoder.HEADER.length() + 4L * row(0).length())),
+                    writer.getFiles());
+        }
+
+        assertEquals(CsvRecordEncoder.HEADER + row(0) + row(1) + row(2) + row(3),
+                sink.content("year=2024/month=01/part-00000.csv"));
+        assertEquals(CsvRecordEncoder.HEADER + row(4) + row(5) + row(6) + row(7),
+                sink.content("year=2024/month=01/part-00001.csv"));
+        assertEquals(CsvRecordEncoder.HEADER + row(8), sink.content("year=2024/month=01/part-00002.csv"));
+    }
+
+    @Test
+    public void testRollsOverAtByteLimit() throws IOException {
+        // Room for the header and two rows, but not three
+        long maxBytes = CsvRecordEncoder.HEADER.length() + 2L * row(0).length() + 1;
+        InMemorySink sink = new InMemorySink();
+        try (RollingPartitionWriter writer = new RollingPartitionWriter(sink, "", FileType.CSV, Compression.NONE, 512, 6,
+                Long.MAX_VALUE, maxBytes)) {
+            writer.write(rows(0, 5));
+        }
+
+        assertEquals(List.of("part-00000.csv", "part-00001.csv", "part-00002.csv"), List.copyOf(sink.files.keySet()));
+        for (String file : sink.files.keySet()) {
+            assertTrue(sink.files.get(file).size() <= maxBytes, file + " should not exceed the byte limit");
+        }
+        assertEquals(CsvRecordEncoder.HEADER + row(4), sink.content("part-00002.csv"));
+    }
+
+    @Test
+    public void testRowLargerThanByteLimitGetsOwnFile() throws IOException {
+        InMemorySink sink = new InMemorySink();
+        try (RollingPartitionWriter writer = new RollingPartitionWriter(sink, "", FileType.CSV, Compression.NONE, 512, 6,
+                Long.MAX_VALUE, 10)) {
+            writer.write(rows(0, 2));
+        }
+
+        assertEquals(2, sink.files.size());
+        assertEquals(CsvRecordEncoder.HEADER + row(1), sink.content("part-00001.csv"));
+    }
+
+    @Test
+    public void testNoFileWithoutRows() throws IOException {
+        InMemorySink sink = new InMemorySink();
+        new RollingPartitionWriter(sink, "", FileType.CSV, Compression.GZIP, 512, 6, 10, Long.MAX_VALUE).close();
+        assertTrue(sink.files.isEmpty());
+    }
+
+    @Test
+    public void testJsonLinesFilesHaveNoHeader() throws IOException {
+        InMemorySink sink = new InMemorySink();
+        try (RollingPartitionWriter writer = new RollingPartitionWriter(sink, "", FileType.JSONL, Compression.NONE, 512, 6,
+                2, Long.MAX_VALUE)) {
+            JsonLinesRecordEncoder chunk = new JsonLinesRecordEncoder(0);
+            for (int i = 0; i < 3; i++) {
+                chunk.encode(TransactionRecord.builder().primaryKey("PK" + i).txnUid(i).build());
+            }
+            writer.write(chunk);
+            assertEquals(List.of(new ManifestFile("part-00000.jsonl", 2, chunk.rowsSize(0, 2))), writer.getFiles());
+        }
+
+        assertEquals(List.of("part-00000.jsonl", "part-00001.jsonl"), List.copyOf(sink.files.keySet()));
+        assertTrue(sink.content("part-00001.jsonl").startsWith("{\"primary_key\":\"PK2\","));
+    }
+
+    private static CsvRecordEncoder rows(int from, int to) {
+        CsvRecordEncoder encoder = new CsvRecordEncoder(0);
+        for (int i = from; i < to; i++) {
+            encoder.encode(TransactionRecord.builder()
+                    .primaryKey("PK" + i)
+                    .accountUid("A")
+                    .txnUid(i)
+                    .tokenizedPan("T")
+                    .last4digitNbr("1")
+                    .build());
+        }
+        return encoder;
+    }
+
+    private static String row(int i) {
+        return "PK" + i + ",A,,,,,0.00,,,,," + i + ",T,1\n";
+    }
+
+    /**
+     * Collects files in memory, in creation order
+     */
+    private static class InMemorySink implements PartitionSink {
+        private final Map<String, ByteArrayOutputStream> files = new LinkedHashMap<>();
+
+        @Override
+        public OutputStream openFile(String path) {
+            ByteArrayOutputStream file = new ByteArrayOutputStream();
+            files.put(path, file);
+            return file;
+        }
+
+        @Override
+        public boolean supportsConcurrentFiles() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private String content(String path) {
+            return files.get(path).toString(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.datasampler.datagenerator.output;
+
+import com.datasampler.datagenerator.model.TransactionBatch;
+import com.datasampler.datagenerator.model.TransactionRecord;
+import com.datasampler.datagenerator.util.PostedDateTable;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Rows shared by the encoder tests
+ */
+final class TransactionBatchFixtures {
+
+    // Dictionaries of the columnar encoders under test
+    static final List<String> PRODUCT_CODES = List.of("CREDIT");
+    static final List<String> TXN_TYPES = List.of("PURCHASE", "FEE");
+    static final List<String> CATEGORY_NAMES = List.of("Fees and Charges", "Annual Fee & Charges", "Café");
+    static final List<String> CATEGORY_GUIDS = List.of("CAT-00001504", "CAT-00001505");
+
+    private TransactionBatchFixtures() {
+    }
+
+    /**
+     * Builds a batch of two dissimilar rows: a FEE with the first category, and a PAYMENT from 1999 with the
+     * last category, tiny account and PAN digits
+     */
+    static TransactionBatch twoRows() {
+        return twoRows(null);
+    }
+
+    /**
+     * Builds the two rows of twoRows() in a batch with a date table
+     */
+    static TransactionBatch twoRows(PostedDateTable postedDates) {
+        TransactionBatch batch = new TransactionBatch(4, PRODUCT_CODES,
+                List.of("Fees and Charges", "Annual Fee & Charges", "Uncategorized"),
+                List.of("CAT-00001504", "CAT-00000100"), postedDates);
+        LocalDate postedDate = LocalDate.of(2024, 3, 5);
+        batch.getAccountNumber()[0] = 98420474225688L;
+        batch.getPostedEpochDay()[0] = (int) postedDate.toEpochDay();
+        batch.getTxnEpochDay()[0] = (int) postedDate.minusDays(1).toEpochDay();
+        batch.getTxnType()[0] = TransactionBatch.FEE;
+        batch.getAmountCents()[0] = 3405;
+        batch.getSubCategory()[0] = 1;
+        batch.getTxnUid()[0] = 1000001;
+        batch.getPanDigits()[0] = 4111110042L;
+
+        batch.getAccountNumber()[1] = 7;
+        batch.getPostedEpochDay()[1] = (int) LocalDate.of(1999, 12, 31).toEpochDay();
+        batch.getTxnEpochDay()[1] = batch.getPostedEpochDay()[1];
+        batch.getTxnType()[1] = TransactionBatch.PAYMENT;
+        batch.getAmountCents()[1] = 5;
+        batch.getCategory()[1] = 2;
+        batch.getSubCategory()[1] = 2;
+        batch.getCategoryGuid()[1] = 1;
+        batch.getTxnUid()[1] = 12;
+        batch.getPanDigits()[1] = 9;
+        batch.setSize(2);
+        return batch;
+    }
+
+    /**
+     * Builds a batch of the records from index from, with value tables in the order of the encoder dictionaries
+     */
+    static TransactionBatch rows(int from, int count) {
+        return rows(from, count, CATEGORY_NAMES, CATEGORY_GUIDS);
+    }
+
+    /**
+     * Builds a batch of the records from index from, with the given category value tables
+     */
+    static TransactionBatch rows(int from, int count, List<String> categoryNames, List<String> categoryGuids) {
+        TransactionBatch rows = new TransactionBatch(count, PRODUCT_CODES, categoryNames, categoryGuids, null);
+        for (int i = 0; i < count; i++) {
+            setRow(rows, i, record(from + i, (from + i) * 101L));
+        }
+        rows.setSize(count);
+        return rows;
+    }
+
+    /**
+     * Builds the record with index i: one posted date per index from 2024-03-05, FEE and PURCHASE alternating
+     */
+    static TransactionRecord record(int i, long amountCents) {
+        LocalDate postedDate = LocalDate.of(2024, 3, 5).plusDays(i);
+        return TransactionRecord.builder()
+                .accountNumber(98420474225688L)
+                .productCd("CREDIT")
+                .txnPostedDate(postedDate)
+                .txnDate(postedDate.minusDays(1))
+                .txnType(i % 2 == 0 ? "FEE" : "PURCHASE")
+                .amountCents(amountCents)
+                .category("Fees and Charges")
+                .subCategory(i % 4 == 0 ? "Café" : "Annual Fee & Charges")
+                .categoryGUID("CAT-00001504")
+                .debitCreditIndicator("D")
+                .txnUid(1000000 + i)
+                .panDigits(4111110042L)
+                .build();
+    }
+
+    /**
+     * Copies a record into a row of a batch, looking its values up in the batch's value tables
+     */
+    static void setRow(TransactionBatch batch, int row, TransactionRecord record) {
+        batch.getAccountNumber()[row] = record.getAccountNumber();
+        batch.getProductCd()[row] = (byte) batch.getProductCodes().indexOf(record.getProductCd());
+        batch.getPostedEpochDay()[row] = (int) record.getTxnPostedDate().toEpochDay();
+        batch.getTxnEpochDay()[row] = (int) record.getTxnDate().toEpochDay();
+        batch.getTxnType()[row] = (byte) TransactionBatch.TXN_TYPES.indexOf(record.getTxnType());
+        batch.getAmountCents()[row] = record.getAmountCents();
+        batch.getCategory()[row] = (short) batch.getCategoryNames().indexOf(record.getCategory());
+        batch.getSubCategory()[row] = (short) batch.getCategoryNames().indexOf(record.getSubCategory());
+        batch.getCategoryGuid()[row] = (short) batch.getCategoryGuids().indexOf(record.getCategoryGUID());
+        batch.getTxnUid()[row] = record.getTxnUid();
+        batch.getPanDigits()[row] = record.getPanDigits();
+    }
+}
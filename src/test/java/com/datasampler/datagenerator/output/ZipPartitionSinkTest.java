@@ -0,0 +1,87 @@
+package com.datasampler.datagenerator.output;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ZipPartitionSinkTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testEntriesAreStreamedAndReadable() throws IOException {
+        byte[] csv = "primary_key,amount\nPK1,1.00\nPK2,2.00\n".repeat(1000).getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = new byte[50_000];
+        new Random(42).nextBytes(compressed);
+        byte[] manifest = "{\"files\":[]}".getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        ZipPartitionSink sink = new ZipPartitionSink(archive, 6);
+        try (OutputStream entry = sink.openFile("year=2024/month=01/part-00000.csv")) {
+            entry.write(csv, 0, 10);
+            entry.write(csv, 10, csv.length - 10);
+        }
+        try (OutputStream entry = sink.openFile("year=2024/month=02/part-00000.csv.gz")) {
+            entry.write(compressed);
+        }
+        sink.writeFile("_manifest.json", manifest);
+        sink.close();
+
+        // Streaming readers see every entry in order
+        try (ZipInputStream zipStream = new ZipInputStream(new ByteArrayInputStream(archive.toByteArray()))) {
+            assertEquals("year=2024/month=01/part-00000.csv", zipStream.getNextEntry().getName());
+            assertArrayEquals(csv, zipStream.readAllBytes());
+            assertEquals("year=2024/month=02/part-00000.csv.gz", zipStream.getNextEntry().getName());
+            assertArrayEquals(compressed, zipStream.readAllBytes());
+            assertEquals("_manifest.json", zipStream.getNextEntry().getName());
+            assertArrayEquals(manifest, zipStream.readAllBytes());
+            assertNull(zipStream.getNextEntry());
+        }
+
+        // So do readers that go through the central directory
+        Path file = tempDir.resolve("archive.zip");
+        Files.write(file, archive.toByteArray());
+        try (ZipFile zipFile = new ZipFile(file.toFile())) {
+            ZipEntry csvEntry = zipFile.getEntry("year=2024/month=01/part-00000.csv");
+            assertTrue(csvEntry.getCompressedSize() < csv.length / 10, "CSV entries should be deflated");
+
+            // Already compressed data is copied in stored blocks rather than deflated again
+            ZipEntry gzipEntry = zipFile.getEntry("year=2024/month=02/part-00000.csv.gz");
+            assertTrue(gzipEntry.getCompressedSize() < compressed.length + 100);
+
+            ZipEntry manifestEntry = zipFile.getEntry("_manifest.json");
+            assertEquals(ZipEntry.STORED, manifestEntry.getMethod());
+            assertArrayEquals(manifest, zipFile.getInputStream(manifestEntry).readAllBytes());
+        }
+    }
+
+    @Test
+    public void testOnlyOneEntryAtATime() throws IOException {
+        ZipPartitionSink sink = new ZipPartitionSink(new ByteArrayOutputStream());
+        assertFalse(sink.supportsConcurrentFiles());
+        OutputStream first = sink.openFile("part-00000.csv");
+        assertThrows(IllegalStateException.class, () -> sink.openFile("part-00001.csv"));
+        first.close();
+        sink.openFile("part-00001.csv").close();
+        sink.close();
+    }
+
+    @Test
+    public void testInvalidLevel() {
+        assertThrows(IllegalArgumentException.class, () -> new ZipPartitionSink(new ByteArrayOutputStream(), 10));
+    }
+}
@@ -1,11 +1,16 @@
 package com.datasampler.datagenerator.service;
 
+import com.datasampler.datagenerator.model.Category;
+import com.datasampler.datagenerator.model.FileType;
 import com.datasampler.datagenerator.model.TransactionRecord;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -130,4 +135,68 @@ public class CategoryIntegrationTest {
             }
         }
     }
+
+    @Test
+    public void testPickTables() {
+        SplittableRandom random = new SplittableRandom(42);
+        String feesGuid = categoryService.getCategoryGuidByName("Fees and Charges");
+
+        for (int i = 0; i < 500; i++) {
+            // Purchase parents never include Fees and Charges or Uncategorized
+            Category parent = categoryService.getRandomPurchaseParentCategory(random);
+            assertTrue(parent.getParentCategoryGUID().isEmpty(), "Purchase pick should be a parent category");
+            assertNotEquals(feesGuid, parent.getCategoryGUID());
+            assertNotEquals(categoryService.getUncategorizedGuid(), parent.getCategoryGUID());
+
+            // Subcategory picks belong to the requested parent
+            Category subcategory = categoryService.getRandomSubcategory(parent.getCategoryGUID(), random);
+            assertEquals(parent.getCategoryGUID(), subcategory.getParentCategoryGUID());
+
+            // Fee picks are always children of Fees and Charges
+            assertEquals(feesGuid, categoryService.getRandomFeeSubcategory(random).getParentCategoryGUID());
+        }
+
+        // A parent without children falls back to Uncategorized
+        assertEquals(categoryService.getUncategorizedGuid(),
+                categoryService.getRandomSubcategory(categoryService.getUncategorizedGuid(), random).getCategoryGUID());
+    }
+
+    @Test
+    public void testWeightedSubcategoryPicks() {
+        SplittableRandom random = new SplittableRandom(42);
+        String shoppingGuid = categoryService.getCategoryGuidByName("Shopping");
+
+        // Grocery carries the largest weight under Shopping, so it should be picked most often
+        int grocery = 0;
+        int homegoods = 0;
+        for (int i = 0; i < 10_000; i++) {
+            String subcategory = categoryService.getRandomSubcategory(shoppingGuid, random).getCategory();
+            if ("Grocery".equals(subcategory)) {
+                grocery++;
+            } else if ("Homegoods".equals(subcategory)) {
+                homegoods++;
+            }
+        }
+        assertTrue(grocery > 2 * homegoods, "Grocery should dominate Shopping picks, got " + grocery + " vs " + homegoods);
+    }
+
+    @Test
+    public void testEncodedCsvValues() {
+        Map<String, byte[]> encodedValues = categoryService.getEncodedValues(FileType.CSV);
+
+        // Names and GUIDs are pre-quoted with the CSV rules
+        assertEquals("\"Fees and Charges\"", new String(encodedValues.get("Fees and Charges"), StandardCharsets.UTF_8));
+        assertEquals("Grocery", new String(encodedValues.get("Grocery"), StandardCharsets.UTF_8));
+        assertEquals("\"CAT-00000101\"", new String(encodedValues.get("CAT-00000101"), StandardCharsets.UTF_8));
+        assertEquals("Uncategorized", new String(encodedValues.get("Uncategorized"), StandardCharsets.UTF_8));
+
+        // Every category that can be picked has an entry
+        for (Category parent : categoryService.getParentCategories()) {
+            assertNotNull(encodedValues.get(parent.getCategory()), "Missing encoded name for " + parent.getCategory());
+            for (Category subcategory : categoryService.getSubcategories(parent.getCategoryGUID())) {
+                assertNotNull(encodedValues.get(subcategory.getCategory()));
+                assertNotNull(encodedValues.get(subcategory.getCategoryGUID()));
+            }
+        }
+    }
 }
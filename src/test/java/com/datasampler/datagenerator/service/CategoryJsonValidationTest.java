@@ -122,6 +122,20 @@ public class CategoryJsonValidationTest {
         }
     }
     
+    @Test
+    public void testCategoryWeights() throws IOException {
+        List<Map<String, String>> categories = loadCategoriesJson();
+
+        // Weights are optional, but when present they must be positive numbers
+        for (Map<String, String> category : categories) {
+            String weight = category.get("weight");
+            if (weight != null) {
+                assertTrue(Double.parseDouble(weight) > 0,
+                        "Weight for " + category.get("category") + " must be positive, found " + weight);
+            }
+        }
+    }
+    
     @Test
     public void testUncategorizedCategory() throws IOException {
         List<Map<String, String>> categories = loadCategoriesJson();
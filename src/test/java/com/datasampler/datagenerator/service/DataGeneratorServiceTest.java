@@ -1,14 +1,40 @@
 package com.datasampler.datagenerator.service;
 
+import com.datasampler.datagenerator.model.Compression;
+import com.datasampler.datagenerator.model.FileType;
+import com.datasampler.datagenerator.model.GenerationRequest;
+import com.datasampler.datagenerator.model.ManifestFile;
+import com.datasampler.datagenerator.model.OutputManifest;
+import com.datasampler.datagenerator.model.PartitionBy;
+import com.datasampler.datagenerator.model.RowOrder;
+import com.datasampler.datagenerator.model.Seasonality;
 import com.datasampler.datagenerator.model.TransactionRecord;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -282,4 +308,505 @@ public class DataGeneratorServiceTest {
         assertTrue(csv.contains("4111ABCDEF1111"));
         assertTrue(csv.contains("1111"));
     }
+
+    @Test
+    public void testAmountCentsFormatting() {
+        LocalDate testDate = LocalDate.of(2023, 1, 15);
+        TransactionRecord.TransactionRecordBuilder builder = TransactionRecord.builder()
+                .accountUid("000000123456789012")
+                .productCd("CREDIT")
+                .txnPostedDate(testDate)
+                .txnDate(testDate)
+                .txnType("PURCHASE")
+                .category("Shopping")
+                .subCategory("Grocery")
+                .txnUid(7890123)
+                .tokenizedPan("4111ABCDEF1111")
+                .last4digitNbr("1111")
+                .primaryKey("000000123456789012_CREDIT_2023-01-15_7890123");
+
+        // Cents are rendered with exactly two decimals, padding single-digit cents
+        assertTrue(service.convertToCsv(List.of(builder.amountCents(100).build())).contains(",PURCHASE,1.00,"));
+        assertTrue(service.convertToCsv(List.of(builder.amountCents(1005).build())).contains(",PURCHASE,10.05,"));
+        assertTrue(service.convertToCsv(List.of(builder.amountCents(999999).build())).contains(",PURCHASE,9999.99,"));
+
+        // The BigDecimal view round-trips through cents
+        TransactionRecord record = builder.amount(new BigDecimal("123.456")).build();
+        assertEquals(12346, record.getAmountCents());
+        assertEquals(new BigDecimal("123.46"), record.getAmount());
+    }
+
+    @Test
+    public void testPackedIdentifiers() {
+        LocalDate testDate = LocalDate.of(2023, 1, 15);
+        TransactionRecord record = TransactionRecord.builder()
+                .accountNumber(123)
+                .productCd("CREDIT")
+                .txnPostedDate(testDate)
+                .txnDate(testDate)
+                .txnType("PURCHASE")
+                .amountCents(12345)
+                .category("Shopping")
+                .subCategory("Grocery")
+                .txnUid(7890123)
+                .panDigits(1234560042L)
+                .build();
+
+        // Packed digits render zero-padded, and the primary key is derived from them
+        assertEquals("00000000000000000123", record.getAccountUid());
+        assertEquals("123456XXXXXX0042", record.getTokenizedPan());
+        assertEquals("0042", record.getLast4digitNbr());
+        assertEquals("00000000000000000123_CREDIT_2023-01-15_7890123", record.getPrimaryKey());
+
+        String row = service.convertToCsv(List.of(record)).split("\n")[1];
+        assertTrue(row.startsWith("\"00000000000000000123_CREDIT_2023-01-15_7890123\",00000000000000000123,CREDIT,"));
+        assertTrue(row.endsWith(",7890123,123456XXXXXX0042,0042"));
+
+        // Explicit values take precedence and are still quoted when they need it
+        record.setAccountUid("ACC 1\"2");
+        record.setPrimaryKey("PK1");
+        row = service.convertToCsv(List.of(record)).split("\n")[1];
+        assertTrue(row.startsWith("PK1,\"ACC 1\"\"2\",CREDIT,"));
+    }
+
+    @Test
+    public void testWriteCsvStreamsAllRows() throws IOException {
+        // Use more rows than one batch so that several batches are written
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        service.writeDataset(GenerationRequest.builder()
+                .dataSampleCount(2500)
+                .uniqueSampleCount(1000)
+                .year(2024)
+                .build(), outputStream);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+
+        // Header plus one line per record
+        assertEquals(2501, lines.length, "CSV should contain a header and 2500 rows");
+        assertTrue(lines[0].startsWith("primary_key,account_uid,product_cd"));
+
+        // Every row should have a distinct primary key
+        long distinctKeys = Arrays.stream(lines, 1, lines.length)
+                .map(line -> line.substring(0, line.indexOf(',')))
+                .distinct()
+                .count();
+        assertEquals(2500, distinctKeys, "Each streamed row should have a unique primary key");
+    }
+
+    @Test
+    public void testWriteCsvWithGzipCompression() throws IOException {
+        GenerationRequest plainRequest = GenerationRequest.builder()
+                .dataSampleCount(2500)
+                .uniqueSampleCount(1000)
+                .year(2024)
+                .seed(42L)
+                .build();
+        GenerationRequest gzipRequest = GenerationRequest.builder()
+                .dataSampleCount(2500)
+                .uniqueSampleCount(1000)
+                .year(2024)
+                .seed(42L)
+                .compression(Compression.GZIP)
+                .build();
+
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        service.writeDataset(plainRequest, plain);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        service.writeDataset(gzipRequest, compressed);
+
+        // The gzip stream decompresses to exactly the uncompressed CSV, and is much smaller
+        try (GZIPInputStream gzipStream = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            assertArrayEquals(plain.toByteArray(), gzipStream.readAllBytes());
+        }
+        assertTrue(compressed.size() < plain.size() / 2, "Gzip output should be much smaller than the CSV");
+    }
+
+    @Test
+    public void testWriteCsvToFile(@TempDir Path tempDir) throws IOException {
+        GenerationRequest request = GenerationRequest.builder()
+                .dataSampleCount(25000)
+                .uniqueSampleCount(12000)
+                .year(2024)
+                .seed(42L)
+                .build();
+
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        service.writeDataset(request, streamed);
+
+        // The file sink writes exactly what a download streams, with or without fsync
+        Path file = tempDir.resolve("transactions.csv");
+        service.writeDataset(request, file, false);
+        assertArrayEquals(streamed.toByteArray(), Files.readAllBytes(file));
+        service.writeDataset(request, file, true);
+        assertArrayEquals(streamed.toByteArray(), Files.readAllBytes(file));
+    }
+
+    @Test
+    public void testWriteJsonLinesMatchesCsv() throws IOException {
+        GenerationRequest csvRequest = GenerationRequest.builder()
+                .dataSampleCount(25000)
+                .uniqueSampleCount(12000)
+                .year(2024)
+                .seed(42L)
+                .build();
+        GenerationRequest jsonRequest = GenerationRequest.builder()
+                .fileType(FileType.JSONL)
+                .dataSampleCount(25000)
+                .uniqueSampleCount(12000)
+                .year(2024)
+                .seed(42L)
+                .build();
+        assertEquals(".jsonl", jsonRequest.getFileExtension());
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        service.writeDataset(csvRequest, csv);
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        service.writeDataset(jsonRequest, json);
+        String[] csvLines = csv.toString(StandardCharsets.UTF_8).split("\n");
+        String[] jsonLines = json.toString(StandardCharsets.UTF_8).split("\n");
+
+        // Same records in the same order, one object per line and no header
+        assertEquals(csvLines.length - 1, jsonLines.length);
+        ObjectMapper objectMapper = new ObjectMapper();
+        for (int i = 0; i < jsonLines.length; i += 997) {
+            Map<?, ?> row = objectMapper.readValue(jsonLines[i], Map.class);
+            String[] columns = csvLines[i + 1].split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)");
+            assertEquals(14, row.size());
+            assertEquals(columns[0].replace("\"", ""), row.get("primary_key"));
+            assertEquals(columns[3].replace("\"", ""), row.get("txn_posted_date"));
+            assertEquals(0, new BigDecimal(columns[6]).compareTo(new BigDecimal(row.get("amount").toString())));
+            assertEquals(columns[7].replace("\"", ""), row.get("category"));
+            assertEquals(Integer.parseInt(columns[11]), ((Number) row.get("txn_uid")).intValue());
+            assertEquals(columns[13], row.get("last4digitNbr"));
+        }
+    }
+
+    @Test
+    public void testWriteArrowStream() throws IOException {
+        GenerationRequest request = GenerationRequest.builder()
+                .fileType(FileType.ARROW)
+                .dataSampleCount(70000)
+                .uniqueSampleCount(30000)
+                .year(2024)
+                .seed(42L)
+                .build();
+        assertEquals(".arrows", request.getFileExtension());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.writeDataset(request, out);
+        ByteBuffer stream = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+
+        // Schema, five dictionaries and two record batches of at most 65536 rows, then the end-of-stream marker
+        int messages = 0;
+        while (true) {
+            assertEquals(-1, stream.getInt());
+            int metadataLength = stream.getInt();
+            if (metadataLength == 0) {
+                break;
+            }
+            int metadataStart = stream.position();
+            int root = stream.getInt(metadataStart);
+            int vtable = metadataStart + root - stream.getInt(metadataStart + root);
+            // Message field 3 is the body length
+            long bodyLength = stream.getLong(metadataStart + root + stream.getShort(vtable + 4 + 2 * 3));
+            stream.position(metadataStart + metadataLength + (int) bodyLength);
+            messages++;
+        }
+        assertFalse(stream.hasRemaining());
+        assertEquals(8, messages);
+    }
+
+    @Test
+    public void testWriteParquetFile() throws IOException {
+        GenerationRequest request = GenerationRequest.builder()
+                .fileType(FileType.PARQUET)
+                .dataSampleCount(70000)
+                .uniqueSampleCount(30000)
+                .year(2024)
+                .seed(42L)
+                .build();
+        assertEquals(".parquet", request.getFileExtension());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.writeDataset(request, out);
+        byte[] file = out.toByteArray();
+        byte[] magic = "PAR1".getBytes(StandardCharsets.US_ASCII);
+        assertArrayEquals(magic, Arrays.copyOfRange(file, 0, 4));
+        assertArrayEquals(magic, Arrays.copyOfRange(file, file.length - 4, file.length));
+        // The footer length precedes the closing magic bytes; the footer itself is checked by ParquetFileEncoderTest
+        int footerLength = ByteBuffer.wrap(file, file.length - 8, 4).order(ByteOrder.LITTLE_ENDIAN).getInt();
+        assertTrue(footerLength > 0 && footerLength < file.length - 12);
+
+        // Same seed, same file
+        ByteArrayOutputStream again = new ByteArrayOutputStream();
+        service.writeDataset(request, again);
+        assertArrayEquals(file, again.toByteArray());
+    }
+
+    @Test
+    public void testWriteCsvPartitionsByMonth(@TempDir Path tempDir) throws IOException {
+        GenerationRequest request = GenerationRequest.builder()
+                .dataSampleCount(25000)
+                .uniqueSampleCount(12000)
+                .year(2024)
+                .seed(42L)
+                .build();
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        service.writeDataset(request, streamed);
+        String[] lines = streamed.toString(StandardCharsets.UTF_8).split("\n");
+
+        request.setPartitionBy(PartitionBy.MONTH);
+        request.setMaxRowsPerFile(1000);
+        service.writePartitions(request, tempDir, false);
+
+        for (int month = 1; month <= 12; month++) {
+            // Each month directory holds that month's rows in the original order, split into files of at most 1000 rows
+            String postedMonth = String.format(",\"2024-%02d-", month);
+            List<String> expected = Arrays.stream(lines, 1, lines.length)
+                    .filter(line -> line.indexOf(postedMonth) == line.indexOf(",\"2024-"))
+                    .toList();
+
+            Path monthDirectory = tempDir.resolve(String.format("year=2024/month=%02d", month));
+            List<String> actual = new ArrayList<>();
+            try (Stream<Path> files = Files.list(monthDirectory)) {
+                for (Path file : files.sorted().toList()) {
+                    List<String> fileLines = Files.readAllLines(file);
+                    assertEquals(lines[0], fileLines.get(0), "Every file should start with the header");
+                    assertTrue(fileLines.size() - 1 <= 1000, "Files should hold at most 1000 rows");
+                    actual.addAll(fileLines.subList(1, fileLines.size()));
+                }
+            }
+            assertEquals(expected, actual, "Rows of month " + month);
+        }
+
+        // The manifest lists every file with its rows and size, and the seed to regenerate them
+        OutputManifest manifest = new ObjectMapper().readValue(tempDir.resolve("_manifest.json").toFile(), OutputManifest.class);
+        assertEquals(Long.valueOf(42), manifest.getSeed());
+        assertEquals(25000, manifest.getTotalRows());
+        assertEquals(PartitionBy.MONTH, manifest.getPartitionBy());
+        assertEquals("year=2024/month=01/part-00000.csv", manifest.getFiles().get(0).getPath());
+        for (ManifestFile file : manifest.getFiles()) {
+            assertEquals(Files.size(tempDir.resolve(file.getPath())), file.getBytes());
+            assertEquals(Files.readAllLines(tempDir.resolve(file.getPath())).size() - 1, file.getRows());
+        }
+        assertEquals(25000, manifest.getFiles().stream().mapToLong(ManifestFile::getRows).sum());
+    }
+
+    @Test
+    public void testUnseededManifestHasNoSeed(@TempDir Path tempDir) throws IOException {
+        GenerationRequest request = GenerationRequest.builder()
+                .dataSampleCount(1000)
+                .uniqueSampleCount(1000)
+                .partitionBy(PartitionBy.MONTH)
+                .build();
+        service.writePartitions(request, tempDir, false);
+
+        // A random seed would not regenerate the data, since unseeded txnUids depend on earlier requests
+        OutputManifest manifest = new ObjectMapper().readValue(tempDir.resolve("_manifest.json").toFile(), OutputManifest.class);
+        assertNull(manifest.getSeed());
+        assertEquals(1000, manifest.getTotalRows());
+    }
+
+    @Test
+    public void testPartitionedDownloadIsZipOfPartitions(@TempDir Path tempDir) throws IOException {
+        GenerationRequest request = GenerationRequest.builder()
+                .dataSampleCount(25000)
+                .uniqueSampleCount(12000)
+                .year(2024)
+                .seed(42L)
+                .partitionBy(PartitionBy.MONTH)
+                .maxBytesPerFile(100_000L)
+                .build();
+        service.writePartitions(request, tempDir, false);
+
+        // The zip holds exactly the files written to disk, byte for byte
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        service.writeDataset(request, zip);
+        int entries = 0;
+        try (ZipInputStream zipStream = new ZipInputStream(new ByteArrayInputStream(zip.toByteArray()))) {
+            for (ZipEntry entry = zipStream.getNextEntry(); entry != null; entry = zipStream.getNextEntry()) {
+                byte[] content = zipStream.readAllBytes();
+                assertArrayEquals(Files.readAllBytes(tempDir.resolve(entry.getName())), content, entry.getName());
+                assertTrue(content.length <= 100_000, entry.getName() + " should not exceed the byte limit");
+                entries++;
+            }
+        }
+        try (Stream<Path> files = Files.walk(tempDir)) {
+            assertEquals(files.filter(Files::isRegularFile).count(), entries);
+        }
+    }
+
+    @Test
+    public void testCardSeasonalityShapesPostedDates() {
+        GenerationRequest request = GenerationRequest.builder()
+                .dataSampleCount(50000)
+                .uniqueSampleCount(20000)
+                .year(2024)
+                .seed(42L)
+                .seasonality(Seasonality.CARD)
+                .build();
+        List<TransactionRecord> records = service.generateTransactionRecordsParallel(request);
+
+        int[] byMonth = new int[12];
+        int[] byDayOfWeek = new int[7];
+        for (TransactionRecord record : records) {
+            assertEquals(2024, record.getTxnPostedDate().getYear());
+            assertFalse(record.getTxnDate().isAfter(record.getTxnPostedDate()));
+            byMonth[record.getTxnPostedDate().getMonthValue() - 1]++;
+            byDayOfWeek[record.getTxnPostedDate().getDayOfWeek().getValue() - 1]++;
+        }
+
+        // December and Saturdays carry the most card volume in the default profile
+        assertTrue(byMonth[11] > byMonth[1] * 1.4, "December should have far more rows than February");
+        assertTrue(byDayOfWeek[5] > byDayOfWeek[6] * 1.4, "Saturday should have far more rows than Sunday");
+
+        // The same seed without seasonality spreads the rows evenly over the days
+        request.setSeasonality(Seasonality.NONE);
+        int[] uniformByMonth = new int[12];
+        for (TransactionRecord record : service.generateTransactionRecordsParallel(request)) {
+            uniformByMonth[record.getTxnPostedDate().getMonthValue() - 1]++;
+        }
+        assertTrue(uniformByMonth[11] < uniformByMonth[1] * 1.2, "Uniform dates should not favor December");
+    }
+
+    @Test
+    public void testStreamTransactionRecords() {
+        // Consuming the stream yields the same business rules as the list API
+        List<TransactionRecord> records = service.streamTransactionRecords(30, 10, "FEE", 2024).toList();
+        assertEquals(30, records.size(), "Stream should yield dataSampleCount records");
+
+        long uniquePrimaryKeys = records.stream().map(TransactionRecord::getPrimaryKey).distinct().count();
+        assertEquals(30, uniquePrimaryKeys, "Each streamed record should have a unique primary key");
+
+        long uniqueAccounts = records.stream().map(TransactionRecord::getAccountUid).distinct().count();
+        assertTrue(uniqueAccounts <= 10, "Related records should reuse the unique accounts");
+
+        for (TransactionRecord record : records) {
+            assertEquals("FEE", record.getTxnType());
+            assertEquals(2024, record.getTxnPostedDate().getYear());
+        }
+
+        // Records are generated on demand, so a huge dataset can be partially consumed
+        assertEquals(5, service.streamTransactionRecords(Integer.MAX_VALUE, 5, null, null).limit(5).count());
+    }
+
+    @Test
+    public void testGenerateTransactionRecordsParallel() {
+        // Use more records than one chunk so that several workers contribute
+        List<TransactionRecord> records = service.generateTransactionRecordsParallel(25000, 12000, null, 2024);
+        assertEquals(25000, records.size(), "Should generate 25000 records");
+
+        // Chunks are merged in order, so txnUids are consecutive across the whole list
+        for (int i = 1; i < records.size(); i++) {
+            assertEquals(records.get(i - 1).getTxnUid() + 1, records.get(i).getTxnUid(),
+                    "Records should be merged in generation order");
+        }
+
+        long uniquePrimaryKeys = records.stream().map(TransactionRecord::getPrimaryKey).distinct().count();
+        assertEquals(25000, uniquePrimaryKeys, "Each record should have a unique primary key");
+
+        long uniqueAccounts = records.stream().map(TransactionRecord::getAccountUid).distinct().count();
+        assertTrue(uniqueAccounts <= 12000, "Related records should reuse the unique accounts");
+    }
+
+    @Test
+    public void testSeededGenerationIsReproducible() throws IOException {
+        GenerationRequest request = GenerationRequest.builder()
+                .dataSampleCount(25000)
+                .uniqueSampleCount(12000)
+                .year(2024)
+                .seed(42L)
+                .build();
+
+        // The same seed and parameters produce byte-identical files
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        service.writeDataset(request, first);
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        service.writeDataset(request, second);
+        assertArrayEquals(first.toByteArray(), second.toByteArray(), "Seeded output should be reproducible");
+
+        // The stream and parallel list APIs yield the same records as the file
+        String csv = first.toString(StandardCharsets.UTF_8);
+        assertEquals(csv, service.convertToCsv(service.streamTransactionRecords(request).toList()));
+        assertEquals(csv, service.convertToCsv(service.generateTransactionRecordsParallel(request)));
+
+        // A different seed produces different data
+        request.setSeed(43L);
+        ByteArrayOutputStream other = new ByteArrayOutputStream();
+        service.writeDataset(request, other);
+        assertFalse(Arrays.equals(first.toByteArray(), other.toByteArray()), "A different seed should change the output");
+    }
+
+    @Test
+    public void testSliceMatchesFullDataset() {
+        GenerationRequest request = GenerationRequest.builder()
+                .dataSampleCount(30000)
+                .uniqueSampleCount(10000)
+                .year(2024)
+                .seed(7L)
+                .build();
+        List<TransactionRecord> fullDataset = service.generateTransactionRecordsParallel(request);
+
+        // A slice spanning unique and related records is computed without generating the records before it
+        request.setOffset(9990);
+        request.setLimit(20);
+        List<TransactionRecord> slice = service.generateTransactionRecordsParallel(request);
+
+        assertEquals(20, slice.size(), "Slice should contain limit records");
+        assertEquals(service.convertToCsv(fullDataset.subList(9990, 10010)), service.convertToCsv(slice),
+                "Record i should be the same whether generated alone or with the whole dataset");
+
+        // Related records reuse the account of a unique record
+        Set<String> uniqueAccounts = fullDataset.subList(0, 10000).stream()
+                .map(TransactionRecord::getAccountUid)
+                .collect(Collectors.toSet());
+        for (TransactionRecord record : slice.subList(10, 20)) {
+            assertTrue(uniqueAccounts.contains(record.getAccountUid()), "Related record should reuse a unique account");
+        }
+    }
+    @Test
+    public void testOrderByPostedDate() throws IOException {
+        GenerationRequest request = GenerationRequest.builder()
+                .dataSampleCount(30000)
+                .uniqueSampleCount(10000)
+                .year(2024)
+                .seed(7L)
+                .seasonality(Seasonality.CARD)
+                .order(RowOrder.POSTED_DATE)
+                .build();
+        List<TransactionRecord> ordered = service.generateTransactionRecordsParallel(request);
+
+        // Rows come out in posted date order without a sort, and are the same rows whichever API produces them
+        assertEquals(30000, ordered.size());
+        for (int i = 1; i < ordered.size(); i++) {
+            assertFalse(ordered.get(i).getTxnPostedDate().isBefore(ordered.get(i - 1).getTxnPostedDate()),
+                    "Row " + i + " should not be posted before the row above it");
+            assertFalse(ordered.get(i).getTxnDate().isAfter(ordered.get(i).getTxnPostedDate()));
+        }
+        assertEquals(service.convertToCsv(ordered), service.convertToCsv(service.streamTransactionRecords(request).toList()));
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        service.writeDataset(request, csv);
+        assertEquals(service.convertToCsv(ordered), csv.toString(StandardCharsets.UTF_8));
+
+        // Ordering only moves records and sets their posted dates: every txnUid, account and amount is kept
+        request.setOrder(RowOrder.NONE);
+        List<TransactionRecord> unordered = service.generateTransactionRecordsParallel(request);
+        Map<Integer, TransactionRecord> byTxnUid = unordered.stream()
+                .collect(Collectors.toMap(TransactionRecord::getTxnUid, record -> record));
+        for (TransactionRecord record : ordered) {
+            TransactionRecord original = byTxnUid.remove(record.getTxnUid());
+            assertNotNull(original, "Ordered output should hold every txnUid once");
+            assertEquals(original.getAccountUid(), record.getAccountUid());
+            assertEquals(original.getAmountCents(), record.getAmountCents());
+            assertEquals(original.getCategoryGUID(), record.getCategoryGUID());
+        }
+        assertTrue(byTxnUid.isEmpty());
+
+        // A slice of the ordered output is computed without generating the rows before it
+        request.setOrder(RowOrder.POSTED_DATE);
+        request.setOffset(14990);
+        request.setLimit(20);
+        assertEquals(service.convertToCsv(ordered.subList(14990, 15010)),
+                service.convertToCsv(service.generateTransactionRecordsParallel(request)));
+    }
 }
@@ -0,0 +1,119 @@
+package com.datasampler.datagenerator.service;
+
+import com.datasampler.datagenerator.model.Compression;
+import com.datasampler.datagenerator.model.GenerationRequest;
+import com.datasampler.datagenerator.model.JobState;
+import com.datasampler.datagenerator.model.JobStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class GenerationJobServiceTest {
+
+    @Autowired
+    private GenerationJobService jobService;
+
+    @Autowired
+    private DataGeneratorService dataGeneratorService;
+
+    @Test
+    public void testJobWritesSameFileAsDownload() throws Exception {
+        GenerationRequest request = GenerationRequest.builder()
+                .dataSampleCount(25000)
+                .uniqueSampleCount(12000)
+                .year(2024)
+                .seed(42L)
+                .build();
+
+        JobStatus submitted = jobService.submit(request);
+        assertNotNull(submitted.getJobId());
+        assertEquals(25000, submitted.getTotalRows());
+
+        JobStatus status = awaitCompletion(submitted.getJobId());
+        assertEquals(JobState.COMPLETED, status.getState(), "Job should complete: " + status.getError());
+        assertEquals(25000, status.getRowsWritten());
+        assertNotNull(status.getStartedAt());
+        assertNotNull(status.getCompletedAt());
+
+        // The job file has exactly the bytes a download of the same request streams
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        dataGeneratorService.writeDataset(request, expected);
+        Path resultFile = jobService.getResultFile(submitted.getJobId());
+        assertArrayEquals(expected.toByteArray(), Files.readAllBytes(resultFile));
+        assertEquals(Files.size(resultFile), status.getBytesWritten());
+    }
+
+    @Test
+    public void testGzipJob() throws Exception {
+        GenerationRequest request = GenerationRequest.builder()
+                .dataSampleCount(5000)
+                .uniqueSampleCount(5000)
+                .seed(7L)
+                .compression(Compression.GZIP)
+                .build();
+
+        JobStatus status = awaitCompletion(jobService.submit(request).getJobId());
+        assertEquals(JobState.COMPLETED, status.getState(), "Job should complete: " + status.getError());
+
+        Path resultFile = jobService.getResultFile(status.getJobId());
+        assertTrue(resultFile.getFileName().toString().endsWith(".csv.gz"));
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        dataGeneratorService.writeDataset(GenerationRequest.builder()
+                .dataSampleCount(5000)
+                .uniqueSampleCount(5000)
+                .seed(7L)
+                .build(), expected);
+        try (GZIPInputStream gzipStream = new GZIPInputStream(Files.newInputStream(resultFile))) {
+            assertArrayEquals(expected.toByteArray(), gzipStream.readAllBytes());
+        }
+    }
+
+    @Test
+    public void testExpiredJobIsDeleted() throws Exception {
+        GenerationRequest request = GenerationRequest.builder()
+                .dataSampleCount(1000)
+                .uniqueSampleCount(1000)
+                .seed(3L)
+                .build();
+
+        JobStatus status = awaitCompletion(jobService.submit(request).getJobId());
+        assertEquals(JobState.COMPLETED, status.getState(), "Job should complete: " + status.getError());
+        Path resultFile = jobService.getResultFile(status.getJobId());
+        assertTrue(Files.exists(resultFile));
+
+        // A sweep within the retention period keeps the job; one after it removes the job and its file
+        jobService.removeExpiredJobs(status.getCompletedAt());
+        assertNotNull(jobService.getStatus(status.getJobId()));
+        jobService.removeExpiredJobs(status.getCompletedAt().plus(Duration.ofDays(1)));
+        assertNull(jobService.getStatus(status.getJobId()));
+        assertFalse(Files.exists(resultFile));
+    }
+
+    @Test
+    public void testUnknownJob() {
+        assertNull(jobService.getStatus("no-such-job"));
+    }
+
+    private JobStatus awaitCompletion(String jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 60_000;
+        JobStatus status = jobService.getStatus(jobId);
+        while (status.getState() == JobState.QUEUED || status.getState() == JobState.RUNNING) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Job " + jobId + " did not finish in time");
+            }
+            Thread.sleep(20);
+            status = jobService.getStatus(jobId);
+        }
+        return status;
+    }
+}
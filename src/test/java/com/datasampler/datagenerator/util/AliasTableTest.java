@@ -0,0 +1,60 @@
+package com.datasampler.datagenerator.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AliasTableTest {
+
+    @Test
+    public void testSampleFrequenciesMatchWeights() {
+        double[] weights = {50, 15, 20, 15};
+        AliasTable table = new AliasTable(weights);
+        SplittableRandom random = new SplittableRandom(42);
+
+        int draws = 200_000;
+        int[] counts = new int[weights.length];
+        for (int i = 0; i < draws; i++) {
+            counts[table.sample(random)]++;
+        }
+
+        // Each observed share should be within one percentage point of its weight share
+        for (int i = 0; i < weights.length; i++) {
+            double expected = weights[i] / 100.0;
+            double observed = counts[i] / (double) draws;
+            assertEquals(expected, observed, 0.01, "Share of index " + i);
+        }
+    }
+
+    @Test
+    public void testZeroWeightIsNeverSampled() {
+        AliasTable table = new AliasTable(new double[]{1, 0, 3});
+        SplittableRandom random = new SplittableRandom(7);
+
+        for (int i = 0; i < 10_000; i++) {
+            assertNotEquals(1, table.sample(random));
+        }
+    }
+
+    @Test
+    public void testSingleWeight() {
+        AliasTable table = new AliasTable(new double[]{5});
+        SplittableRandom random = new SplittableRandom(1);
+
+        assertEquals(1, table.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, table.sample(random));
+        }
+    }
+
+    @Test
+    public void testInvalidWeights() {
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[0]));
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[]{0, 0}));
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[]{1, -1}));
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[]{1, Double.NaN}));
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[]{1, Double.POSITIVE_INFINITY}));
+    }
+}
@@ -0,0 +1,89 @@
+package com.datasampler.datagenerator.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PostedDateOrderTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 1);
+
+    @Test
+    public void testRecordIndexesArePermutation() {
+        PostedDateTable table = PostedDateTable.forYear(2024, TODAY);
+        for (int rowCount : new int[]{1, 2, 3, 10, 1000, 65536, 99991}) {
+            PostedDateOrder order = new PostedDateOrder(table, rowCount, new SplittableRandom(rowCount));
+            boolean[] seen = new boolean[rowCount];
+            for (int position = 0; position < rowCount; position++) {
+                int index = order.recordIndex(position);
+                assertFalse(seen[index], "Index " + index + " of " + rowCount + " is visited twice");
+                seen[index] = true;
+            }
+        }
+    }
+
+    @Test
+    public void testUniqueIndexesAreSpreadOverPositions() {
+        PostedDateOrder order = new PostedDateOrder(PostedDateTable.forYear(2024, TODAY), 100_000, new SplittableRandom(1));
+
+        // Indexes below 30000 make up about 30% of every tenth of the positions
+        for (int tenth = 0; tenth < 10; tenth++) {
+            int low = 0;
+            for (int position = tenth * 10_000; position < (tenth + 1) * 10_000; position++) {
+                if (order.recordIndex(position) < 30_000) {
+                    low++;
+                }
+            }
+            assertEquals(3000, low, 30, "Tenth " + tenth);
+        }
+    }
+
+    @Test
+    public void testDaysAscendAndFollowCounts() {
+        PostedDateTable table = PostedDateTable.forYear(2024, TODAY);
+        int rowCount = 366_000;
+        PostedDateOrder order = new PostedDateOrder(table, rowCount, new SplittableRandom(42));
+
+        int[] rowsPerDay = new int[366];
+        int previous = table.getFirstEpochDay();
+        for (int position = 0; position < rowCount; position++) {
+            int epochDay = order.epochDay(position);
+            assertTrue(epochDay >= previous, "Days should never go back at position " + position);
+            previous = epochDay;
+            rowsPerDay[epochDay - table.getFirstEpochDay()]++;
+        }
+
+        // Every day gets about 1000 rows; a binomial with this mean stays well within 200 of it
+        for (int offset = 0; offset < 366; offset++) {
+            assertEquals(1000, rowsPerDay[offset], 200, "Rows of day " + offset);
+        }
+    }
+
+    @Test
+    public void testFewRowsSkipEmptyDays() {
+        PostedDateTable table = PostedDateTable.forYear(2024, TODAY);
+        PostedDateOrder order = new PostedDateOrder(table, 5, new SplittableRandom(3));
+
+        int previous = table.getFirstEpochDay();
+        for (int position = 0; position < 5; position++) {
+            int epochDay = order.epochDay(position);
+            assertTrue(epochDay >= previous && epochDay < table.getFirstEpochDay() + 366);
+            previous = epochDay;
+        }
+    }
+
+    @Test
+    public void testSameDrawsGiveSameLayout() {
+        PostedDateTable table = PostedDateTable.forYear(2023, TODAY);
+        PostedDateOrder first = new PostedDateOrder(table, 10_000, new SplittableRandom(9));
+        PostedDateOrder second = new PostedDateOrder(table, 10_000, new SplittableRandom(9));
+
+        for (int position = 0; position < 10_000; position++) {
+            assertEquals(first.epochDay(position), second.epochDay(position));
+            assertEquals(first.recordIndex(position), second.recordIndex(position));
+        }
+    }
+}
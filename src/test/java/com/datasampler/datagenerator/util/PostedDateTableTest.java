@@ -0,0 +1,169 @@
+package com.datasampler.datagenerator.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PostedDateTableTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 1);
+
+    @Test
+    public void testPastYearCoversEveryDay() {
+        PostedDateTable table = PostedDateTable.forYear(2024, TODAY);
+
+        assertEquals(2024, table.getYear());
+        assertEquals(366, table.getDayCount());
+        assertEquals(LocalDate.of(2024, 1, 1).toEpochDay(), table.getFirstEpochDay());
+        for (LocalDate date = LocalDate.of(2024, 1, 1); date.getYear() == 2024; date = date.plusDays(1)) {
+            assertEquals(date, table.date((int) date.toEpochDay()));
+        }
+    }
+
+    @Test
+    public void testIsoDatesMatchLocalDate() {
+        PostedDateTable table = PostedDateTable.forYear(2024, TODAY);
+        byte[] isoDate = new byte[PostedDateTable.ISO_DATE_LENGTH + 2];
+        for (LocalDate date = LocalDate.of(2024, 1, 1); date.getYear() == 2024; date = date.plusDays(1)) {
+            int epochDay = (int) date.toEpochDay();
+            assertTrue(table.hasIsoDate(epochDay));
+            table.copyIsoDate(epochDay, isoDate, 1);
+            assertEquals(date.toString(),
+                    new String(isoDate, 1, PostedDateTable.ISO_DATE_LENGTH, StandardCharsets.US_ASCII));
+            StringBuilder sb = new StringBuilder("_");
+            table.appendIsoDate(sb, epochDay);
+            assertEquals("_" + date, sb.toString());
+        }
+        assertFalse(table.hasIsoDate((int) LocalDate.of(2023, 12, 31).toEpochDay()));
+        assertFalse(table.hasIsoDate((int) LocalDate.of(2025, 1, 1).toEpochDay()));
+        // The current year renders every day of the year, including those that are not drawn
+        assertTrue(PostedDateTable.forYear(null, TODAY).hasIsoDate((int) LocalDate.of(2026, 12, 31).toEpochDay()));
+    }
+
+    @Test
+    public void testDaysAreDrawnUniformly() {
+        PostedDateTable table = PostedDateTable.forYear(2023, TODAY);
+        SplittableRandom random = new SplittableRandom(42);
+
+        int draws = 365_000;
+        int[] countsByMonth = new int[12];
+        for (int i = 0; i < draws; i++) {
+            LocalDate date = table.date(table.nextEpochDay(random));
+            assertEquals(2023, date.getYear());
+            countsByMonth[date.getMonthValue() - 1]++;
+        }
+
+        // Each month's share follows its number of days, so February gets fewer draws than January
+        for (int month = 1; month <= 12; month++) {
+            double expected = LocalDate.of(2023, month, 1).lengthOfMonth() / 365.0;
+            double observed = countsByMonth[month - 1] / (double) draws;
+            assertEquals(expected, observed, 0.002, "Share of month " + month);
+        }
+    }
+
+    @Test
+    public void testDaysFollowSeasonalityProfile() {
+        // Fridays weigh three times as much as other days, and December 24th twice as much again
+        SeasonalityProfile profile = SeasonalityProfile.parse("1,1,1,1,1,1,1,1,1,1,1,1", "1,1,1,1,3,1,1", "12-24:2");
+        PostedDateTable table = PostedDateTable.forYear(2024, TODAY, profile);
+        SplittableRandom random = new SplittableRandom(42);
+
+        // 2024 has 52 Fridays and 314 other days; December 24th is a Tuesday
+        double totalWeight = 52 * 3 + 313 + 2;
+        int draws = 400_000;
+        int fridays = 0;
+        int christmasEves = 0;
+        for (int i = 0; i < draws; i++) {
+            LocalDate date = table.date(table.nextEpochDay(random));
+            assertEquals(2024, date.getYear());
+            if (date.getDayOfWeek() == DayOfWeek.FRIDAY) {
+                fridays++;
+            }
+            if (date.equals(LocalDate.of(2024, 12, 24))) {
+                christmasEves++;
+            }
+        }
+
+        assertEquals(52 * 3 / totalWeight, fridays / (double) draws, 0.005);
+        assertEquals(2 / totalWeight, christmasEves / (double) draws, 0.001);
+    }
+
+    @Test
+    public void testSeasonalCurrentYearEndsYesterday() {
+        SeasonalityProfile profile = SeasonalityProfile.parse("1,1,1,1,1,1,1,1,1,1,1,1", "1,1,1,1,3,1,1", "");
+        PostedDateTable table = PostedDateTable.forYear(null, TODAY, profile);
+        SplittableRandom random = new SplittableRandom(3);
+
+        for (int i = 0; i < 10_000; i++) {
+            LocalDate date = table.date(table.nextEpochDay(random));
+            assertTrue(!date.isBefore(LocalDate.of(2026, 1, 1)) && date.isBefore(TODAY), "Date " + date);
+        }
+    }
+
+    @Test
+    public void testRowsPerDaySumToRowCount() {
+        PostedDateTable uniform = PostedDateTable.forYear(2024, TODAY);
+        SeasonalityProfile profile = SeasonalityProfile.parse("1,1,1,1,1,1,1,1,1,1,1,3", "1,1,1,1,1,1,1", "");
+        PostedDateTable seasonal = PostedDateTable.forYear(2024, TODAY, profile);
+        SplittableRandom random = new SplittableRandom(5);
+
+        for (int rowCount : new int[]{0, 1, 7, 500, 100_000, 2_000_000_000}) {
+            for (PostedDateTable table : new PostedDateTable[]{uniform, seasonal}) {
+                int[] rowsPerDay = table.drawRowsPerDay(rowCount, random);
+                assertEquals(366, rowsPerDay.length);
+                long total = 0;
+                for (int rows : rowsPerDay) {
+                    assertTrue(rows >= 0);
+                    total += rows;
+                }
+                assertEquals(rowCount, total);
+            }
+        }
+    }
+
+    @Test
+    public void testRowsPerDayFollowSeasonalityProfile() {
+        // December days weigh three times as much as the others: 31 * 3 of 335 + 31 * 3 in total
+        SeasonalityProfile profile = SeasonalityProfile.parse("1,1,1,1,1,1,1,1,1,1,1,3", "1,1,1,1,1,1,1", "");
+        PostedDateTable table = PostedDateTable.forYear(2024, TODAY, profile);
+        int[] rowsPerDay = table.drawRowsPerDay(10_000_000, new SplittableRandom(11));
+
+        long december = 0;
+        for (int offset = 335; offset < 366; offset++) {
+            december += rowsPerDay[offset];
+        }
+        assertEquals(93.0 / 428, december / 10_000_000.0, 0.001);
+        assertEquals(10_000_000 * 3.0 / 428, rowsPerDay[365], 1000);
+        assertEquals(10_000_000 / 428.0, rowsPerDay[0], 500);
+    }
+
+    @Test
+    public void testCurrentYearEndsYesterday() {
+        PostedDateTable table = PostedDateTable.forYear(null, TODAY);
+        SplittableRandom random = new SplittableRandom(7);
+
+        assertEquals(2026, table.getYear());
+        assertEquals(59, table.getDayCount());
+        assertEquals(59, PostedDateTable.forYear(2026, TODAY).getDayCount());
+        for (int i = 0; i < 10_000; i++) {
+            LocalDate date = table.date(table.nextEpochDay(random));
+            assertTrue(!date.isBefore(LocalDate.of(2026, 1, 1)) && date.isBefore(TODAY), "Date " + date);
+        }
+    }
+
+    @Test
+    public void testJanuaryFirstOnlyDrawsJanuaryFirst() {
+        PostedDateTable table = PostedDateTable.forYear(null, LocalDate.of(2026, 1, 1));
+        SplittableRandom random = new SplittableRandom(1);
+
+        assertEquals(1, table.getDayCount());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(LocalDate.of(2026, 1, 1), table.date(table.nextEpochDay(random)));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.datasampler.datagenerator.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SeasonalityProfileTest {
+
+    private static final double[] FLAT_MONTHS = {1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1};
+    private static final double[] FLAT_WEEK = {1, 1, 1, 1, 1, 1, 1};
+
+    @Test
+    public void testWeightMultipliesMonthDayOfWeekAndHoliday() {
+        SeasonalityProfile profile = SeasonalityProfile.parse("1,1,1,1,1,1,1,1,1,1,1,2", "1,1,1,1,3,1,1", "12-24:1.5");
+
+        assertEquals(2.0, profile.weight(LocalDate.of(2024, 12, 2)), 1e-9); // Monday in December
+        assertEquals(6.0, profile.weight(LocalDate.of(2024, 12, 6)), 1e-9); // Friday in December
+        assertEquals(3.0, profile.weight(LocalDate.of(2024, 12, 24)), 1e-9); // Tuesday, Christmas Eve
+        assertEquals(3.0, profile.weight(LocalDate.of(2024, 6, 7)), 1e-9); // Friday in June
+        assertEquals(1.0, profile.weight(LocalDate.of(2024, 6, 8)), 1e-9);
+    }
+
+    @Test
+    public void testParseAllowsSpacesAndNoHolidays() {
+        SeasonalityProfile profile = SeasonalityProfile.parse(" 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1 ",
+                "1, 1, 1, 1, 1, 1, 1", "");
+
+        assertEquals(1.0, profile.weight(LocalDate.of(2024, 12, 25)), 1e-9);
+    }
+
+    @Test
+    public void testInvalidProfiles() {
+        assertThrows(IllegalArgumentException.class, () -> new SeasonalityProfile(new double[11], FLAT_WEEK, Map.of()));
+        assertThrows(IllegalArgumentException.class, () -> new SeasonalityProfile(FLAT_MONTHS, new double[8], Map.of()));
+        assertThrows(IllegalArgumentException.class,
+                () -> SeasonalityProfile.parse("1,1,1,1,1,1,1,1,1,1,1,0", "1,1,1,1,1,1,1", ""));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SeasonalityProfile(FLAT_MONTHS, FLAT_WEEK, Map.of(MonthDay.of(12, 25), Double.NaN)));
+        assertThrows(IllegalArgumentException.class,
+                () -> SeasonalityProfile.parse("1,1,1,1,1,1,1,1,1,1,1,x", "1,1,1,1,1,1,1", ""));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> SeasonalityProfile.parse("1,1,1,1,1,1,1,1,1,1,1,1", "1,1,1,1,1,1,1", "13-01:2"));
+        assertEquals("Holiday weights must be MM-DD:weight, got 13-01:2", e.getMessage());
+    }
+}